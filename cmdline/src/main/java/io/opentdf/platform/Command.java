@@ -421,6 +421,35 @@ class Command {
         }
     }
 
+    @CommandLine.Command(name = "verify", description = "Check every segment of the payload against the manifest without writing the plaintext")
+    int verify(
+            @Option(names = { "-f", "--file" }, required = true) Path tdfPath,
+            @Option(names = { "--parallelism" }, defaultValue = Option.NULL_VALUE, description = "Number of segments to check at once, defaults to the number of processors") Optional<Integer> parallelism,
+            @Option(names = { "--kas-allowlist" }, defaultValue = Option.NULL_VALUE) Optional<String> kasAllowlistStr,
+            @Option(names = {
+                    "--ignore-kas-allowlist" }, defaultValue = Option.NULL_VALUE) Optional<Boolean> ignoreAllowlist)
+            throws Exception {
+        try (var sdk = buildSDK()) {
+            var opts = new ArrayList<Consumer<Config.TDFReaderConfig>>();
+            parallelism.map(Config::withDecryptParallelism).ifPresent(opts::add);
+            ignoreAllowlist.map(Config::WithIgnoreKasAllowlist).ifPresent(opts::add);
+            kasAllowlistStr.map(s -> s.split(",")).map(Config::WithKasAllowlist).ifPresent(opts::add);
+
+            try (var in = FileChannel.open(tdfPath, StandardOpenOption.READ)) {
+                var readerConfig = Config.newTDFReaderConfig(opts.toArray(new Consumer[0]));
+                var reader = sdk.loadTDF(in, readerConfig);
+                try {
+                    reader.verifyPayload();
+                } catch (SDK.SegmentSignatureMismatch e) {
+                    System.out.println("segment " + e.getSegment() + " does not match the manifest");
+                    return 1;
+                }
+                System.out.println("ok");
+                return 0;
+            }
+        }
+    }
+
     @CommandLine.Command(name = "metadata")
     void readMetadata(
             @Option(names = { "-f", "--file" }, required = true) Path tdfPath,
@@ -63,6 +63,18 @@ class CommandTest {
         assertThat(err.toString()).contains("Missing required option: '--platform-endpoint=<platformEndpoint>'");
     }
 
+    @Test
+    void verify_withoutCredentials_failsWithMissingPlatformEndpoint() {
+        StringWriter err = new StringWriter();
+        CommandLine cli = new CommandLine(new Command());
+        cli.setErr(new PrintWriter(err));
+
+        int code = cli.execute("verify", "-f", "/dev/null", "--parallelism", "4");
+
+        assertThat(code).isEqualTo(CommandLine.ExitCode.USAGE);
+        assertThat(err.toString()).contains("Missing required option: '--platform-endpoint=<platformEndpoint>'");
+    }
+
     @Test
     void supports_withoutCredentials_stillExits0() {
         // Regression sentinel: tdf supports must not require --client-id/--client-secret/--platform-endpoint.
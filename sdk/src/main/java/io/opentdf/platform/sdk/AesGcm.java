@@ -6,8 +6,10 @@ import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.KeyGenerator;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
@@ -25,6 +27,20 @@ public class AesGcm {
     private static final String KEY_ALGORITHM = "AES";
     private static final String CIPHER_TRANSFORM = "AES/GCM/NoPadding";
 
+    // nonces only need to be unique, so use the default (non-blocking) generator instead of
+    // SecureRandom.getInstanceStrong(), which can block waiting for entropy
+    private static final SecureRandom NONCE_GENERATOR = new SecureRandom();
+
+    // Cipher instances are not thread safe but are cheap to re-initialize with a new key and IV,
+    // so keep one per thread rather than looking up the provider on every call
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(CIPHER_TRANSFORM);
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new SDKException("error creating " + CIPHER_TRANSFORM + " cipher", e);
+        }
+    });
+
     private final SecretKey key;
 
     /**
@@ -119,18 +135,9 @@ public class AesGcm {
      * @return the encrypted text
      */
     public Encrypted encrypt(byte[] plaintext, int offset, int len) {
-        Cipher cipher;
-        try {
-            cipher = Cipher.getInstance(CIPHER_TRANSFORM);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
-            throw new RuntimeException(e);
-        }
         byte[] nonce = new byte[GCM_NONCE_LENGTH];
-        try {
-            SecureRandom.getInstanceStrong().nextBytes(nonce);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
+        NONCE_GENERATOR.nextBytes(nonce);
+        Cipher cipher = CIPHERS.get();
         GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH * 8, nonce);
         try {
             cipher.init(Cipher.ENCRYPT_MODE, key, spec);
@@ -148,6 +155,38 @@ public class AesGcm {
         return new Encrypted(nonce, cipherText);
     }
 
+    /**
+     * <p>Encrypt the remaining bytes of {@code plaintext} into {@code out} using a fresh nonce. The nonce
+     * is written to {@code out} first, followed by the ciphertext and the tag, which is the same layout
+     * as {@link Encrypted#asBytes()}. Either buffer may be direct, and they may share memory.</p>
+     *
+     * @param plaintext the plaintext to encrypt; its position is advanced to its limit
+     * @param out where to write the nonce, ciphertext and tag; must have room for
+     *            {@code plaintext.remaining() + GCM_NONCE_LENGTH + GCM_TAG_LENGTH} bytes
+     * @return the number of bytes written to {@code out}
+     */
+    public int encrypt(ByteBuffer plaintext, ByteBuffer out) {
+        if (out.remaining() < plaintext.remaining() + GCM_NONCE_LENGTH + GCM_TAG_LENGTH) {
+            throw new IllegalArgumentException("output buffer too small for nonce, ciphertext and tag");
+        }
+        byte[] nonce = new byte[GCM_NONCE_LENGTH];
+        NONCE_GENERATOR.nextBytes(nonce);
+        Cipher cipher = CIPHERS.get();
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH * 8, nonce));
+            // write the nonce after encrypting so that it can't clobber plaintext that shares memory with out
+            int start = out.position();
+            out.position(start + GCM_NONCE_LENGTH);
+            int written = cipher.doFinal(plaintext, out);
+            out.duplicate().position(start).put(nonce);
+            return GCM_NONCE_LENGTH + written;
+        } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
+            throw new RuntimeException("error gcm encrypt", e);
+        } catch (ShortBufferException | IllegalBlockSizeException | BadPaddingException e) {
+            throw new RuntimeException("error gcm encrypt", e);
+        }
+    }
+
     /**
      * <p>encrypt.</p>
      *
@@ -160,6 +199,8 @@ public class AesGcm {
      */
     public byte[] encrypt(byte[] iv, int authTagLen, byte[] plaintext, int offset, int len) {
         try {
+            // the caller chooses the IV here and providers refuse to re-initialize a cipher for
+            // encryption with the same key and IV, so this doesn't use the per-thread instances
             Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORM);
 
             GCMParameterSpec spec = new GCMParameterSpec(authTagLen * 8, iv);
@@ -185,17 +226,43 @@ public class AesGcm {
      */
     public byte[] decrypt(Encrypted cipherTextWithNonce)  {
         try {
-            Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORM);
+            Cipher cipher = CIPHERS.get();
             GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH * 8, cipherTextWithNonce.iv);
             cipher.init(Cipher.DECRYPT_MODE, key, spec);
             return cipher.doFinal(cipherTextWithNonce.ciphertext);
-        } catch (NoSuchPaddingException | NoSuchAlgorithmException | InvalidAlgorithmParameterException e) {
+        } catch (InvalidAlgorithmParameterException e) {
             throw new RuntimeException("error gcm decrypt", e);
         } catch (InvalidKeyException | BadPaddingException | IllegalBlockSizeException e) {
             throw new RuntimeException("error gcm decrypt", e);
         }
     }
 
+    /**
+     * <p>Decrypt the remaining bytes of {@code ivAndCiphertext}, laid out as nonce, ciphertext and tag,
+     * into {@code out}. Either buffer may be direct, and they may share memory.</p>
+     *
+     * @param ivAndCiphertext the nonce, ciphertext and tag; its position is advanced to its limit
+     * @param out where to write the plaintext; must have room for
+     *            {@code ivAndCiphertext.remaining() - GCM_NONCE_LENGTH - GCM_TAG_LENGTH} bytes
+     * @return the number of bytes written to {@code out}
+     */
+    public int decrypt(ByteBuffer ivAndCiphertext, ByteBuffer out) {
+        if (ivAndCiphertext.remaining() < GCM_NONCE_LENGTH + GCM_TAG_LENGTH) {
+            throw new IllegalArgumentException("too short for IV and ciphertext");
+        }
+        byte[] iv = new byte[GCM_NONCE_LENGTH];
+        ivAndCiphertext.get(iv);
+        try {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv));
+            return cipher.doFinal(ivAndCiphertext, out);
+        } catch (InvalidAlgorithmParameterException e) {
+            throw new RuntimeException("error gcm decrypt", e);
+        } catch (InvalidKeyException | ShortBufferException | BadPaddingException | IllegalBlockSizeException e) {
+            throw new RuntimeException("error gcm decrypt", e);
+        }
+    }
+
     /**
      * <p>decrypt.</p>
      *
@@ -206,11 +273,11 @@ public class AesGcm {
      */
     public byte[] decrypt(byte[] iv, int authTagLen, byte[] cipherData) {
         try {
-            Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORM);
+            Cipher cipher = CIPHERS.get();
             GCMParameterSpec spec = new GCMParameterSpec(authTagLen * 8, iv);
             cipher.init(Cipher.DECRYPT_MODE, key, spec);
             return cipher.doFinal(cipherData);
-        } catch (NoSuchPaddingException | NoSuchAlgorithmException | InvalidAlgorithmParameterException e) {
+        } catch (InvalidAlgorithmParameterException e) {
             throw new RuntimeException("error gcm decrypt", e);
         } catch (InvalidKeyException | BadPaddingException | IllegalBlockSizeException e) {
             throw new SDKException("error gcm decrypt", e);
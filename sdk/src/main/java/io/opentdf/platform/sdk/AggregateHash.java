@@ -0,0 +1,178 @@
+package io.opentdf.platform.sdk;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * The concatenated segment hashes of a TDF, which the root signature and the assertion bindings are
+ * computed over. Each hash goes into the root signature as it is added, so the concatenation is never
+ * held in a single array: a TDF with tens of thousands of segments would otherwise copy it once for
+ * the root signature and once more for every assertion.
+ * <p>
+ * An assertion binding is the Base64 encoding of the concatenated hashes followed by the hash of the
+ * assertion. When the bindings are needed the encoding of the segment hashes, which is the same for
+ * every assertion, is built up as hashes are added, and each binding only encodes the few bytes
+ * after it.
+ */
+final class AggregateHash {
+    static final int GMAC_LENGTH = 16;
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder();
+
+    private final Mac mac;
+    private final MessageDigest digest;
+    // a GMAC root signature is the last GMAC_LENGTH bytes of the concatenated hashes
+    private final byte[] tail = new byte[GMAC_LENGTH];
+    private long size;
+
+    // the encoding of every whole group of three bytes added so far and the bytes left over after them
+    private final StringBuilder encoding;
+    private final byte[] pending = new byte[3];
+    private int pendingLength;
+    private String encodedPrefix;
+
+    private AggregateHash(Mac mac, MessageDigest digest, boolean forAssertions) {
+        this.mac = mac;
+        this.digest = digest;
+        this.encoding = forAssertions ? new StringBuilder() : null;
+    }
+
+    /**
+     * @param forAssertions whether {@link #assertionBinding} and {@link #matchesAssertionBinding}
+     *                      are going to be used
+     */
+    static AggregateHash forSignature(Config.IntegrityAlgorithm algorithm, byte[] key, boolean forAssertions) {
+        if (algorithm != Config.IntegrityAlgorithm.HS256) {
+            return new AggregateHash(null, null, forAssertions);
+        }
+        Mac mac;
+        try {
+            mac = Mac.getInstance("HmacSHA256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new SDKException("error getting instance of hash", e);
+        }
+        try {
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        } catch (InvalidKeyException e) {
+            throw new SDKException("error creating hash", e);
+        }
+        return new AggregateHash(mac, null, forAssertions);
+    }
+
+    /**
+     * The root signature of a TDF whose payload is not encrypted is the SHA-256 digest of the hashes
+     */
+    static AggregateHash forDigest(boolean forAssertions) {
+        try {
+            return new AggregateHash(null, MessageDigest.getInstance("SHA-256"), forAssertions);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("error getting instance of SHA-256 digest", e);
+        }
+    }
+
+    void add(byte[] hash) {
+        if (encodedPrefix != null) {
+            throw new IllegalStateException("can't add a hash once the assertion bindings have been computed");
+        }
+
+        if (mac != null) {
+            mac.update(hash);
+        } else if (digest != null) {
+            digest.update(hash);
+        } else if (hash.length >= GMAC_LENGTH) {
+            System.arraycopy(hash, hash.length - GMAC_LENGTH, tail, 0, GMAC_LENGTH);
+        } else {
+            System.arraycopy(tail, hash.length, tail, 0, GMAC_LENGTH - hash.length);
+            System.arraycopy(hash, 0, tail, GMAC_LENGTH - hash.length, hash.length);
+        }
+        size += hash.length;
+
+        if (encoding != null) {
+            encode(hash);
+        }
+    }
+
+    private void encode(byte[] hash) {
+        int offset = 0;
+        if (pendingLength > 0) {
+            while (pendingLength < pending.length && offset < hash.length) {
+                pending[pendingLength++] = hash[offset++];
+            }
+            if (pendingLength < pending.length) {
+                return;
+            }
+            encoding.append(ENCODER.encodeToString(pending));
+            pendingLength = 0;
+        }
+
+        int whole = (hash.length - offset) / 3 * 3;
+        if (whole > 0) {
+            encoding.append(StandardCharsets.US_ASCII.decode(ENCODER.encode(ByteBuffer.wrap(hash, offset, whole))));
+        }
+        for (int i = offset + whole; i < hash.length; i++) {
+            pending[pendingLength++] = hash[i];
+        }
+    }
+
+    /**
+     * @return the root signature over the hashes added so far. For HS256 and SHA-256 this can only
+     * be called once
+     */
+    byte[] rootSignature() {
+        if (mac != null) {
+            return mac.doFinal();
+        }
+        if (digest != null) {
+            return digest.digest();
+        }
+        if (size < GMAC_LENGTH) {
+            throw new IllegalArgumentException("tried to calculate GMAC on too small a payload. payload is "
+                    + size + "bytes while GMAC is " + GMAC_LENGTH + " bytes");
+        }
+        return tail.clone();
+    }
+
+    /**
+     * @return the Base64 encoding of the concatenated hashes followed by {@code assertionHash}
+     */
+    String assertionBinding(byte[] assertionHash) {
+        return prefix() + encodeSuffix(assertionHash);
+    }
+
+    /**
+     * Checks a binding read from an assertion without building the expected one
+     */
+    boolean matchesAssertionBinding(byte[] assertionHash, String binding) {
+        if (binding == null) {
+            return false;
+        }
+        String prefix = prefix();
+        String suffix = encodeSuffix(assertionHash);
+        return binding.length() == prefix.length() + suffix.length()
+                && binding.startsWith(prefix)
+                && binding.endsWith(suffix);
+    }
+
+    private String prefix() {
+        if (encoding == null) {
+            throw new IllegalStateException("assertion bindings were not requested");
+        }
+        if (encodedPrefix == null) {
+            encodedPrefix = encoding.toString();
+        }
+        return encodedPrefix;
+    }
+
+    private String encodeSuffix(byte[] assertionHash) {
+        byte[] suffix = Arrays.copyOf(pending, pendingLength + assertionHash.length);
+        System.arraycopy(assertionHash, 0, suffix, pendingLength, assertionHash.length);
+        return ENCODER.encodeToString(suffix);
+    }
+}
@@ -24,12 +24,15 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -303,8 +306,13 @@ public class Autoconfigure {
         private final List<AttributeValueFQN> policy;
         private final Map<String, KeyAccessGrant> grants = new HashMap<>();
         private final Map<String, List<Config.KASInfo>> mappedKeys = new HashMap<>();
+        // the keys that came with the attribute values, put into the KAS key cache each time the granter is used
+        private final List<Config.KASInfo> policyKeys = new ArrayList<>();
         private boolean hasGrants = false;
         private boolean hasMappedKeys = false;
+        // the plan built from the grants or mapped keys, with placeholder split IDs. granters are shared
+        // through the platform cache, so this is built once and published for every thread
+        private volatile List<KeySplitTemplate> plan;
 
         Granter(List<AttributeValueFQN> policy) {
             this.policy = policy;
@@ -319,6 +327,7 @@ public class Autoconfigure {
         }
 
         boolean addAllGrants(AttributeValueFQN fqn, List<KeyAccessServer> granted, List<SimpleKasKey> mapped, Attribute attr) {
+            plan = null;
             boolean foundMappedKey = false;
             for (var mappedKey: mapped) {
                 foundMappedKey = true;
@@ -372,14 +381,25 @@ public class Autoconfigure {
             return grants.get(fqn.key);
         }
 
+        void addPolicyKeys(List<KeyAccessServer> kases, List<SimpleKasKey> kasKeys) {
+            policyKeys.addAll(keysFromPolicy(kases, kasKeys));
+        }
+
+        void storePolicyKeys(@Nullable KASKeyCache keyCache) {
+            if (keyCache == null) {
+                return;
+            }
+            policyKeys.forEach(keyCache::store);
+        }
+
         List<KeySplitTemplate> getSplits(List<String> defaultKases, Supplier<String> genSplitID, Supplier<Optional<SimpleKasKey>> baseKeySupplier) throws AutoConfigureException {
             if (hasMappedKeys) {
                 logger.debug("generating plan from mapped keys");
-                return planFromAttributes(genSplitID);
+                return withFreshSplitIDs(this::planFromAttributes, genSplitID);
             }
             if (hasGrants) {
                 logger.debug("generating plan from grants");
-                return planUsingGrants(genSplitID);
+                return withFreshSplitIDs(this::planUsingGrants, genSplitID);
             }
 
             var baseKey = baseKeySupplier.get();
@@ -398,6 +418,26 @@ public class Autoconfigure {
             return generatePlanFromDefaultKases(defaultKases, genSplitID);
         }
 
+        // the plan only depends on the policy, so it is built once. every TDF still needs its own split
+        // IDs, so the placeholders are replaced with IDs from genSplitID, in the order they were made
+        private List<KeySplitTemplate> withFreshSplitIDs(Function<Supplier<String>, List<KeySplitTemplate>> buildPlan,
+                                                         Supplier<String> genSplitID) {
+            var template = plan;
+            if (template == null) {
+                var placeholders = new AtomicInteger();
+                template = Collections.unmodifiableList(buildPlan.apply(() -> Integer.toString(placeholders.getAndIncrement())));
+                plan = template;
+            }
+
+            Map<String, String> splitIDs = new HashMap<>();
+            List<KeySplitTemplate> steps = new ArrayList<>(template.size());
+            for (var step : template) {
+                String splitID = step.splitID.isEmpty() ? "" : splitIDs.computeIfAbsent(step.splitID, k -> genSplitID.get());
+                steps.add(new KeySplitTemplate(step.kas, splitID, step.kid, step.keyType));
+            }
+            return steps;
+        }
+
         @Nonnull
         List<KeySplitTemplate> planUsingGrants(Supplier<String> genSplitID)
                 throws AutoConfigureException {
@@ -870,15 +910,61 @@ public class Autoconfigure {
 
     // Gets a list of directory of KAS grants for a list of attribute FQNs
     static Granter newGranterFromService(AttributesServiceClientInterface as, KASKeyCache keyCache, AttributeValueFQN... fqns) throws AutoConfigureException {
+        return newGranterFromService(as, keyCache, null, fqns);
+    }
+
+    // Like the above, but reuses the granter built for the same set of FQNs while it is in the
+    // platform cache. Otherwise the granter is built from the attribute values held in the cache,
+    // looking up only the ones that are missing, and both are cached
+    static Granter newGranterFromService(AttributesServiceClientInterface as, KASKeyCache keyCache,
+                                         @Nullable PlatformCache platformCache, AttributeValueFQN... fqns) throws AutoConfigureException {
+        if (platformCache == null) {
+            return getGranter(keyCache, new ArrayList<>(fetchAttributeValues(as, Arrays.asList(fqns)).values()));
+        }
+
+        String granterKey = PlatformCache.granterKey(Arrays.asList(fqns));
+        Granter granter = platformCache.getGranter(granterKey);
+        if (granter != null) {
+            granter.storePolicyKeys(keyCache);
+            return granter;
+        }
+
+        List<GetAttributeValuesByFqnsResponse.AttributeAndValue> values = new ArrayList<>(fqns.length);
+        List<AttributeValueFQN> missing = new ArrayList<>(fqns.length);
+        for (var fqn : fqns) {
+            var cached = platformCache.getAttributeValue(fqn);
+            if (cached == null) {
+                missing.add(fqn);
+            } else {
+                values.add(cached);
+            }
+        }
+        if (!missing.isEmpty()) {
+            var fetched = fetchAttributeValues(as, missing);
+            fetched.forEach(platformCache::putAttributeValue);
+            values.addAll(fetched.values());
+        }
+
+        granter = getGranter(keyCache, values);
+        platformCache.putGranter(granterKey, granter);
+        return granter;
+    }
+
+    static Map<AttributeValueFQN, GetAttributeValuesByFqnsResponse.AttributeAndValue> fetchAttributeValues(
+            AttributesServiceClientInterface as, List<AttributeValueFQN> fqns) throws AutoConfigureException {
         GetAttributeValuesByFqnsRequest request = GetAttributeValuesByFqnsRequest.newBuilder()
-                .addAllFqns(Arrays.stream(fqns).map(AttributeValueFQN::toString).collect(Collectors.toList()))
+                .addAllFqns(fqns.stream().map(AttributeValueFQN::toString).collect(Collectors.toList()))
                 .build();
 
         GetAttributeValuesByFqnsResponse av = ResponseMessageKt.getOrThrow(
                 as.getAttributeValuesByFqnsBlocking(request, Collections.emptyMap()).execute()
         );
 
-        return getGranter(keyCache, new ArrayList<>(av.getFqnAttributeValuesMap().values()));
+        Map<AttributeValueFQN, GetAttributeValuesByFqnsResponse.AttributeAndValue> values = new LinkedHashMap<>();
+        for (var entry : av.getFqnAttributeValuesMap().entrySet()) {
+            values.put(new AttributeValueFQN(entry.getKey()), entry.getValue());
+        }
+        return values;
     }
 
 
@@ -888,12 +974,12 @@ public class Autoconfigure {
             granter = Autoconfigure.newGranterFromAttributes(services.kas().getKeyCache(), tdfConfig.attributeValues.toArray(new Value[0]));
         } else if (tdfConfig.attributes != null && !tdfConfig.attributes.isEmpty()) {
             granter = Autoconfigure.newGranterFromService(services.attributes(), services.kas().getKeyCache(),
-                    tdfConfig.attributes.toArray(new Autoconfigure.AttributeValueFQN[0]));
+                    services.platformCache().orElse(null), tdfConfig.attributes.toArray(new Autoconfigure.AttributeValueFQN[0]));
         }
         return granter;
     }
 
-    private static Granter getGranter(@Nullable KASKeyCache keyCache, List<GetAttributeValuesByFqnsResponse.AttributeAndValue> values) {
+    static Granter getGranter(@Nullable KASKeyCache keyCache, List<GetAttributeValuesByFqnsResponse.AttributeAndValue> values) {
         List<AttributeValueFQN> attributeValues = values.stream()
                 .map(GetAttributeValuesByFqnsResponse.AttributeAndValue::getValue)
                 .map(Value::getFqn)
@@ -910,18 +996,19 @@ public class Autoconfigure {
             var namespace = attribute.getNamespace();
 
             if (grants.addAllGrants(fqn, value.getGrantsList(), value.getKasKeysList(), attribute)) {
-                storeKeysToCache(value.getGrantsList(), value.getKasKeysList(), keyCache);
+                grants.addPolicyKeys(value.getGrantsList(), value.getKasKeysList());
                 continue;
             }
             if (grants.addAllGrants(fqn, attribute.getGrantsList(), attribute.getKasKeysList(), attribute)) {
-                storeKeysToCache(attribute.getGrantsList(), attribute.getKasKeysList(), keyCache);
+                grants.addPolicyKeys(attribute.getGrantsList(), attribute.getKasKeysList());
                 continue;
             }
             if (grants.addAllGrants(fqn, namespace.getGrantsList(), namespace.getKasKeysList(), attribute)) {
-                storeKeysToCache(namespace.getGrantsList(), namespace.getKasKeysList(), keyCache);
+                grants.addPolicyKeys(namespace.getGrantsList(), namespace.getKasKeysList());
             }
         }
 
+        grants.storePolicyKeys(keyCache);
         return grants;
     }
 
@@ -929,9 +1016,15 @@ public class Autoconfigure {
         if (keyCache == null) {
             return;
         }
+        keysFromPolicy(kases, kasKeys).forEach(keyCache::store);
+    }
+
+    static List<Config.KASInfo> keysFromPolicy(List<KeyAccessServer> kases, List<SimpleKasKey> kasKeys) {
+        List<Config.KASInfo> keys = new ArrayList<>();
         for (var kas : kases) {
-            Config.KASInfo.fromKeyAccessServer(kas).forEach(keyCache::store);
+            keys.addAll(Config.KASInfo.fromKeyAccessServer(kas));
         }
-        kasKeys.stream().map(Config.KASInfo::fromSimpleKasKey).forEach(keyCache::store);
+        kasKeys.stream().map(Config.KASInfo::fromSimpleKasKey).forEach(keys::add);
+        return keys;
     }
 }
@@ -9,7 +9,9 @@ import org.slf4j.LoggerFactory;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -131,6 +133,10 @@ public class Config {
         KeyType sessionKeyType;
         Set<String> kasAllowlist;
         boolean ignoreKasAllowlist;
+        // 0 when it hasn't been set, see resolveParallelism
+        int decryptParallelism;
+        Executor decryptExecutor;
+        boolean disableMemoryMapping;
     }
 
     @SafeVarargs
@@ -173,6 +179,38 @@ public class Config {
         return (TDFReaderConfig config) -> config.ignoreKasAllowlist = ignore;
     }
 
+    /**
+     * Read the payload with ordinary reads even when the TDF is read from a {@link java.nio.channels.FileChannel}.
+     * By default the payload of a file is memory mapped a window at a time, and the mappings are only released
+     * when they are garbage collected, which can hold on to address space and file handles for a while.
+     */
+    public static Consumer<TDFReaderConfig> withDisableMemoryMapping(boolean disable) {
+        return (TDFReaderConfig config) -> config.disableMemoryMapping = disable;
+    }
+
+    /**
+     * Verify and decrypt up to {@code parallelism} segments concurrently when reading the payload. Segments
+     * are read ahead by at most that many and the plaintext is still written in order. Unless an executor
+     * is supplied with {@link #withDecryptExecutor(Executor)} each reader creates a pool of {@code parallelism}
+     * threads the first time it needs one, whose threads exit when they are idle.
+     */
+    public static Consumer<TDFReaderConfig> withDecryptParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Decrypt parallelism must be at least 1, got " + parallelism);
+        }
+
+        return (TDFReaderConfig config) -> config.decryptParallelism = parallelism;
+    }
+
+    /**
+     * Run segment verification and decryption on the given executor. The executor is not shut down by the
+     * SDK. If the parallelism has not been set it defaults to the number of available processors.
+     */
+    public static Consumer<TDFReaderConfig> withDecryptExecutor(Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+        return (TDFReaderConfig config) -> config.decryptExecutor = executor;
+    }
+
 
     public static class TDFConfig {
         public Boolean autoconfigure;
@@ -194,6 +232,9 @@ public class Config {
         public boolean hexEncodeRootAndSegmentHashes;
         public boolean renderVersionInfoInManifest;
         public boolean systemMetadataAssertion;
+        // 0 when it hasn't been set, see resolveParallelism
+        public int encryptParallelism;
+        public Executor encryptExecutor;
 
         public TDFConfig() {
             this.autoconfigure = true;
@@ -211,6 +252,7 @@ public class Config {
             this.hexEncodeRootAndSegmentHashes = false;
             this.renderVersionInfoInManifest = true;
             this.systemMetadataAssertion = false;
+            this.encryptParallelism = 0;
         }
     }
 
@@ -306,6 +348,40 @@ public class Config {
         return (TDFConfig config) -> config.defaultSegmentSize = size;
     }
 
+    /**
+     * Encrypt up to {@code parallelism} segments concurrently when creating a TDF. Segments are still
+     * written to the payload, and recorded in the manifest, in order. Unless an executor is supplied with
+     * {@link #withEncryptExecutor(Executor)} a pool of {@code parallelism} threads is created for the
+     * duration of the call.
+     */
+    public static Consumer<TDFConfig> withEncryptParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Encrypt parallelism must be at least 1, got " + parallelism);
+        }
+
+        return (TDFConfig config) -> config.encryptParallelism = parallelism;
+    }
+
+    /**
+     * Run segment encryption on the given executor. The executor is not shut down by the SDK. If the
+     * parallelism has not been set it defaults to the number of available processors.
+     */
+    public static Consumer<TDFConfig> withEncryptExecutor(Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+        return (TDFConfig config) -> config.encryptExecutor = executor;
+    }
+
+    /**
+     * @return {@code parallelism} if it has been set. Otherwise one segment at a time, or as many as
+     * there are available processors when an executor has been supplied
+     */
+    static int resolveParallelism(int parallelism, Executor executor) {
+        if (parallelism > 0) {
+            return parallelism;
+        }
+        return executor == null ? 1 : Runtime.getRuntime().availableProcessors();
+    }
+
     public static Consumer<TDFConfig> withAutoconfigure(boolean enable) {
         return (TDFConfig config) -> {
             config.autoconfigure = enable;
@@ -341,6 +417,87 @@ public class Config {
         return (TDFConfig config) -> config.systemMetadataAssertion = true;
     }
 
+    /**
+     * What {@link SDK#warmUp(WarmUpSpec)} fetches ahead of the first TDF being created.
+     */
+    public static class WarmUpSpec {
+        boolean baseKey;
+        List<KASInfo> kasKeys = new ArrayList<>();
+        List<AttributeValueFQN> attributes = new ArrayList<>();
+        Duration refreshInterval = Duration.ZERO;
+    }
+
+    @SafeVarargs
+    public static WarmUpSpec newWarmUpSpec(Consumer<WarmUpSpec>... options) {
+        WarmUpSpec spec = new WarmUpSpec();
+        for (Consumer<WarmUpSpec> option : options) {
+            option.accept(spec);
+        }
+        return spec;
+    }
+
+    /**
+     * Fetch the platform base key from the well-known configuration.
+     */
+    public static Consumer<WarmUpSpec> withWarmUpBaseKey() {
+        return (WarmUpSpec spec) -> spec.baseKey = true;
+    }
+
+    /**
+     * Fetch the public keys of the given KASes. Each {@link KASInfo} needs a URL and can name the
+     * algorithm and key ID of the key; without an algorithm the key for the default wrapping key
+     * type, {@link KeyType#RSA2048Key}, is fetched.
+     */
+    public static Consumer<WarmUpSpec> withWarmUpKasKeys(KASInfo... kasInfoList) {
+        return (WarmUpSpec spec) -> {
+            for (KASInfo kasInfo : kasInfoList) {
+                var request = new KASInfo();
+                request.URL = Objects.requireNonNull(kasInfo.URL, "KAS URL");
+                request.KID = kasInfo.KID;
+                request.Algorithm = kasInfo.Algorithm == null ? KeyType.RSA2048Key.toString() : kasInfo.Algorithm;
+                spec.kasKeys.add(request);
+            }
+        };
+    }
+
+    /**
+     * Fetch the public keys of the given type from each of the KASes.
+     */
+    public static Consumer<WarmUpSpec> withWarmUpKasKeys(KeyType keyType, String... kasUrls) {
+        return (WarmUpSpec spec) -> {
+            for (String kasUrl : kasUrls) {
+                var request = new KASInfo();
+                request.URL = kasUrl;
+                request.Algorithm = keyType.toString();
+                spec.kasKeys.add(request);
+            }
+        };
+    }
+
+    /**
+     * Fetch the attribute values, and with them the grants and mapped keys, that autoconfigure
+     * looks up for the given attribute value FQNs.
+     */
+    public static Consumer<WarmUpSpec> withWarmUpAttributes(String... attributes) throws AutoConfigureException {
+        List<AttributeValueFQN> attrValFqns = new ArrayList<>();
+        for (String a : attributes) {
+            attrValFqns.add(new AttributeValueFQN(a));
+        }
+        return (WarmUpSpec spec) -> spec.attributes.addAll(attrValFqns);
+    }
+
+    /**
+     * Fetch everything again in the background every {@code interval} until the warm-up is closed.
+     * Use {@link Duration#ZERO}, the default, to only fetch once.
+     */
+    public static Consumer<WarmUpSpec> withWarmUpRefreshInterval(Duration interval) {
+        Objects.requireNonNull(interval, "interval");
+        if (interval.isNegative()) {
+            throw new IllegalArgumentException("refresh interval must not be negative: " + interval);
+        }
+        return (WarmUpSpec spec) -> spec.refreshInterval = interval;
+    }
+
     public static String getKasAddress(String kasURL) throws SDKException {
         // Prepend "https://" if no scheme is provided
         if (!kasURL.contains("://")) {
@@ -0,0 +1,62 @@
+package io.opentdf.platform.sdk;
+
+import com.connectrpc.ConnectException;
+import com.connectrpc.ResponseMessage;
+import kotlin.Unit;
+import kotlin.jvm.functions.Function0;
+import kotlin.jvm.functions.Function1;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Adapts the callback methods of the Connect clients to {@link CompletableFuture}s, so that
+ * calls can be made without holding a thread while waiting for the response.
+ */
+final class ConnectFutures {
+    private ConnectFutures() {
+    }
+
+    /**
+     * Starts a call using a Connect callback method and returns a future for its response.
+     * The future fails with the {@link ConnectException} if the call fails, and cancelling the
+     * future cancels the call.
+     *
+     * @param start starts the call with the given result callback, returning the call's cancel function
+     */
+    static <T> CompletableFuture<T> call(Function<Function1<? super ResponseMessage<T>, Unit>, Function0<Unit>> start) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Function0<Unit> cancel;
+        try {
+            cancel = start.apply(response -> {
+                try {
+                    future.complete(RequestHelper.getOrThrow(response));
+                } catch (ConnectException e) {
+                    future.completeExceptionally(e);
+                }
+                return Unit.INSTANCE;
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled() && cancel != null) {
+                cancel.invoke();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return the exception that a future failed with, without the {@link CompletionException}
+     * that wraps it when the failure comes from a dependent stage
+     */
+    static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+}
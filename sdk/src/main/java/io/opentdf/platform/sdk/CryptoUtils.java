@@ -4,6 +4,7 @@ import com.nimbusds.jose.jwk.RSAKey;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.security.*;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.ECGenParameterSpec;
@@ -16,6 +17,28 @@ public class CryptoUtils {
     private static final int KEYPAIR_SIZE = 2048;
 
     public static byte[] CalculateSHA256Hmac(byte[] key, byte[] data) {
+        return CalculateSHA256Hmac(key, data, 0, data.length);
+    }
+
+    public static byte[] CalculateSHA256Hmac(byte[] key, byte[] data, int offset, int len) {
+        Mac sha256_HMAC = null;
+        try {
+            sha256_HMAC = Mac.getInstance("HmacSHA256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new SDKException("error getting instance of hash", e);
+        }
+        SecretKeySpec secret_key = new SecretKeySpec(key, "HmacSHA256");
+        try {
+            sha256_HMAC.init(secret_key);
+        } catch (InvalidKeyException e) {
+            throw new SDKException("error creating hash", e);
+        }
+
+        sha256_HMAC.update(data, offset, len);
+        return sha256_HMAC.doFinal();
+    }
+
+    public static byte[] CalculateSHA256Hmac(byte[] key, ByteBuffer data) {
         Mac sha256_HMAC = null;
         try {
             sha256_HMAC = Mac.getInstance("HmacSHA256");
@@ -29,7 +52,8 @@ public class CryptoUtils {
             throw new SDKException("error creating hash", e);
         }
 
-        return sha256_HMAC.doFinal(data);
+        sha256_HMAC.update(data);
+        return sha256_HMAC.doFinal();
     }
 
     public static KeyPair generateRSAKeypair() {
@@ -17,6 +17,8 @@ import io.opentdf.platform.kas.PublicKeyRequest;
 import io.opentdf.platform.kas.PublicKeyResponse;
 import io.opentdf.platform.kas.RewrapRequest;
 import io.opentdf.platform.kas.RewrapResponse;
+import io.opentdf.platform.sdk.SDK.KAS.UnwrapRequest;
+import io.opentdf.platform.sdk.SDK.KAS.UnwrapResult;
 import io.opentdf.platform.sdk.SDK.KasBadRequestException;
 
 import okhttp3.OkHttpClient;
@@ -28,10 +30,18 @@ import java.security.interfaces.ECPublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import static io.opentdf.platform.sdk.TDF.GLOBAL_KEY_SALT;
@@ -47,9 +57,16 @@ class KASClient implements SDK.KAS {
     private final BiFunction<OkHttpClient, String, ProtocolClient> protocolClientFactory;
     private final boolean usePlaintext;
     private final JWSSigner signer;
-    private AsymDecryption decryptor;
-    private String clientPublicKey;
-    private KASKeyCache kasKeyCache;
+    // the RSA key pair is created on first use and then shared by every rewrap request
+    private volatile RewrapSession rsaSession;
+    private final KASKeyCache kasKeyCache;
+    private final Map<KeyType, RewrapSession> ecSessions = new ConcurrentHashMap<>();
+    private volatile Duration ecSessionKeyLifetime = Duration.ZERO;
+    private volatile int ecSessionKeyMaxUses = 0;
+    private volatile RewrapCache rewrapCache;
+    private volatile String rewrapCacheIdentity;
+    // public key requests that are waiting on the KAS, so that concurrent callers share one request
+    private final Map<KASKeyRequest, CompletableFuture<Config.KASInfo>> publicKeyFetches = new ConcurrentHashMap<>();
 
     private static final Logger log = LoggerFactory.getLogger(KASClient.class);
 
@@ -60,6 +77,10 @@ class KASClient implements SDK.KAS {
      * @param srtSigner
      */
     KASClient(OkHttpClient httpClient, BiFunction<OkHttpClient, String, ProtocolClient> protocolClientFactory, SrtSigner srtSigner, boolean usePlaintext) {
+        this(httpClient, protocolClientFactory, srtSigner, usePlaintext, new KASKeyCache());
+    }
+
+    KASClient(OkHttpClient httpClient, BiFunction<OkHttpClient, String, ProtocolClient> protocolClientFactory, SrtSigner srtSigner, boolean usePlaintext, KASKeyCache kasKeyCache) {
         this.httpClient = httpClient;
         this.protocolClientFactory = protocolClientFactory;
         this.usePlaintext = usePlaintext;
@@ -67,7 +88,8 @@ class KASClient implements SDK.KAS {
             throw new SDKException("srtSigner must be provided");
         }
         this.signer = new SrtJwsSigner(srtSigner);
-        this.kasKeyCache = new KASKeyCache();
+        this.kasKeyCache = kasKeyCache;
+        this.kasKeyCache.setRefresher(this::fetchPublicKey);
     }
 
     @Override
@@ -77,25 +99,91 @@ class KASClient implements SDK.KAS {
             return cachedValue;
         }
 
-        PublicKeyRequest request = (kasInfo.Algorithm == null || kasInfo.Algorithm.isEmpty())
-                ? PublicKeyRequest.getDefaultInstance()
-                : PublicKeyRequest.newBuilder().setAlgorithm(kasInfo.Algorithm).build();
+        var request = new KASKeyRequest(kasInfo.URL, kasInfo.Algorithm, kasInfo.KID);
+        var fetch = new CompletableFuture<Config.KASInfo>();
+        var inFlight = publicKeyFetches.putIfAbsent(request, fetch);
+        if (inFlight != null) {
+            // another caller is already fetching this key, wait for its result
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        try {
+            var kiCopy = fetchPublicKey(kasInfo);
+            this.kasKeyCache.store(kasInfo, kiCopy);
+            fetch.complete(kiCopy);
+            return kiCopy;
+        } catch (RuntimeException | Error e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            publicKeyFetches.remove(request, fetch);
+        }
+    }
 
-        var req = getStub(kasInfo.URL).publicKeyBlocking(request, Collections.emptyMap()).execute();
+    @Override
+    public CompletableFuture<Config.KASInfo> getPublicKeyAsync(Config.KASInfo kasInfo) {
+        Config.KASInfo cachedValue = this.kasKeyCache.get(kasInfo.URL, kasInfo.Algorithm, kasInfo.KID);
+        if (cachedValue != null) {
+            return CompletableFuture.completedFuture(cachedValue);
+        }
+
+        var request = new KASKeyRequest(kasInfo.URL, kasInfo.Algorithm, kasInfo.KID);
+        var fetch = new CompletableFuture<Config.KASInfo>();
+        var inFlight = publicKeyFetches.putIfAbsent(request, fetch);
+        if (inFlight != null) {
+            return inFlight.copy();
+        }
+
+        ConnectFutures.<PublicKeyResponse>call(
+                onResult -> getStub(kasInfo.URL).publicKey(publicKeyRequest(kasInfo), Collections.emptyMap(), onResult))
+                .whenComplete((resp, error) -> {
+                    if (error != null) {
+                        publicKeyFetches.remove(request, fetch);
+                        Throwable cause = ConnectFutures.unwrap(error);
+                        fetch.completeExceptionally(cause instanceof ConnectException
+                                ? new SDKException("error getting public key", (ConnectException) cause)
+                                : cause);
+                        return;
+                    }
+                    var kiCopy = toKASInfo(kasInfo, resp);
+                    this.kasKeyCache.store(kasInfo, kiCopy);
+                    publicKeyFetches.remove(request, fetch);
+                    fetch.complete(kiCopy);
+                });
+        // callers get their own future so that one of them completing or cancelling it can't affect the others
+        return fetch.copy();
+    }
+
+    private Config.KASInfo fetchPublicKey(Config.KASInfo kasInfo) {
+        var req = getStub(kasInfo.URL).publicKeyBlocking(publicKeyRequest(kasInfo), Collections.emptyMap()).execute();
         PublicKeyResponse resp;
         try {
             resp = RequestHelper.getOrThrow(req);
         } catch (ConnectException e) {
             throw new SDKException("error getting public key", e);
         }
+        return toKASInfo(kasInfo, resp);
+    }
 
+    private static PublicKeyRequest publicKeyRequest(Config.KASInfo kasInfo) {
+        return (kasInfo.Algorithm == null || kasInfo.Algorithm.isEmpty())
+                ? PublicKeyRequest.getDefaultInstance()
+                : PublicKeyRequest.newBuilder().setAlgorithm(kasInfo.Algorithm).build();
+    }
+
+    private static Config.KASInfo toKASInfo(Config.KASInfo kasInfo, PublicKeyResponse resp) {
         var kiCopy = new Config.KASInfo();
         kiCopy.KID = resp.getKid();
         kiCopy.PublicKey = resp.getPublicKey();
         kiCopy.URL = kasInfo.URL;
         kiCopy.Algorithm = kasInfo.Algorithm;
-
-        this.kasKeyCache.store(kiCopy);
         return kiCopy;
     }
 
@@ -105,7 +193,7 @@ class KASClient implements SDK.KAS {
     }
 
     @Override
-    public synchronized void close() {
+    public void close() {
         this.httpClient.dispatcher().cancelAll();
         this.httpClient.connectionPool().evictAll();
     }
@@ -116,30 +204,433 @@ class KASClient implements SDK.KAS {
         Manifest.KeyAccess keyAccess;
     }
 
+    /**
+     * The body of a rewrap request that carries several key access objects, grouped by policy.
+     * Field names follow the JSON mapping of the KAS {@code UnsignedRewrapRequest} message.
+     */
+    static class BulkRewrapRequestBody {
+        String clientPublicKey;
+        List<PolicyRequest> requests;
+
+        static class PolicyRequest {
+            List<KeyAccessObject> keyAccessObjects;
+            PolicyBody policy;
+        }
+
+        static class KeyAccessObject {
+            String keyAccessObjectId;
+            Manifest.KeyAccess keyAccessObject;
+        }
+
+        static class PolicyBody {
+            String id;
+            String body;
+        }
+    }
+
+    // bounds the size of a single signed request when unwrapping large batches
+    static final int MAX_REWRAP_BATCH_SIZE = 100;
+
     private static final Gson gson = new Gson();
 
-    @Override
-    public byte[] unwrap(Manifest.KeyAccess keyAccess, String policy,  KeyType sessionKeyType) {
-        ECKeyPair ecKeyPair = null;
+    /**
+     * The client key pair used for a rewrap request. The RSA key pair is generated once and shared
+     * by all requests. EC key pairs are generated for each request unless session key reuse has
+     * been enabled, in which case a key pair is shared until it reaches its lifetime or number
+     * of uses.
+     */
+    private static final class RewrapSession {
+        // bounds the ECDH results kept for a shared EC key pair, one per KAS session key seen
+        private static final int MAX_SESSION_KEYS = 64;
+
+        final ECKeyPair ecKeyPair;
+        final AsymDecryption rsaDecryptor;
+        final String publicKey;
+        private final Instant expiresAt;
+        private final int maxUses;
+        private final AtomicInteger uses = new AtomicInteger();
+        // derived keys by KAS session public key, only kept when the key pair is shared
+        private final Map<String, byte[]> sessionKeys;
+
+        RewrapSession(ECKeyPair ecKeyPair, AsymDecryption rsaDecryptor, String publicKey) {
+            this(ecKeyPair, rsaDecryptor, publicKey, null, 0);
+        }
+
+        RewrapSession(ECKeyPair ecKeyPair, AsymDecryption rsaDecryptor, String publicKey, Instant expiresAt, int maxUses) {
+            this.ecKeyPair = ecKeyPair;
+            this.rsaDecryptor = rsaDecryptor;
+            this.publicKey = publicKey;
+            this.expiresAt = expiresAt;
+            this.maxUses = maxUses;
+            this.sessionKeys = expiresAt == null ? null : new ConcurrentHashMap<>();
+        }
+
+        /**
+         * Reserves a use of a shared key pair.
+         *
+         * @return false if the key pair has reached its lifetime or number of uses and should be replaced
+         */
+        boolean tryUse(Instant now) {
+            if (expiresAt == null || !now.isBefore(expiresAt)) {
+                return false;
+            }
+            return maxUses <= 0 || uses.incrementAndGet() <= maxUses;
+        }
+
+        byte[] unwrap(byte[] wrappedKey, String kasEphemeralPublicKey) {
+            if (ecKeyPair == null) {
+                return rsaDecryptor.decrypt(wrappedKey);
+            }
+
+            byte[] sessionKey = sessionKeys == null ? null : sessionKeys.get(kasEphemeralPublicKey);
+            if (sessionKey == null) {
+                sessionKey = deriveSessionKey(kasEphemeralPublicKey);
+                if (sessionKeys != null) {
+                    if (sessionKeys.size() >= MAX_SESSION_KEYS) {
+                        sessionKeys.clear();
+                    }
+                    sessionKeys.put(kasEphemeralPublicKey, sessionKey);
+                }
+            }
+
+            AesGcm gcm = new AesGcm(sessionKey);
+            AesGcm.Encrypted encrypted = new AesGcm.Encrypted(wrappedKey);
+            return gcm.decrypt(encrypted);
+        }
+
+        private byte[] deriveSessionKey(String kasEphemeralPublicKey) {
+            ECPublicKey publicKey;
+            try {
+                publicKey = ECKeyPair.publicKeyFromPem(kasEphemeralPublicKey);
+            } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+                throw new SDKException("error decoding KAS session public key", e);
+            }
+            byte[] symKey = ECKeyPair.computeECDHKey(publicKey, ecKeyPair.getPrivateKey());
+
+            return ECKeyPair.calculateHKDF(GLOBAL_KEY_SALT, symKey);
+        }
+    }
+
+    /**
+     * Share EC session key pairs between rewrap requests. A key pair is replaced once it is older
+     * than {@code lifetime} or has been used for {@code maxUses} requests, whichever comes first.
+     *
+     * @param lifetime how long a key pair is used, {@link Duration#ZERO} to generate a key pair for each request
+     * @param maxUses the number of requests a key pair is used for, or 0 for no limit
+     */
+    void setEcSessionKeyReuse(Duration lifetime, int maxUses) {
+        checkEcSessionKeyReuse(lifetime, maxUses);
+        this.ecSessionKeyLifetime = lifetime;
+        this.ecSessionKeyMaxUses = maxUses;
+        ecSessions.clear();
+    }
+
+    static void checkEcSessionKeyReuse(Duration lifetime, int maxUses) {
+        if (lifetime == null || lifetime.isNegative()) {
+            throw new IllegalArgumentException("EC session key lifetime must not be negative: " + lifetime);
+        }
+        if (maxUses < 0) {
+            throw new IllegalArgumentException("EC session key max uses must not be negative: " + maxUses);
+        }
+    }
+
+    // unwrap can be called from several threads at once, so the key sent to the KAS
+    // is kept with the request rather than in shared state
+    private RewrapSession newRewrapSession(KeyType sessionKeyType) {
         if (sessionKeyType.isEc()) {
-            var curve = sessionKeyType.getECCurve();
-            ecKeyPair = new ECKeyPair(curve);
-            clientPublicKey = ecKeyPair.publicKeyInPEMFormat();
-        } else {
+            Duration lifetime = ecSessionKeyLifetime;
+            if (lifetime.isZero()) {
+                var ecKeyPair = new ECKeyPair(sessionKeyType.getECCurve());
+                return new RewrapSession(ecKeyPair, null, ecKeyPair.publicKeyInPEMFormat());
+            }
+
+            Instant now = Instant.now();
+            RewrapSession session = ecSessions.get(sessionKeyType);
+            if (session != null && session.tryUse(now)) {
+                return session;
+            }
+            // only one thread replaces an exhausted key pair, the others use the one it creates
+            return ecSessions.compute(sessionKeyType, (keyType, existing) -> {
+                if (existing != null && existing != session && existing.tryUse(now)) {
+                    return existing;
+                }
+                var ecKeyPair = new ECKeyPair(keyType.getECCurve());
+                var replacement = new RewrapSession(ecKeyPair, null, ecKeyPair.publicKeyInPEMFormat(),
+                        now.plus(lifetime), ecSessionKeyMaxUses);
+                replacement.tryUse(now);
+                return replacement;
+            });
+        }
+
+        RewrapSession session = rsaSession;
+        if (session != null) {
+            return session;
+        }
+        synchronized (this) {
             // Initialize the RSA key pair only once and reuse it for future unwrap operations
-            if (decryptor == null) {
+            if (rsaSession == null) {
                 var encryptionKeypair = CryptoUtils.generateRSAKeypair();
-                decryptor = new AsymDecryption(encryptionKeypair.getPrivate());
-                clientPublicKey = CryptoUtils.getRSAPublicKeyPEM(encryptionKeypair.getPublic());
+                rsaSession = new RewrapSession(null, new AsymDecryption(encryptionKeypair.getPrivate()),
+                        CryptoUtils.getRSAPublicKeyPEM(encryptionKeypair.getPublic()));
             }
+            return rsaSession;
         }
+    }
 
+    /**
+     * Keep the keys that this client unwraps in {@code cache}, so that unwrapping the same key
+     * access object again does not need another rewrap request.
+     *
+     * @param cache the cache to use, or {@code null} to stop caching unwrapped keys
+     * @param identity identifies the entity that this client authenticates as. Keys are only
+     *                 returned from the cache to clients with the same identity
+     */
+    void setRewrapCache(RewrapCache cache, String identity) {
+        this.rewrapCacheIdentity = identity;
+        this.rewrapCache = cache;
+    }
+
+    @Override
+    public RewrapCache getRewrapCache() {
+        return rewrapCache;
+    }
+
+    @Override
+    public byte[] unwrap(Manifest.KeyAccess keyAccess, String policy,  KeyType sessionKeyType) {
+        RewrapCache cache = rewrapCache;
+        if (cache == null) {
+            return rewrapKey(keyAccess, policy, sessionKeyType);
+        }
+        var key = RewrapCache.key(keyAccess, policy, rewrapCacheIdentity);
+        byte[] cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] unwrapped = rewrapKey(keyAccess, policy, sessionKeyType);
+        cache.put(key, keyAccess.url, unwrapped);
+        return unwrapped;
+    }
+
+    private byte[] rewrapKey(Manifest.KeyAccess keyAccess, String policy,  KeyType sessionKeyType) {
+        RewrapSession session = newRewrapSession(sessionKeyType);
+        RewrapResponse response = rewrap(keyAccess.url, rewrapRequestBody(keyAccess, policy, session));
+        var wrappedKey = response.getEntityWrappedKey().toByteArray();
+        return session.unwrap(wrappedKey, response.getSessionPublicKey());
+    }
+
+    @Override
+    public CompletableFuture<byte[]> unwrapAsync(Manifest.KeyAccess keyAccess, String policy, KeyType sessionKeyType) {
+        RewrapCache cache = rewrapCache;
+        RewrapCache.Key cacheKey = null;
+        RewrapSession session;
+        CompletableFuture<RewrapResponse> response;
+        try {
+            if (cache != null) {
+                cacheKey = RewrapCache.key(keyAccess, policy, rewrapCacheIdentity);
+                byte[] cached = cache.get(cacheKey);
+                if (cached != null) {
+                    return CompletableFuture.completedFuture(cached);
+                }
+            }
+            session = newRewrapSession(sessionKeyType);
+            response = rewrapAsync(keyAccess.url, rewrapRequestBody(keyAccess, policy, session));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        var key = cacheKey;
+        return response.thenApply(r -> {
+            byte[] unwrapped = session.unwrap(r.getEntityWrappedKey().toByteArray(), r.getSessionPublicKey());
+            if (cache != null) {
+                cache.put(key, keyAccess.url, unwrapped);
+            }
+            return unwrapped;
+        });
+    }
+
+    private static String rewrapRequestBody(Manifest.KeyAccess keyAccess, String policy, RewrapSession session) {
         RewrapRequestBody body = new RewrapRequestBody();
         body.policy = policy;
-        body.clientPublicKey = clientPublicKey;
+        body.clientPublicKey = session.publicKey;
         body.keyAccess = keyAccess;
+        return gson.toJson(body);
+    }
+
+    /**
+     * Unwraps the keys with one rewrap request per KAS, each carrying up to
+     * {@link #MAX_REWRAP_BATCH_SIZE} key access objects. A batch that fails only fails the keys in it,
+     * and a KAS that doesn't support bulk rewrap is sent one request per key access object instead.
+     */
+    @Override
+    public List<UnwrapResult> unwrapBatch(List<UnwrapRequest> requests, KeyType sessionKeyType) {
+        RewrapCache cache = rewrapCache;
+        RewrapCache.Key[] cacheKeys = new RewrapCache.Key[requests.size()];
+        UnwrapResult[] results = new UnwrapResult[requests.size()];
+        Map<String, List<Integer>> requestsByKas = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            UnwrapRequest request = requests.get(i);
+            if (cache != null) {
+                cacheKeys[i] = RewrapCache.key(request.getKeyAccess(), request.getPolicy(), rewrapCacheIdentity);
+                byte[] cached = cache.get(cacheKeys[i]);
+                if (cached != null) {
+                    results[i] = UnwrapResult.success(cached);
+                    continue;
+                }
+            }
+            requestsByKas.computeIfAbsent(request.getKeyAccess().url, k -> new ArrayList<>()).add(i);
+        }
+
+        for (var entry : requestsByKas.entrySet()) {
+            List<Integer> indices = entry.getValue();
+            for (int start = 0; start < indices.size(); start += MAX_REWRAP_BATCH_SIZE) {
+                var batch = indices.subList(start, Math.min(indices.size(), start + MAX_REWRAP_BATCH_SIZE));
+                try {
+                    unwrapBatch(entry.getKey(), batch, requests, sessionKeyType, results);
+                } catch (RuntimeException e) {
+                    for (int index : batch) {
+                        if (results[index] == null) {
+                            results[index] = UnwrapResult.failure(e);
+                        }
+                    }
+                }
+                if (cache != null) {
+                    for (int index : batch) {
+                        if (results[index].isSuccess()) {
+                            cache.put(cacheKeys[index], entry.getKey(), results[index].getKey());
+                        }
+                    }
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void unwrapBatch(String kasUrl, List<Integer> batch, List<UnwrapRequest> requests, KeyType sessionKeyType,
+                             UnwrapResult[] results) {
+        RewrapSession session = newRewrapSession(sessionKeyType);
+
+        // key access objects that share a policy are sent together so that the policy is only sent once
+        Map<String, BulkRewrapRequestBody.PolicyRequest> policyRequests = new LinkedHashMap<>();
+        for (int index : batch) {
+            UnwrapRequest request = requests.get(index);
+            var policyRequest = policyRequests.computeIfAbsent(request.getPolicy(), policy -> {
+                var pr = new BulkRewrapRequestBody.PolicyRequest();
+                pr.policy = new BulkRewrapRequestBody.PolicyBody();
+                pr.policy.id = "policy-" + policyRequests.size();
+                pr.policy.body = policy;
+                pr.keyAccessObjects = new ArrayList<>();
+                return pr;
+            });
+            var keyAccessObject = new BulkRewrapRequestBody.KeyAccessObject();
+            keyAccessObject.keyAccessObjectId = "kao-" + index;
+            keyAccessObject.keyAccessObject = request.getKeyAccess();
+            policyRequest.keyAccessObjects.add(keyAccessObject);
+        }
+
+        var body = new BulkRewrapRequestBody();
+        body.clientPublicKey = session.publicKey;
+        body.requests = new ArrayList<>(policyRequests.values());
+
+        RewrapResponse response;
+        try {
+            response = rewrap(kasUrl, gson.toJson(body));
+        } catch (KasBadRequestException e) {
+            log.debug("KAS at [{}] rejected a bulk rewrap request, retrying the key access objects one at a time", kasUrl, e);
+            unwrapEach(batch, requests, sessionKeyType, results);
+            return;
+        }
+        if (response.getResponsesList().isEmpty()) {
+            // a KAS that predates bulk rewrap ignores the requests and answers without any results for them
+            log.debug("KAS at [{}] did not answer a bulk rewrap request, retrying the key access objects one at a time", kasUrl);
+            unwrapEach(batch, requests, sessionKeyType, results);
+            return;
+        }
+        for (var policyResult : response.getResponsesList()) {
+            for (var result : policyResult.getResultsList()) {
+                Integer index = parseKeyAccessObjectId(result.getKeyAccessObjectId());
+                if (index == null || index < 0 || index >= results.length || results[index] != null) {
+                    log.warn("ignoring unexpected rewrap result for key access object [{}]", result.getKeyAccessObjectId());
+                    continue;
+                }
+                if (!"permit".equals(result.getStatus())) {
+                    results[index] = UnwrapResult.failure(
+                            new SDKException("rewrap failed for key access object: " + result.getError()));
+                    continue;
+                }
+                try {
+                    results[index] = UnwrapResult.success(
+                            session.unwrap(result.getKasWrappedKey().toByteArray(), response.getSessionPublicKey()));
+                } catch (SDKException e) {
+                    results[index] = UnwrapResult.failure(e);
+                }
+            }
+        }
+
+        for (int index : batch) {
+            if (results[index] == null) {
+                results[index] = UnwrapResult.failure(
+                        new SDKException("KAS did not return a result for key access object kao-" + index));
+            }
+        }
+    }
+
+    private void unwrapEach(List<Integer> batch, List<UnwrapRequest> requests, KeyType sessionKeyType,
+                            UnwrapResult[] results) {
+        for (int index : batch) {
+            UnwrapRequest request = requests.get(index);
+            try {
+                results[index] = UnwrapResult.success(rewrapKey(request.getKeyAccess(), request.getPolicy(), sessionKeyType));
+            } catch (RuntimeException e) {
+                results[index] = UnwrapResult.failure(e);
+            }
+        }
+    }
+
+    private static Integer parseKeyAccessObjectId(String id) {
+        if (id == null || !id.startsWith("kao-")) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(id.substring("kao-".length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private RewrapResponse rewrap(String kasUrl, String requestBody) {
+        var req = getStub(kasUrl).rewrapBlocking(signedRewrapRequest(requestBody), Collections.emptyMap()).execute();
+        try {
+            return RequestHelper.getOrThrow(req);
+        } catch (ConnectException e) {
+            throw rewrapError(e);
+        }
+    }
+
+    private CompletableFuture<RewrapResponse> rewrapAsync(String kasUrl, String requestBody) {
+        RewrapRequest request = signedRewrapRequest(requestBody);
+        return ConnectFutures.<RewrapResponse>call(
+                onResult -> getStub(kasUrl).rewrap(request, Collections.emptyMap(), onResult))
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return response;
+                    }
+                    Throwable cause = ConnectFutures.unwrap(error);
+                    if (cause instanceof ConnectException) {
+                        throw rewrapError((ConnectException) cause);
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    private static SDKException rewrapError(ConnectException e) {
+        if (e.getCode() == Code.INVALID_ARGUMENT) {
+            // 400 Bad Request
+            return new KasBadRequestException("rewrap request 400: " + e);
+        }
+        return new SDKException("error unwrapping key", e);
+    }
 
-        var requestBody = gson.toJson(body);
+    private RewrapRequest signedRewrapRequest(String requestBody) {
         var claims = new JWTClaimsSet.Builder()
                 .claim("requestBody", requestBody)
                 .issueTime(Date.from(Instant.now()))
@@ -154,54 +645,30 @@ class KASClient implements SDK.KAS {
             throw new SDKException("error signing KAS request", e);
         }
 
-        var request = RewrapRequest
+        return RewrapRequest
                 .newBuilder()
                 .setSignedRequestToken(jwt.serialize())
                 .build();
-        RewrapResponse response;
-        var req = getStub(keyAccess.url).rewrapBlocking(request, Collections.emptyMap()).execute();
-        try {
-            response = RequestHelper.getOrThrow(req);
-        } catch (ConnectException e) {
-            if (e.getCode() == Code.INVALID_ARGUMENT) {
-                // 400 Bad Request
-                throw new KasBadRequestException("rewrap request 400: " + e);
-            }
-            throw new SDKException("error unwrapping key", e);
-        }
-
-        var wrappedKey = response.getEntityWrappedKey().toByteArray();
-        if (sessionKeyType.isEc()) {
-
-            if (ecKeyPair == null) {
-                throw new SDKException("ECKeyPair is null. Unable to proceed with the unwrap operation.");
-            }
-
-            var kasEphemeralPublicKey = response.getSessionPublicKey();
-            ECPublicKey publicKey;
-            try {
-                publicKey = ECKeyPair.publicKeyFromPem(kasEphemeralPublicKey);
-            } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
-                throw new SDKException("error decoding KAS session public key", e);
-            }
-            byte[] symKey = ECKeyPair.computeECDHKey(publicKey, ecKeyPair.getPrivateKey());
-
-            var sessionKey = ECKeyPair.calculateHKDF(GLOBAL_KEY_SALT, symKey);
-
-            AesGcm gcm = new AesGcm(sessionKey);
-            AesGcm.Encrypted encrypted = new AesGcm.Encrypted(wrappedKey);
-            return gcm.decrypt(encrypted);
-        } else {
-            return decryptor.decrypt(wrappedKey);
-        }
     }
 
-    private final HashMap<String, AccessServiceClient> stubs = new HashMap<>();
+    private final Map<String, AccessServiceClient> stubs = new ConcurrentHashMap<>();
+    // the normalized address for each KAS URL we've seen, so that lookups don't normalize every time
+    private final Map<String, String> normalizedAddresses = new ConcurrentHashMap<>();
+    static final int MAX_NORMALIZED_ADDRESSES = 1024;
 
     // make this protected so we can test the address normalization logic
-    synchronized AccessServiceClient getStub(String url) {
-        return stubs.computeIfAbsent(AddressNormalizer.normalizeAddress(url, usePlaintext), (String address) -> {
-            var client = protocolClientFactory.apply(httpClient, address);
+    AccessServiceClient getStub(String url) {
+        String address = normalizedAddresses.get(url);
+        if (address == null) {
+            address = AddressNormalizer.normalizeAddress(url, usePlaintext);
+            if (normalizedAddresses.size() >= MAX_NORMALIZED_ADDRESSES) {
+                // URLs come from the TDFs being read, so don't let them accumulate without bound
+                normalizedAddresses.clear();
+            }
+            normalizedAddresses.put(url, address);
+        }
+        return stubs.computeIfAbsent(address, (String normalized) -> {
+            var client = protocolClientFactory.apply(httpClient, normalized);
             return new AccessServiceClient(client);
         });
     }
@@ -3,45 +3,147 @@ package io.opentdf.platform.sdk;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * Class representing a cache for KAS (Key Access Server) information.
  * It stores key information along with a timestamp to manage the freshness of cached data.
+ * <p>
+ * The cache is safe to share between threads. Entries expire once they are older than the
+ * configured TTL and the least recently used entry is evicted once the cache holds more than
+ * the configured maximum number of entries. When a refresher has been registered, an entry that
+ * is read within the refresh-ahead window before it expires is reloaded in the background, so
+ * that callers keep getting hits while the key is refreshed.
  */
 public class KASKeyCache {
     private static final Logger log = LoggerFactory.getLogger(KASKeyCache.class);
-    Map<KASKeyRequest, TimeStampedKASInfo> cache;
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+    public static final int DEFAULT_MAX_SIZE = 1024;
+    public static final Duration DEFAULT_REFRESH_AHEAD = Duration.ofSeconds(30);
+
+    // access-ordered so that the eldest entry is the least recently used one. all access
+    // is guarded by the map's monitor
+    final Map<KASKeyRequest, TimeStampedKASInfo> cache;
+    private final Duration ttl;
+    private final int maxSize;
+    private final Duration refreshAhead;
+    Clock clock = Clock.systemUTC();
+
+    private final Set<KASKeyRequest> refreshing = ConcurrentHashMap.newKeySet();
+    private volatile Function<Config.KASInfo, Config.KASInfo> refresher;
+    private volatile Executor refreshExecutor;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
 
     public KASKeyCache() {
-        this.cache = new HashMap<>();
+        this(DEFAULT_TTL, DEFAULT_MAX_SIZE, DEFAULT_REFRESH_AHEAD);
+    }
+
+    /**
+     * Creates a cache with the given limits.
+     *
+     * @param ttl how long an entry stays valid after it is stored
+     * @param maxSize the maximum number of entries to keep
+     * @param refreshAhead how long before expiry a read triggers a background refresh. Use
+     *                     {@link Duration#ZERO} to disable refreshing ahead of expiry
+     */
+    public KASKeyCache(Duration ttl, int maxSize, Duration refreshAhead) {
+        checkLimits(ttl, maxSize, refreshAhead);
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.refreshAhead = refreshAhead;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<KASKeyRequest, TimeStampedKASInfo> eldest) {
+                if (size() > KASKeyCache.this.maxSize) {
+                    log.debug("evicting least recently used kasinfo for key = [{}]", eldest.getKey());
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    static void checkLimits(Duration ttl, int maxSize, Duration refreshAhead) {
+        Objects.requireNonNull(ttl, "ttl");
+        Objects.requireNonNull(refreshAhead, "refreshAhead");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("cache TTL must be positive: " + ttl);
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("cache max size must be at least 1: " + maxSize);
+        }
+        if (refreshAhead.isNegative() || refreshAhead.compareTo(ttl) >= 0) {
+            throw new IllegalArgumentException("refresh ahead window must be non-negative and less than the TTL: " + refreshAhead);
+        }
+    }
+
+    /**
+     * Registers the function used to reload entries that are about to expire. Refreshes run on a
+     * small pool of daemon threads that is created the first time a refresh is needed.
+     */
+    void setRefresher(Function<Config.KASInfo, Config.KASInfo> refresher) {
+        setRefresher(refresher, null);
+    }
+
+    /**
+     * Registers the function used to reload entries that are about to expire, and the executor
+     * to run the refreshes on.
+     */
+    void setRefresher(Function<Config.KASInfo, Config.KASInfo> refresher, Executor executor) {
+        this.refreshExecutor = executor;
+        this.refresher = refresher;
     }
 
     public void clear() {
-        this.cache = new HashMap<>();
+        synchronized (cache) {
+            cache.clear();
+        }
     }
 
     public Config.KASInfo get(String url, String algorithm, String kid) {
         log.debug("retrieving kasinfo for url = [{}], algorithm = [{}], kid = [{}]", url, algorithm, kid);
         KASKeyRequest cacheKey = new KASKeyRequest(url, algorithm, kid);
-        LocalDateTime now = LocalDateTime.now();
-        TimeStampedKASInfo cachedValue = cache.get(cacheKey);
+        Instant now = clock.instant();
+        TimeStampedKASInfo cachedValue;
+        synchronized (cache) {
+            cachedValue = cache.get(cacheKey);
+            if (cachedValue != null && !now.isBefore(cachedValue.timestamp.plus(ttl))) {
+                log.debug("cached value is too old timestamp = [{}] for url = [{}], algorithm = [{}]",
+                        cachedValue.timestamp, url, algorithm);
+                cache.remove(cacheKey);
+                expirations.incrementAndGet();
+                cachedValue = null;
+            }
+        }
 
         if (cachedValue == null) {
             log.debug("didn't find kasinfo for key= [{}]", cacheKey);
+            misses.incrementAndGet();
             return null;
         }
 
-        LocalDateTime aMinAgo = now.minus(5, ChronoUnit.MINUTES);
-        if (aMinAgo.isAfter(cachedValue.timestamp)) {
-            log.debug("cached value is too old timestamp = [{}] for url = [{}], algorithm = [{}]",
-                    cachedValue.timestamp, url, algorithm);
-            cache.remove(cacheKey);
-            return null;
+        hits.incrementAndGet();
+        if (!refreshAhead.isZero() && !now.isBefore(cachedValue.timestamp.plus(ttl).minus(refreshAhead))) {
+            refreshAsync(cacheKey);
         }
 
         log.debug("successfully returned kasInfo = [{}], url = [{}], algorithm = [{}]", cachedValue.kasInfo, url, algorithm);
@@ -49,9 +151,151 @@ public class KASKeyCache {
     }
 
     public void store(Config.KASInfo kasInfo) {
+        store(new KASKeyRequest(kasInfo.URL, kasInfo.Algorithm, kasInfo.KID), kasInfo);
+    }
+
+    /**
+     * Stores a key that was fetched for the given request. A request that does not name a key ID
+     * gets back the KAS's current key, so the key is also stored under the request itself, otherwise
+     * looking the same request up again would never hit the cache.
+     */
+    void store(Config.KASInfo request, Config.KASInfo kasInfo) {
+        store(kasInfo);
+        if (!Objects.equals(request.KID, kasInfo.KID)) {
+            store(new KASKeyRequest(request.URL, request.Algorithm, request.KID), kasInfo);
+        }
+    }
+
+    private void store(KASKeyRequest cacheKey, Config.KASInfo kasInfo) {
         log.debug("storing kasInfo into the cache {}", kasInfo);
-        KASKeyRequest cacheKey = new KASKeyRequest(kasInfo.URL, kasInfo.Algorithm, kasInfo.KID);
-        cache.put(cacheKey, new TimeStampedKASInfo(kasInfo, LocalDateTime.now()));
+        var value = new TimeStampedKASInfo(kasInfo, clock.instant());
+        synchronized (cache) {
+            cache.put(cacheKey, value);
+        }
+    }
+
+    /**
+     * Fetches the key for the request with the registered refresher and stores it, whether or not
+     * the cached entry is still valid.
+     *
+     * @return the fetched key, or {@code null} if no refresher has been registered
+     */
+    Config.KASInfo reload(Config.KASInfo request) {
+        var loader = refresher;
+        if (loader == null) {
+            return null;
+        }
+        var kasInfo = loader.apply(request);
+        if (kasInfo != null) {
+            store(request, kasInfo);
+        }
+        return kasInfo;
+    }
+
+    /**
+     * @return the number of entries currently held, including ones that have expired but have
+     * not been looked up since
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public Duration getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    /**
+     * @return the number of lookups that returned a cached value
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups that found no value, or only an expired one
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of entries removed to keep the cache within its maximum size
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the number of entries removed because they outlived the TTL
+     */
+    public long getExpirationCount() {
+        return expirations.get();
+    }
+
+    /**
+     * @return the number of background refreshes that completed successfully
+     */
+    public long getRefreshCount() {
+        return refreshes.get();
+    }
+
+    private void refreshAsync(KASKeyRequest cacheKey) {
+        var loader = refresher;
+        if (loader == null || !refreshing.add(cacheKey)) {
+            return;
+        }
+
+        Runnable refresh = () -> {
+            try {
+                // ask for what was requested, so an entry for the KAS's current key picks up a new key
+                var request = new Config.KASInfo();
+                request.URL = cacheKey.url;
+                request.Algorithm = cacheKey.algorithm;
+                request.KID = cacheKey.kid;
+                var refreshed = loader.apply(request);
+                if (refreshed != null) {
+                    store(request, refreshed);
+                    refreshes.incrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                // the current entry stays valid until it expires, the next read will retry
+                log.debug("error refreshing kasinfo for key = [{}]", cacheKey, e);
+            } finally {
+                refreshing.remove(cacheKey);
+            }
+        };
+
+        try {
+            getRefreshExecutor().execute(refresh);
+        } catch (RejectedExecutionException e) {
+            log.debug("unable to schedule refresh for key = [{}]", cacheKey, e);
+            refreshing.remove(cacheKey);
+        }
+    }
+
+    private Executor getRefreshExecutor() {
+        var executor = refreshExecutor;
+        if (executor == null) {
+            synchronized (refreshing) {
+                executor = refreshExecutor;
+                if (executor == null) {
+                    // idle threads exit after a minute, so there is nothing that needs shutting down
+                    executor = Executors.newCachedThreadPool(TDF.daemonThreadFactory("opentdf-kas-key-refresh"));
+                    refreshExecutor = executor;
+                }
+            }
+        }
+        return executor;
     }
 }
 
@@ -63,14 +307,14 @@ public class KASKeyCache {
  * and {@code timestamp}.
  * <p>
  * The {@code kasInfo} field is an instance of {@code Config.KASInfo}, which contains the KAS-specific
- * data. The {@code timestamp} field is an instance of {@code LocalDateTime}, representing
- * the date and time when the KAS information was recorded.
+ * data. The {@code timestamp} field is the {@code Instant} at which the KAS information was
+ * recorded, so that its age isn't affected by changes to the local time zone offset.
  */
 class TimeStampedKASInfo {
     Config.KASInfo kasInfo;
-    LocalDateTime timestamp;
+    Instant timestamp;
 
-    public TimeStampedKASInfo(Config.KASInfo kasInfo, LocalDateTime timestamp) {
+    public TimeStampedKASInfo(Config.KASInfo kasInfo, Instant timestamp) {
         this.kasInfo = kasInfo;
         this.timestamp = timestamp;
     }
@@ -84,9 +328,9 @@ class TimeStampedKASInfo {
  * to ensure proper functioning within hash-based collections.
  */
 class KASKeyRequest {
-    private String url;
-    private String algorithm;
-    private String kid;
+    final String url;
+    final String algorithm;
+    final String kid;
 
     public KASKeyRequest(String url, String algorithm, String kid) {
         this.url = url;
@@ -114,6 +358,4 @@ class KASKeyRequest {
                 ", kid='" + kid + '\'' +
                 '}';
     }
-
-    // Override equals and hashCode to ensure proper functioning of the HashMap
 }
\ No newline at end of file
@@ -8,8 +8,13 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
@@ -30,6 +35,9 @@ import org.apache.commons.codec.binary.Hex;
 import org.erdtman.jcs.JsonCanonicalizer;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -38,10 +46,14 @@ import java.security.PrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.cert.X509Certificate;
 import java.text.ParseException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.RandomAccess;
 
 /**
  * The Manifest class represents a detailed structure encapsulating various
@@ -64,6 +76,13 @@ public class Manifest {
         return gson.toJson(manifest);
     }
 
+    /**
+     * Writes the manifest as JSON without building it up as a string first
+     */
+    static void writeManifest(Manifest manifest, Writer writer) {
+        gson.toJson(manifest, Manifest.class, writer);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -118,6 +137,494 @@ public class Manifest {
         }
     }
 
+    /**
+     * The segments of a manifest held in primitive arrays, instead of an object and a string for each
+     * segment. The hashes of all the segments are held in one array: hashes that are Base64 encoded,
+     * which is how every TDF this SDK writes stores them, are held decoded and any other hash is held
+     * as its UTF-8 bytes. While every hash has the same length, and every segment but the last has the
+     * same sizes, which is the case for every TDF this SDK writes, nothing else is stored per segment
+     * and the segment holding a plaintext offset is found with a division. Otherwise the end offsets of
+     * the segments are stored and the segment is found with a binary search.
+     * <p>
+     * This is also a {@code List<Segment>}, so that the manifest keeps its shape. The first call that
+     * hands out a {@link Segment} or changes the list other than by appending, such as {@link #get},
+     * iterating or {@link #set}, copies the segments into a plain list of {@link Segment}s that the
+     * {@code List} methods use from then on, so that changes made through them stick. The accessors
+     * keep reading the segments as they were appended, and {@link #of} copies a list whose segments
+     * have been handed out, so code that goes through every segment should use {@link #of} and the
+     * accessors instead.
+     */
+    static final class SegmentList extends AbstractList<Segment> implements RandomAccess {
+        private static final Base64.Encoder ENCODER = Base64.getEncoder();
+        private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+        private byte[] hashes;
+        private int hashesLength;
+        // the length of every hash while they are all the same length. after that the end of each hash
+        // is in hashEnds
+        private int hashLength;
+        private int[] hashEnds;
+        // the segments whose hash isn't canonical Base64, and so is held as text
+        private final BitSet textHashes = new BitSet();
+
+        // the sizes of every segment but the last while they are all the same, and of the last one.
+        // after that the end offsets of each segment are in plaintextEnds and encryptedEnds
+        private long uniformSize;
+        private long uniformEncryptedSize;
+        private long lastSize;
+        private long lastEncryptedSize;
+        private long[] plaintextEnds;
+        private long[] encryptedEnds;
+        private int size;
+        // the segments once any have been handed out, see the class comment
+        private List<Segment> handedOut;
+
+        SegmentList() {
+            this(16);
+        }
+
+        SegmentList(int capacity) {
+            hashes = new byte[Math.max(1, capacity) * 32];
+        }
+
+        /**
+         * @return {@code segments} if it is a {@link SegmentList} whose segments have never been handed
+         * out, otherwise a copy of it
+         */
+        static SegmentList of(List<Segment> segments) {
+            if (segments instanceof SegmentList && ((SegmentList) segments).handedOut == null) {
+                return (SegmentList) segments;
+            }
+            var segmentList = new SegmentList(segments.size());
+            segmentList.addAll(segments);
+            return segmentList;
+        }
+
+        /**
+         * Appends a segment whose hash is written to the manifest Base64 encoded
+         */
+        void add(byte[] hash, long segmentSize, long encryptedSegmentSize) {
+            append(hash, false, segmentSize, encryptedSegmentSize);
+        }
+
+        void add(String hash, long segmentSize, long encryptedSegmentSize) {
+            byte[] decoded;
+            try {
+                decoded = DECODER.decode(hash);
+            } catch (IllegalArgumentException e) {
+                decoded = null;
+            }
+            if (decoded != null && encodesTo(decoded, hash)) {
+                append(decoded, false, segmentSize, encryptedSegmentSize);
+            } else {
+                append(hash.getBytes(StandardCharsets.UTF_8), true, segmentSize, encryptedSegmentSize);
+            }
+        }
+
+        // the decoder accepts encodings without padding or with stray bits after the last byte, which
+        // would not be written back the same way
+        private static boolean encodesTo(byte[] decoded, String hash) {
+            byte[] encoded = ENCODER.encode(decoded);
+            if (encoded.length != hash.length()) {
+                return false;
+            }
+            for (int i = 0; i < encoded.length; i++) {
+                if (encoded[i] != hash.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void append(byte[] hash, boolean isText, long segmentSize, long encryptedSegmentSize) {
+            if (handedOut != null) {
+                var segment = new Segment();
+                segment.hash = isText ? new String(hash, StandardCharsets.UTF_8) : ENCODER.encodeToString(hash);
+                segment.segmentSize = segmentSize;
+                segment.encryptedSegmentSize = encryptedSegmentSize;
+                handedOut.add(segment);
+                modCount++;
+                return;
+            }
+            appendHash(hash);
+            textHashes.set(size, isText);
+            appendSizes(segmentSize, encryptedSegmentSize);
+            size++;
+            modCount++;
+        }
+
+        private void appendHash(byte[] hash) {
+            if (size == 0) {
+                hashLength = hash.length;
+            } else if (hashEnds == null && hash.length != hashLength) {
+                hashEnds = new int[Math.max(16, size * 2)];
+                for (int i = 0; i < size; i++) {
+                    hashEnds[i] = (i + 1) * hashLength;
+                }
+            }
+            if (hashesLength + hash.length > hashes.length) {
+                hashes = Arrays.copyOf(hashes, Math.max(hashes.length * 2, hashesLength + hash.length));
+            }
+            System.arraycopy(hash, 0, hashes, hashesLength, hash.length);
+            hashesLength += hash.length;
+            if (hashEnds != null) {
+                if (size == hashEnds.length) {
+                    hashEnds = Arrays.copyOf(hashEnds, size * 2);
+                }
+                hashEnds[size] = hashesLength;
+            }
+        }
+
+        private void appendSizes(long segmentSize, long encryptedSegmentSize) {
+            if (plaintextEnds == null) {
+                if (size == 0) {
+                    uniformSize = segmentSize;
+                    uniformEncryptedSize = encryptedSegmentSize;
+                } else if (lastSize != uniformSize || lastEncryptedSize != uniformEncryptedSize) {
+                    // the segment that used to be the last one doesn't have the same sizes as the others
+                    long[] ends = new long[Math.max(16, size * 2)];
+                    long[] encrypted = new long[ends.length];
+                    for (int i = 0; i < size; i++) {
+                        ends[i] = plaintextOffset(i + 1);
+                        encrypted[i] = encryptedOffset(i + 1);
+                    }
+                    plaintextEnds = ends;
+                    encryptedEnds = encrypted;
+                }
+                lastSize = segmentSize;
+                lastEncryptedSize = encryptedSegmentSize;
+            }
+            if (plaintextEnds != null) {
+                if (size == plaintextEnds.length) {
+                    plaintextEnds = Arrays.copyOf(plaintextEnds, size * 2);
+                    encryptedEnds = Arrays.copyOf(encryptedEnds, size * 2);
+                }
+                plaintextEnds[size] = plaintextOffset(size) + segmentSize;
+                encryptedEnds[size] = encryptedOffset(size) + encryptedSegmentSize;
+            }
+        }
+
+        @Override
+        public void add(int index, Segment segment) {
+            checkSegment(segment);
+            if (handedOut == null && index == size) {
+                add(segment.hash, segment.segmentSize, segment.encryptedSegmentSize);
+                return;
+            }
+            handedOut().add(index, segment);
+            modCount++;
+        }
+
+        @Override
+        public Segment get(int index) {
+            return handedOut().get(index);
+        }
+
+        @Override
+        public Segment set(int index, Segment segment) {
+            checkSegment(segment);
+            return handedOut().set(index, segment);
+        }
+
+        @Override
+        public Segment remove(int index) {
+            var removed = handedOut().remove(index);
+            modCount++;
+            return removed;
+        }
+
+        @Override
+        public int size() {
+            return handedOut == null ? size : handedOut.size();
+        }
+
+        // compared without handing out any segments, so that comparing manifests doesn't copy them
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof List)) {
+                return false;
+            }
+            var other = (List<?>) o;
+            if (other.size() != size()) {
+                return false;
+            }
+            if (other instanceof SegmentList) {
+                var segmentList = (SegmentList) other;
+                for (int i = 0; i < size(); i++) {
+                    if (!segment(i).equals(segmentList.segment(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            int i = 0;
+            for (var element : other) {
+                if (!segment(i++).equals(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = 1;
+            for (int i = 0; i < size(); i++) {
+                hashCode = 31 * hashCode + segment(i).hashCode();
+            }
+            return hashCode;
+        }
+
+        private static void checkSegment(Segment segment) {
+            if (segment == null || segment.hash == null) {
+                throw new IllegalArgumentException("Invalid integrity segment");
+            }
+        }
+
+        private List<Segment> handedOut() {
+            if (handedOut == null) {
+                var segments = new ArrayList<Segment>(size);
+                for (int i = 0; i < size; i++) {
+                    segments.add(segment(i));
+                }
+                handedOut = segments;
+            }
+            return handedOut;
+        }
+
+        private Segment segment(int index) {
+            if (handedOut != null) {
+                return handedOut.get(index);
+            }
+            Objects.checkIndex(index, size);
+            var segment = new Segment();
+            segment.hash = hash(index);
+            segment.segmentSize = segmentSize(index);
+            segment.encryptedSegmentSize = encryptedSegmentSize(index);
+            return segment;
+        }
+
+        /**
+         * @return the hash as it is written in the manifest
+         */
+        String hash(int index) {
+            Objects.checkIndex(index, size);
+            int start = hashStart(index);
+            int end = hashEnd(index);
+            if (textHashes.get(index)) {
+                return new String(hashes, start, end - start, StandardCharsets.UTF_8);
+            }
+            return ENCODER.encodeToString(Arrays.copyOfRange(hashes, start, end));
+        }
+
+        /**
+         * @return the Base64 decoded hash
+         * @throws IllegalArgumentException if the hash is not valid Base64
+         */
+        byte[] decodedHash(int index) {
+            Objects.checkIndex(index, size);
+            if (textHashes.get(index)) {
+                return DECODER.decode(hash(index));
+            }
+            return Arrays.copyOfRange(hashes, hashStart(index), hashEnd(index));
+        }
+
+        /**
+         * @return whether the hash is the Base64 encoding of {@code decoded}
+         */
+        boolean hashMatches(int index, byte[] decoded) {
+            Objects.checkIndex(index, size);
+            if (textHashes.get(index)) {
+                return hash(index).equals(ENCODER.encodeToString(decoded));
+            }
+            return Arrays.equals(hashes, hashStart(index), hashEnd(index), decoded, 0, decoded.length);
+        }
+
+        private int hashStart(int index) {
+            if (hashEnds == null) {
+                return index * hashLength;
+            }
+            return index == 0 ? 0 : hashEnds[index - 1];
+        }
+
+        private int hashEnd(int index) {
+            return hashEnds == null ? (index + 1) * hashLength : hashEnds[index];
+        }
+
+        long segmentSize(int index) {
+            Objects.checkIndex(index, size);
+            return plaintextOffset(index + 1) - plaintextOffset(index);
+        }
+
+        long encryptedSegmentSize(int index) {
+            Objects.checkIndex(index, size);
+            return encryptedOffset(index + 1) - encryptedOffset(index);
+        }
+
+        /**
+         * @param index the index of a segment, or the number of segments for the end of the last one
+         * @return where the segment starts in the plaintext
+         */
+        long plaintextOffset(int index) {
+            Objects.checkIndex(index, size + 1);
+            if (plaintextEnds != null) {
+                return index == 0 ? 0 : plaintextEnds[index - 1];
+            }
+            return index < size ? index * uniformSize : (size - 1) * uniformSize + lastSize;
+        }
+
+        /**
+         * @param index the index of a segment, or the number of segments for the end of the last one
+         * @return where the segment starts in the payload
+         */
+        long encryptedOffset(int index) {
+            Objects.checkIndex(index, size + 1);
+            if (encryptedEnds != null) {
+                return index == 0 ? 0 : encryptedEnds[index - 1];
+            }
+            return index < size ? index * uniformEncryptedSize : (size - 1) * uniformEncryptedSize + lastEncryptedSize;
+        }
+
+        long plaintextSize() {
+            return plaintextOffset(size);
+        }
+
+        /**
+         * @return the index of the segment that holds the byte at {@code plaintextOffset}, skipping any
+         * empty segments
+         */
+        int segmentAt(long plaintextOffset) {
+            if (plaintextOffset < 0 || plaintextOffset >= plaintextSize()) {
+                throw new IndexOutOfBoundsException("offset " + plaintextOffset + " is not in the plaintext of size " + plaintextSize());
+            }
+            if (plaintextEnds == null) {
+                // every segment but the last has the uniform size, so unless that's zero the offset says
+                // which segment it is in
+                return uniformSize > 0 ? (int) Math.min(plaintextOffset / uniformSize, size - 1) : size - 1;
+            }
+
+            // the first segment that ends after the offset
+            int low = 0;
+            int high = size - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (plaintextEnds[mid] > plaintextOffset) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    // reads the segments straight into a SegmentList and writes them without building any Segments
+    private static class SegmentListAdapter extends TypeAdapter<List<Segment>> {
+        @Override
+        public void write(JsonWriter out, List<Segment> segments) throws IOException {
+            if (segments == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginArray();
+            if (segments instanceof SegmentList && ((SegmentList) segments).handedOut == null) {
+                var segmentList = (SegmentList) segments;
+                for (int i = 0; i < segmentList.size(); i++) {
+                    writeSegment(out, segmentList.hash(i), segmentList.segmentSize(i), segmentList.encryptedSegmentSize(i));
+                }
+            } else {
+                for (var segment : segments) {
+                    if (segment == null) {
+                        out.nullValue();
+                    } else {
+                        writeSegment(out, segment.hash, segment.segmentSize, segment.encryptedSegmentSize);
+                    }
+                }
+            }
+            out.endArray();
+        }
+
+        private static void writeSegment(JsonWriter out, String hash, long segmentSize, long encryptedSegmentSize) throws IOException {
+            out.beginObject();
+            if (hash != null) {
+                out.name("hash").value(hash);
+            }
+            out.name("segmentSize").value(segmentSize);
+            out.name("encryptedSegmentSize").value(encryptedSegmentSize);
+            out.endObject();
+        }
+
+        @Override
+        public List<Segment> read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            var segments = new SegmentList();
+            in.beginArray();
+            while (in.hasNext()) {
+                if (in.peek() == JsonToken.NULL) {
+                    throw new IllegalArgumentException("Invalid integrity segment");
+                }
+                String hash = null;
+                long segmentSize = 0;
+                long encryptedSegmentSize = 0;
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "hash":
+                            hash = readString(in);
+                            break;
+                        case "segmentSize":
+                            segmentSize = readLong(in);
+                            break;
+                        case "encryptedSegmentSize":
+                            encryptedSegmentSize = readLong(in);
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                if (hash == null) {
+                    throw new IllegalArgumentException("Invalid integrity segment");
+                }
+                segments.add(hash, segmentSize, encryptedSegmentSize);
+            }
+            in.endArray();
+            return segments;
+        }
+
+        // the same values that gson accepts for the fields of a Segment
+        private static String readString(JsonReader in) throws IOException {
+            switch (in.peek()) {
+                case NULL:
+                    in.nextNull();
+                    return null;
+                case BOOLEAN:
+                    return Boolean.toString(in.nextBoolean());
+                default:
+                    return in.nextString();
+            }
+        }
+
+        private static long readLong(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return 0;
+            }
+            try {
+                return in.nextLong();
+            } catch (NumberFormatException e) {
+                throw new JsonSyntaxException(e);
+            }
+        }
+    }
+
     static public class RootSignature {
         @SerializedName(value = "alg")
         public String algorithm;
@@ -145,6 +652,7 @@ public class Manifest {
         public String segmentHashAlg;
         public int segmentSizeDefault;
         public int encryptedSegmentSizeDefault;
+        @JsonAdapter(SegmentListAdapter.class)
         public List<Segment> segments;
 
         @Override
@@ -559,6 +1067,14 @@ public class Manifest {
     public Payload payload;
     public List<Assertion> assertions = new ArrayList<>();
     protected static Manifest readManifest(String manifestJson) {
+        return readManifest(new StringReader(manifestJson));
+    }
+
+    /**
+     * Reads and validates a manifest straight from {@code manifestJson}, without reading it into a
+     * string first
+     */
+    static Manifest readManifest(Reader manifestJson) {
         Manifest result = gson.fromJson(manifestJson, Manifest.class);
         if (result.assertions == null) {
             result.assertions = new ArrayList<>();
@@ -583,11 +1099,7 @@ public class Manifest {
             throw new IllegalArgumentException("Manifest with null policy");
         }
 
-        for (Manifest.Segment segment : result.encryptionInformation.integrityInformation.segments) {
-            if (segment == null || segment.hash == null) {
-                throw new IllegalArgumentException("Invalid integrity segment");
-            }
-        }
+        // every segment has been checked as it was read into the SegmentList
         for (Manifest.KeyAccess keyAccess : result.encryptionInformation.keyAccessObj) {
             if (keyAccess == null) {
                 throw new IllegalArgumentException("Invalid null KeyAccess in manifest");
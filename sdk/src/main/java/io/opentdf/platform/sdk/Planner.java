@@ -21,6 +21,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
@@ -45,6 +48,28 @@ public class Planner {
     }
 
     Map<String, List<Config.KASInfo>> getSplits() {
+        return resolveKeys(getSplitPlan());
+    }
+
+    /**
+     * Like {@link #getSplits()}, but fetches the KAS public keys without blocking. Building an
+     * autoconfigure plan looks up the attributes with blocking calls, so that runs on {@code executor}.
+     */
+    CompletableFuture<Map<String, List<Config.KASInfo>>> getSplitsAsync(Executor executor) {
+        CompletableFuture<List<Autoconfigure.KeySplitTemplate>> splitPlan;
+        if (tdfConfig.autoconfigure) {
+            splitPlan = CompletableFuture.supplyAsync(this::getSplitPlan, executor);
+        } else {
+            try {
+                splitPlan = CompletableFuture.completedFuture(getSplitPlan());
+            } catch (RuntimeException e) {
+                splitPlan = CompletableFuture.failedFuture(e);
+            }
+        }
+        return splitPlan.thenCompose(this::resolveKeysAsync);
+    }
+
+    private List<Autoconfigure.KeySplitTemplate> getSplitPlan() {
         List<Autoconfigure.KeySplitTemplate> splitPlan;
         if (tdfConfig.autoconfigure) {
             if (tdfConfig.splitPlan != null && !tdfConfig.splitPlan.isEmpty()) {
@@ -62,12 +87,12 @@ public class Planner {
         if (splitPlan.isEmpty()) {
             throw new SDK.KasInfoMissing("no plan was constructed via autoconfigure, explicit split plan or provided kases");
         }
-        return resolveKeys(splitPlan);
+        return splitPlan;
     }
 
     private List<Autoconfigure.KeySplitTemplate> getAutoconfigurePlan(SDK.Services services, Config.TDFConfig tdfConfig) {
         Autoconfigure.Granter granter = granterFactory.apply(services, tdfConfig);
-        return granter.getSplits(defaultKases(tdfConfig), Planner::getUUID, () -> Planner.fetchBaseKey(services.wellknown()));
+        return granter.getSplits(defaultKases(tdfConfig), Planner::getUUID, () -> getBaseKey(services));
     }
 
 
@@ -84,6 +109,15 @@ public class Planner {
         return splitPlan;
     }
 
+    // uses the base key from the platform cache when it has been warmed up
+    static Optional<SimpleKasKey> getBaseKey(SDK.Services services) {
+        var platformCache = services.platformCache();
+        if (platformCache.isPresent()) {
+            return platformCache.get().getBaseKey(() -> fetchBaseKey(services.wellknown()));
+        }
+        return fetchBaseKey(services.wellknown());
+    }
+
     static Optional<SimpleKasKey> fetchBaseKey(WellKnownServiceClientInterface wellknown) {
         var responseMessage = wellknown
                 .getWellKnownConfigurationBlocking(GetWellKnownConfigurationRequest.getDefaultInstance(), Collections.emptyMap())
@@ -145,34 +179,76 @@ public class Planner {
         }
     }
 
+    /**
+     * Fills in the public key for every split in the plan. Keys that were not passed in with the
+     * {@link Config.TDFConfig} are fetched once for each distinct KAS, key ID and algorithm with
+     * {@link SDK.KAS#getPublicKeyAsync}, so when more than one key is needed they are fetched at the
+     * same time without holding a thread for each.
+     */
     Map<String, List<Config.KASInfo>> resolveKeys(List<Autoconfigure.KeySplitTemplate> splitPlan) {
-        Map<String, List<Config.KASInfo>> conjunction = new HashMap<>();
-        var latestKASInfo = new HashMap<String, Config.KASInfo>();
+        try {
+            return resolveKeysAsync(splitPlan).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Like {@link #resolveKeys}, but returns without waiting for the public keys to be fetched.
+     */
+    CompletableFuture<Map<String, List<Config.KASInfo>>> resolveKeysAsync(List<Autoconfigure.KeySplitTemplate> splitPlan) {
+        var providedKASInfo = new HashMap<String, Config.KASInfo>();
         // Seed anything passed in manually
         for (Config.KASInfo kasInfo : tdfConfig.kasInfoList) {
             if (kasInfo.PublicKey != null && !kasInfo.PublicKey.isEmpty()) {
-                latestKASInfo.put(kasInfo.URL, kasInfo);
+                providedKASInfo.put(kasInfo.URL, kasInfo);
             }
         }
 
-        for (var splitInfo: splitPlan) {
+        var fetches = new HashMap<KASKeyRequest, CompletableFuture<Config.KASInfo>>();
+        List<CompletableFuture<Config.KASInfo>> keys = new ArrayList<>(splitPlan.size());
+        for (var splitInfo : splitPlan) {
             // Public key was passed in with kasInfoList
             // TODO First look up in attribute information / add to split plan?
-            Config.KASInfo ki = latestKASInfo.get(splitInfo.kas);
-            if (ki == null || ki.PublicKey == null || ki.PublicKey.isBlank() || (splitInfo.kid != null && !splitInfo.kid.equals(ki.KID))) {
-                logger.info("no public key provided for KAS at {}, retrieving", splitInfo.kas);
-                var getKI = new Config.KASInfo();
-                getKI.URL = splitInfo.kas;
-                getKI.KID = splitInfo.kid;
-                getKI.Algorithm = splitInfo.keyType == null
-                        ? (tdfConfig.wrappingKeyType == null ? null : tdfConfig.wrappingKeyType.toString())
-                        : splitInfo.keyType.toString();
-                ki = services.kas().getPublicKey(getKI);
-                latestKASInfo.put(splitInfo.kas, ki);
+            Config.KASInfo ki = providedKASInfo.get(splitInfo.kas);
+            if (!needsPublicKey(ki, splitInfo)) {
+                keys.add(CompletableFuture.completedFuture(ki));
+                continue;
             }
-            conjunction.computeIfAbsent(splitInfo.splitID, s -> new ArrayList<>()).add(ki);
+            var request = publicKeyRequest(splitInfo);
+            keys.add(fetches.computeIfAbsent(new KASKeyRequest(request.URL, request.Algorithm, request.KID), k -> {
+                logger.info("no public key provided for KAS at {}, retrieving", splitInfo.kas);
+                return services.kas().getPublicKeyAsync(request);
+            }));
         }
-        return conjunction;
+
+        return CompletableFuture.allOf(keys.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<String, List<Config.KASInfo>> conjunction = new HashMap<>();
+            for (int i = 0; i < splitPlan.size(); i++) {
+                conjunction.computeIfAbsent(splitPlan.get(i).splitID, s -> new ArrayList<>()).add(keys.get(i).join());
+            }
+            return conjunction;
+        });
+    }
+
+    private static boolean needsPublicKey(Config.KASInfo ki, Autoconfigure.KeySplitTemplate splitInfo) {
+        return ki == null || ki.PublicKey == null || ki.PublicKey.isBlank() || (splitInfo.kid != null && !splitInfo.kid.equals(ki.KID));
+    }
+
+    private Config.KASInfo publicKeyRequest(Autoconfigure.KeySplitTemplate splitInfo) {
+        var getKI = new Config.KASInfo();
+        getKI.URL = splitInfo.kas;
+        getKI.KID = splitInfo.kid;
+        getKI.Algorithm = splitInfo.keyType == null
+                ? (tdfConfig.wrappingKeyType == null ? null : tdfConfig.wrappingKeyType.toString())
+                : splitInfo.keyType.toString();
+        return getKI;
     }
 
     static List<String> defaultKases(Config.TDFConfig config) {
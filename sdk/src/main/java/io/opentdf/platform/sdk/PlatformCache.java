@@ -0,0 +1,226 @@
+package io.opentdf.platform.sdk;
+
+import io.opentdf.platform.policy.SimpleKasKey;
+import io.opentdf.platform.policy.attributes.GetAttributeValuesByFqnsResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A cache of the values the SDK looks up from the platform when it creates a TDF: the base key from
+ * the well-known configuration, the attribute values, along with their grants, for attribute FQNs
+ * and the granter built from each set of attribute FQNs, which holds the split plan for that set.
+ * <p>
+ * Attribute values and granters are cached whenever they are looked up. The base key is only
+ * cached by {@link SDK#warmUp(Config.WarmUpSpec)}. Every value is used for the configured TTL
+ * after it is fetched, so changes to attributes, grants and key mappings on the platform are
+ * picked up within one TTL, and the least recently used entries are evicted once the cache holds
+ * more than the configured maximum number of attribute values or granters.
+ * <p>
+ * The cache is safe to share between threads.
+ */
+public class PlatformCache {
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private final Duration ttl;
+    private final int maxSize;
+    Clock clock = Clock.systemUTC();
+
+    private volatile Cached<Optional<SimpleKasKey>> baseKey;
+    // access-ordered so that the eldest entry is the least recently used one. all access
+    // is guarded by the map's monitor
+    private final Map<String, Cached<GetAttributeValuesByFqnsResponse.AttributeAndValue>> attributeValues;
+    private final Map<String, Cached<Autoconfigure.Granter>> granters;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PlatformCache() {
+        this(DEFAULT_TTL, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param ttl how long a value is used after it is fetched
+     * @param maxSize the maximum number of attribute values, and of granters, to keep
+     */
+    public PlatformCache(Duration ttl, int maxSize) {
+        checkLimits(ttl, maxSize);
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.attributeValues = lruMap(maxSize);
+        this.granters = lruMap(maxSize);
+    }
+
+    static void checkLimits(Duration ttl, int maxSize) {
+        Objects.requireNonNull(ttl, "ttl");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("platform cache TTL must be positive: " + ttl);
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("platform cache max size must be at least 1: " + maxSize);
+        }
+    }
+
+    private static <V> Map<String, V> lruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the key that a set of attribute FQNs is cached under. The FQNs are compared without
+     * regard to case or order, the same way the platform matches them
+     */
+    static String granterKey(Collection<Autoconfigure.AttributeValueFQN> fqns) {
+        var keys = new TreeSet<String>();
+        for (var fqn : fqns) {
+            keys.add(fqn.getKey());
+        }
+        // FQNs can't contain whitespace, so a newline can't be confused with part of one
+        return String.join("\n", keys);
+    }
+
+    /**
+     * @return the cached base key if there is one, otherwise the base key from {@code fetch}
+     */
+    Optional<SimpleKasKey> getBaseKey(Supplier<Optional<SimpleKasKey>> fetch) {
+        var cached = baseKey;
+        if (cached != null && cached.isValid(clock.instant())) {
+            return cached.value;
+        }
+        return fetch.get();
+    }
+
+    void putBaseKey(Optional<SimpleKasKey> value) {
+        baseKey = new Cached<>(Objects.requireNonNull(value), clock.instant().plus(ttl));
+    }
+
+    /**
+     * @return the cached attribute value, or {@code null} if there is no valid entry
+     */
+    GetAttributeValuesByFqnsResponse.AttributeAndValue getAttributeValue(Autoconfigure.AttributeValueFQN fqn) {
+        return get(attributeValues, fqn.getKey());
+    }
+
+    void putAttributeValue(Autoconfigure.AttributeValueFQN fqn, GetAttributeValuesByFqnsResponse.AttributeAndValue value) {
+        put(attributeValues, fqn.getKey(), value);
+    }
+
+    /**
+     * @return the granter built for the set of attribute FQNs with the given {@link #granterKey},
+     * or {@code null} if there is no valid entry
+     */
+    Autoconfigure.Granter getGranter(String key) {
+        return get(granters, key);
+    }
+
+    void putGranter(String key, Autoconfigure.Granter granter) {
+        put(granters, key, granter);
+    }
+
+    private <V> V get(Map<String, Cached<V>> map, String key) {
+        Instant now = clock.instant();
+        synchronized (map) {
+            var cached = map.get(key);
+            if (cached != null && !cached.isValid(now)) {
+                map.remove(key);
+                cached = null;
+            }
+            if (cached == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return cached.value;
+        }
+    }
+
+    private <V> void put(Map<String, Cached<V>> map, String key, V value) {
+        var cached = new Cached<>(Objects.requireNonNull(value), clock.instant().plus(ttl));
+        synchronized (map) {
+            map.put(key, cached);
+        }
+    }
+
+    /**
+     * Removes every cached value, so that the next lookups go to the platform.
+     */
+    public void invalidateAll() {
+        baseKey = null;
+        synchronized (attributeValues) {
+            attributeValues.clear();
+        }
+        synchronized (granters) {
+            granters.clear();
+        }
+    }
+
+    /**
+     * @return the number of attribute values held, including ones that have expired but have not
+     * been looked up since
+     */
+    public int attributeValueCount() {
+        synchronized (attributeValues) {
+            return attributeValues.size();
+        }
+    }
+
+    /**
+     * @return the number of granters held, including ones that have expired but have not been
+     * looked up since
+     */
+    public int granterCount() {
+        synchronized (granters) {
+            return granters.size();
+        }
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of attribute value and granter lookups that found a valid entry
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of attribute value and granter lookups that found no valid entry
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private static final class Cached<T> {
+        final T value;
+        final Instant expiresAt;
+
+        Cached(T value, Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isValid(Instant now) {
+            return now.isBefore(expiresAt);
+        }
+    }
+}
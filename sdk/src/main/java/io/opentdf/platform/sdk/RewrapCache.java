@@ -0,0 +1,254 @@
+package io.opentdf.platform.sdk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of keys that have already been unwrapped by a KAS, so that reading the same TDF again
+ * does not need another rewrap request.
+ * <p>
+ * Entries are looked up by a SHA-256 digest of the KAS URL, the wrapped key, the policy binding,
+ * the policy and the identity of the caller, so a key is only ever returned to the same caller
+ * for the same key access object. Entries expire once they are older than the configured TTL and
+ * the least recently used entry is evicted once the cache is full. Cached keys are zeroed when
+ * they are evicted, expire or are invalidated, and callers always get a copy of the key.
+ * <p>
+ * The cache is safe to share between threads and between {@link SDK} instances.
+ */
+public class RewrapCache {
+    private static final Logger log = LoggerFactory.getLogger(RewrapCache.class);
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    // access-ordered so that the eldest entry is the least recently used one. all access
+    // is guarded by the map's monitor
+    final Map<Key, CachedKey> cache;
+    private final Duration ttl;
+    private final int maxSize;
+    Clock clock = Clock.systemUTC();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    public RewrapCache() {
+        this(DEFAULT_TTL, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache with the given limits.
+     *
+     * @param ttl how long an unwrapped key is kept after it is stored
+     * @param maxSize the maximum number of keys to keep
+     */
+    public RewrapCache(Duration ttl, int maxSize) {
+        checkLimits(ttl, maxSize);
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedKey> eldest) {
+                if (size() > RewrapCache.this.maxSize) {
+                    log.debug("evicting least recently used unwrapped key for kas = [{}]", eldest.getValue().kasUrl);
+                    eldest.getValue().destroy();
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    static void checkLimits(Duration ttl, int maxSize) {
+        Objects.requireNonNull(ttl, "ttl");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("rewrap cache TTL must be positive: " + ttl);
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("rewrap cache max size must be at least 1: " + maxSize);
+        }
+    }
+
+    /**
+     * Computes the cache key for a key access object.
+     *
+     * @param identity identifies the caller that the key was unwrapped for
+     */
+    static Key key(Manifest.KeyAccess keyAccess, String policy, String identity) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new SDKException("error creating SHA-256 digest", e);
+        }
+        update(digest, keyAccess.url);
+        update(digest, keyAccess.wrappedKey);
+        Object binding = keyAccess.policyBinding;
+        if (binding instanceof Manifest.PolicyBinding) {
+            var policyBinding = (Manifest.PolicyBinding) binding;
+            update(digest, policyBinding.alg);
+            update(digest, policyBinding.hash);
+        } else {
+            update(digest, null);
+            update(digest, binding == null ? null : binding.toString());
+        }
+        update(digest, policy);
+        update(digest, identity);
+        return new Key(digest.digest());
+    }
+
+    // each field is length prefixed so that different splits of the same bytes can't collide
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(-1).array());
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    /**
+     * @return a copy of the cached key, or {@code null} if there is no valid entry
+     */
+    byte[] get(Key key) {
+        Instant now = clock.instant();
+        synchronized (cache) {
+            CachedKey entry = cache.get(key);
+            if (entry != null && !now.isBefore(entry.expiresAt)) {
+                cache.remove(key);
+                entry.destroy();
+                expirations.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.unwrappedKey.clone();
+        }
+    }
+
+    void put(Key key, String kasUrl, byte[] unwrappedKey) {
+        var entry = new CachedKey(kasUrl, unwrappedKey.clone(), clock.instant().plus(ttl));
+        synchronized (cache) {
+            CachedKey previous = cache.put(key, entry);
+            if (previous != null) {
+                previous.destroy();
+            }
+        }
+    }
+
+    /**
+     * Removes and zeroes every cached key.
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.values().forEach(CachedKey::destroy);
+            cache.clear();
+        }
+    }
+
+    /**
+     * Removes and zeroes every key that was unwrapped by the given KAS, for instance after the
+     * KAS has rotated its keys or changed its policy decisions.
+     *
+     * @param kasUrl the URL of the KAS, as it appears in the key access objects
+     */
+    public void invalidate(String kasUrl) {
+        synchronized (cache) {
+            for (Iterator<CachedKey> it = cache.values().iterator(); it.hasNext(); ) {
+                CachedKey entry = it.next();
+                if (Objects.equals(entry.kasUrl, kasUrl)) {
+                    entry.destroy();
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getExpirationCount() {
+        return expirations.get();
+    }
+
+    static final class Key {
+        private final byte[] digest;
+        private final int hashCode;
+
+        private Key(byte[] digest) {
+            this.digest = digest;
+            this.hashCode = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            return Arrays.equals(digest, ((Key) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    static final class CachedKey {
+        final String kasUrl;
+        final byte[] unwrappedKey;
+        final Instant expiresAt;
+
+        CachedKey(String kasUrl, byte[] unwrappedKey, Instant expiresAt) {
+            this.kasUrl = kasUrl;
+            this.unwrappedKey = unwrappedKey;
+            this.expiresAt = expiresAt;
+        }
+
+        void destroy() {
+            Arrays.fill(unwrappedKey, (byte) 0);
+        }
+    }
+}
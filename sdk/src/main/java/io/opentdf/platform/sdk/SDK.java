@@ -32,7 +32,15 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -51,12 +59,20 @@ public class SDK implements AutoCloseable {
     // clear local error instead of a cryptic server rejection.
     private static final int MAX_VALIDATE_FQNS = 250;
 
+    // the threads in the pool that createTDFAsync falls back to
+    static final int ASYNC_POOL_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
     private final Services services;
     private final TrustManager trustManager;
     private final Interceptor authInterceptor;
     private final String platformUrl;
     private final ProtocolClient platformServicesClient;
     private final SrtSigner srtSigner;
+    // the warm-ups that are still refreshing, they remove themselves when they are closed
+    private final Set<WarmUp> warmUps = ConcurrentHashMap.newKeySet();
+    // runs createTDFAsync when the services don't have an executor. the work blocks on I/O, so it is
+    // kept off the common pool
+    private ThreadPoolExecutor asyncPool;
 
     /**
      * Closes the SDK, including its associated services.
@@ -65,6 +81,12 @@ public class SDK implements AutoCloseable {
      */
     @Override
     public void close() throws Exception {
+        warmUps.forEach(WarmUp::close);
+        synchronized (this) {
+            if (asyncPool != null) {
+                asyncPool.shutdown();
+            }
+        }
         services.close();
     }
 
@@ -78,7 +100,128 @@ public class SDK implements AutoCloseable {
         byte[] unwrap(Manifest.KeyAccess keyAccess, String policy,
                       KeyType sessionKeyType);
 
+        /**
+         * Looks up the public key of a KAS without blocking the calling thread. By default the key
+         * is looked up with {@link #getPublicKey} on the calling thread.
+         *
+         * @return a future that completes with the public key, or fails with the reason the key
+         * couldn't be looked up
+         */
+        default CompletableFuture<Config.KASInfo> getPublicKeyAsync(Config.KASInfo kasInfo) {
+            try {
+                return CompletableFuture.completedFuture(getPublicKey(kasInfo));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        /**
+         * Unwraps a key without blocking the calling thread. By default the key is unwrapped with
+         * {@link #unwrap} on the calling thread.
+         *
+         * @return a future that completes with the unwrapped key, or fails with the reason the key
+         * couldn't be unwrapped
+         */
+        default CompletableFuture<byte[]> unwrapAsync(Manifest.KeyAccess keyAccess, String policy,
+                                                      KeyType sessionKeyType) {
+            try {
+                return CompletableFuture.completedFuture(unwrap(keyAccess, policy, sessionKeyType));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        /**
+         * Unwraps several keys at once. Implementations can combine the requests that go to the
+         * same KAS; by default each key is unwrapped on its own with {@link #unwrap}.
+         *
+         * @param requests the key access objects to unwrap, along with their policies
+         * @param sessionKeyType the type of key to use for the rewrap session
+         * @return one result per request, in the same order as the requests. A key that can't be
+         * unwrapped gets a failed result rather than failing the whole batch
+         */
+        default List<UnwrapResult> unwrapBatch(List<UnwrapRequest> requests, KeyType sessionKeyType) {
+            List<UnwrapResult> results = new ArrayList<>(requests.size());
+            for (UnwrapRequest request : requests) {
+                try {
+                    results.add(UnwrapResult.success(unwrap(request.getKeyAccess(), request.getPolicy(), sessionKeyType)));
+                } catch (Exception e) {
+                    results.add(UnwrapResult.failure(e));
+                }
+            }
+            return results;
+        }
+
         KASKeyCache getKeyCache();
+
+        /**
+         * @return the cache of keys that have already been unwrapped, which can be used to
+         * invalidate cached keys, or {@code null} if unwrapped keys are not cached
+         */
+        default RewrapCache getRewrapCache() {
+            return null;
+        }
+
+        /**
+         * A key access object to unwrap, along with the policy it is bound to.
+         */
+        final class UnwrapRequest {
+            private final Manifest.KeyAccess keyAccess;
+            private final String policy;
+
+            public UnwrapRequest(Manifest.KeyAccess keyAccess, String policy) {
+                this.keyAccess = Objects.requireNonNull(keyAccess, "keyAccess");
+                this.policy = policy;
+            }
+
+            public Manifest.KeyAccess getKeyAccess() {
+                return keyAccess;
+            }
+
+            public String getPolicy() {
+                return policy;
+            }
+        }
+
+        /**
+         * The outcome of unwrapping a single key in a batch: either the unwrapped key or the
+         * reason it could not be unwrapped.
+         */
+        final class UnwrapResult {
+            private final byte[] key;
+            private final Exception error;
+
+            private UnwrapResult(byte[] key, Exception error) {
+                this.key = key;
+                this.error = error;
+            }
+
+            public static UnwrapResult success(byte[] key) {
+                return new UnwrapResult(Objects.requireNonNull(key, "key"), null);
+            }
+
+            public static UnwrapResult failure(Exception error) {
+                return new UnwrapResult(null, Objects.requireNonNull(error, "error"));
+            }
+
+            public boolean isSuccess() {
+                return key != null;
+            }
+
+            /**
+             * @return the unwrapped key, or {@code null} if the key could not be unwrapped
+             */
+            public byte[] getKey() {
+                return key;
+            }
+
+            /**
+             * @return the reason the key could not be unwrapped, or {@code null} on success
+             */
+            public Exception getError() {
+                return error;
+            }
+        }
     }
 
     /**
@@ -103,6 +246,23 @@ public class SDK implements AutoCloseable {
         WellKnownServiceClientInterface wellknown();
 
         KAS kas();
+
+        /**
+         * @return the executor that {@link SDK#createTDFAsync(InputStream, OutputStream, Config.TDFConfig)}
+         * runs its blocking work on, or empty if the SDK creates its own threads for it. Calls to a KAS
+         * don't need it, since they are made without holding a thread
+         */
+        default Optional<Executor> executor() {
+            return Optional.empty();
+        }
+
+        /**
+         * @return the cache of the base key and attribute values that {@link SDK#warmUp} fills in,
+         * or empty if they are always looked up from the platform
+         */
+        default Optional<PlatformCache> platformCache() {
+            return Optional.empty();
+        }
     }
 
     public Optional<TrustManager> getTrustManager() {
@@ -135,16 +295,132 @@ public class SDK implements AutoCloseable {
         return Planner.fetchBaseKey(services.wellknown());
     }
 
+    /**
+     * Fetch what creating a TDF looks up from the platform ahead of time, so that the first TDFs
+     * created don't have to wait for it: the base key, the public keys of KASes and the attribute
+     * values and grants for attribute FQNs. The values are kept in the SDK's caches and, when the
+     * spec has a refresh interval, fetched again in the background until the returned warm-up or
+     * the SDK is closed.
+     *
+     * @param spec what to fetch, see {@link Config#newWarmUpSpec}
+     * @return the warm-up, which stops refreshing when it is closed
+     * @throws SDKException if any of the values can't be fetched
+     */
+    public WarmUp warmUp(Config.WarmUpSpec spec) {
+        var warmUp = WarmUp.start(services, services.platformCache().orElse(null), spec);
+        if (warmUp.isRefreshing()) {
+            warmUps.add(warmUp);
+            warmUp.onClose(() -> warmUps.remove(warmUp));
+            // it may have been closed before the callback was set
+            if (!warmUp.isRefreshing()) {
+                warmUps.remove(warmUp);
+            }
+        }
+        return warmUp;
+    }
+
+    /**
+     * @return the number of warm-ups that the SDK stops when it is closed
+     */
+    int refreshingWarmUps() {
+        return warmUps.size();
+    }
+
     public TDF.Reader loadTDF(SeekableByteChannel channel, Config.TDFReaderConfig config) throws SDKException, IOException {
         var tdf = new TDF(services);
         return tdf.loadTDF(channel, config, platformUrl);
     }
 
+    /**
+     * Load a TDF that has been opened with {@link TDFHandle#open}. The zip is not read again, and
+     * neither is the manifest if it has already been read from the handle.
+     *
+     * @param handle the TDF to load
+     * @param config the configuration used to load the TDF
+     * @return a reader for the TDF
+     * @throws SDKException if the TDF can't be loaded
+     */
+    public TDF.Reader loadTDF(TDFHandle handle, Config.TDFReaderConfig config) throws SDKException, IOException {
+        var tdf = new TDF(services);
+        return tdf.loadTDF(handle, config, platformUrl);
+    }
+
+    /**
+     * Load several TDFs at once. The keys of all the TDFs are unwrapped together, with the key access
+     * objects held by the same KAS sent in batched rewrap requests rather than one request per TDF.
+     *
+     * @param channels the TDFs to load
+     * @param config the configuration used for all the TDFs
+     * @return a reader for each TDF, in the same order as the channels
+     * @throws SDKException if any of the TDFs can't be loaded
+     */
+    public List<TDF.Reader> loadTDFs(List<? extends SeekableByteChannel> channels, Config.TDFReaderConfig config) throws SDKException, IOException {
+        var tdf = new TDF(services);
+        return tdf.loadTDFs(channels, config, platformUrl);
+    }
+
     public Manifest createTDF(InputStream payload, OutputStream outputStream, Config.TDFConfig config) throws SDKException, IOException {
         var tdf = new TDF(services);
         return tdf.createTDF(payload, outputStream, config).getManifest();
     }
 
+    /**
+     * Load a TDF without blocking the calling thread while the KAS allowlist is fetched and the
+     * payload key is unwrapped. Reading the manifest from the channel happens on the calling
+     * thread, and the reader is created on the thread that completes the last unwrap.
+     *
+     * @param channel the TDF to load
+     * @param config the configuration used to load the TDF
+     * @return a future that completes with a reader for the TDF, or fails with the same exception
+     * that {@link #loadTDF} would throw
+     */
+    public CompletableFuture<TDF.Reader> loadTDFAsync(SeekableByteChannel channel, Config.TDFReaderConfig config) {
+        var tdf = new TDF(services);
+        return tdf.loadTDFAsync(channel, config, platformUrl);
+    }
+
+    /**
+     * Create a TDF without blocking the calling thread while the KAS public keys are fetched.
+     * The blocking parts run on the SDK's {@link Services#executor() executor} if it has one, and
+     * otherwise on a pool with a thread for each processor, and at least four, that the SDK creates the
+     * first time it is needed and shuts down when it is closed. The work blocks, so it never runs on the
+     * {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}.
+     *
+     * @see #createTDFAsync(InputStream, OutputStream, Config.TDFConfig, Executor)
+     */
+    public CompletableFuture<Manifest> createTDFAsync(InputStream payload, OutputStream outputStream, Config.TDFConfig config) {
+        return createTDFAsync(payload, outputStream, config, services.executor().orElseGet(this::asyncPool));
+    }
+
+    private synchronized Executor asyncPool() {
+        if (asyncPool == null) {
+            asyncPool = new ThreadPoolExecutor(ASYNC_POOL_THREADS, ASYNC_POOL_THREADS, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), TDF.daemonThreadFactory("opentdf-async"));
+            asyncPool.allowCoreThreadTimeOut(true);
+        }
+        return asyncPool;
+    }
+
+    /**
+     * Create a TDF without blocking the calling thread while the KAS public keys are fetched.
+     * Fetching the keys doesn't hold a thread. Everything else blocks and runs on {@code executor}:
+     * reading {@code payload}, encrypting it, writing to {@code outputStream} and, when the config uses
+     * autoconfigure, looking up the attribute values from the platform. The executor should be sized
+     * for blocking work rather than be the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool}.
+     *
+     * @param payload the plaintext to encrypt
+     * @param outputStream where the TDF is written
+     * @param config the configuration used to create the TDF
+     * @param executor runs the blocking parts of creating the TDF
+     * @return a future that completes with the manifest of the TDF, or fails with the same exception
+     * that {@link #createTDF} would throw
+     */
+    public CompletableFuture<Manifest> createTDFAsync(InputStream payload, OutputStream outputStream, Config.TDFConfig config,
+                                                      Executor executor) {
+        var tdf = new TDF(services);
+        return tdf.createTDFAsync(payload, outputStream, config, executor).thenApply(TDF.TDFObject::getManifest);
+    }
+
     public ProtocolClient getPlatformServicesClient() {
         return this.platformServicesClient;
     }
@@ -162,22 +438,16 @@ public class SDK implements AutoCloseable {
      * @return `true` if
      */
     public static boolean isTDF(SeekableByteChannel channel) {
-        ZipReader zipReader;
         try {
-            zipReader = new ZipReader(channel);
+            return TDFHandle.open(channel).isTDF();
         } catch (IOException | InvalidZipException e) {
             return false;
         }
-        var entries = zipReader.getEntries();
-        if (entries.size() != 2) {
-            return false;
-        }
-        return entries.stream().anyMatch(e -> "0.manifest.json".equals(e.getName()))
-                && entries.stream().anyMatch(e -> "0.payload".equals(e.getName()));
     }
 
     /**
-     * Reads the {@link Manifest} without decrypting the TDF
+     * Reads the {@link Manifest} without decrypting the TDF. To also check the structure of the TDF,
+     * decode its policy or load it without reading the zip again, use a {@link TDFHandle}
      * @param tdfBytes A SeekableByteChannel containing the TDF data
      * @return The parsed {@link Manifest} object
      * @throws SDKException if an SDK-specific error occurs
@@ -185,8 +455,7 @@ public class SDK implements AutoCloseable {
      */
     public static Manifest readManifest(SeekableByteChannel tdfBytes) throws SDKException, IOException {
         TDFReader reader = new TDFReader(tdfBytes);
-        String manifestJson = reader.manifest();
-        return Manifest.readManifest(manifestJson);
+        return reader.readManifest();
     }
 
     /**
@@ -442,8 +711,22 @@ public class SDK implements AutoCloseable {
      * match the expected signature.
      */
     public static class SegmentSignatureMismatch extends TamperException {
+        private final int segment;
+
         public SegmentSignatureMismatch(String errorMessage) {
+            this(errorMessage, -1);
+        }
+
+        public SegmentSignatureMismatch(String errorMessage, int segment) {
             super(errorMessage);
+            this.segment = segment;
+        }
+
+        /**
+         * @return the index of the segment whose signature didn't match, or -1 if it isn't known
+         */
+        public int getSegment() {
+            return segment;
         }
     }
 
@@ -45,12 +45,21 @@ import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.nio.file.Path;
 import java.security.GeneralSecurityException;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiFunction;
 
 /**
@@ -68,6 +77,17 @@ public class SDKBuilder {
     private SrtSigner srtSigner;
     private JWK dpopKey;
     private JWSAlgorithm dpopAlg;
+    private Duration kasKeyCacheTTL = KASKeyCache.DEFAULT_TTL;
+    private int kasKeyCacheMaxSize = KASKeyCache.DEFAULT_MAX_SIZE;
+    private Duration kasKeyCacheRefreshAhead = KASKeyCache.DEFAULT_REFRESH_AHEAD;
+    private Duration platformCacheTTL = PlatformCache.DEFAULT_TTL;
+    private int platformCacheMaxSize = PlatformCache.DEFAULT_MAX_SIZE;
+    private double tokenRefreshAheadFraction = 0;
+    private Duration dpopProofCacheMaxAge;
+    private Duration ecSessionKeyLifetime = Duration.ZERO;
+    private int ecSessionKeyMaxUses = 0;
+    private RewrapCache rewrapCache;
+    private boolean useVirtualThreads = false;
 
     private static final Logger logger = LoggerFactory.getLogger(SDKBuilder.class);
 
@@ -247,6 +267,143 @@ public class SDKBuilder {
         return this;
     }
 
+    /**
+     * Configure the cache of KAS public keys shared by every TDF created with the SDK.
+     *
+     * @param ttl how long a public key is used after it has been fetched
+     * @param maxSize the maximum number of public keys to keep, the least recently used key is
+     *                evicted when the cache is full
+     * @param refreshAhead how long before a key expires a lookup refreshes it in the background, or
+     *                     {@link Duration#ZERO} to only fetch keys once they have expired
+     * @return this builder instance for method chaining
+     */
+    public SDKBuilder kasKeyCache(Duration ttl, int maxSize, Duration refreshAhead) {
+        KASKeyCache.checkLimits(ttl, maxSize, refreshAhead);
+        this.kasKeyCacheTTL = ttl;
+        this.kasKeyCacheMaxSize = maxSize;
+        this.kasKeyCacheRefreshAhead = refreshAhead;
+        return this;
+    }
+
+    /**
+     * Configure the cache of attribute values and of the split plans built from them, shared by
+     * every TDF created with the SDK. Changes to attributes, grants and key mappings on the
+     * platform are picked up once the cached values expire.
+     *
+     * @param ttl how long an attribute value or split plan is used after it has been fetched
+     * @param maxSize the maximum number of attribute values, and of sets of attribute values, to
+     *                keep, the least recently used entry is evicted when the cache is full
+     * @return this builder instance for method chaining
+     */
+    public SDKBuilder platformCache(Duration ttl, int maxSize) {
+        PlatformCache.checkLimits(ttl, maxSize);
+        this.platformCacheTTL = ttl;
+        this.platformCacheMaxSize = maxSize;
+        return this;
+    }
+
+    /**
+     * Refresh the access token in the background once the given fraction of its lifetime has
+     * passed, instead of fetching a new token when the current one expires. Requests keep using
+     * the current token while it is refreshed and only wait for the token endpoint when the token
+     * has actually expired.
+     *
+     * @param fraction the fraction of the token's {@code expires_in} after which it is refreshed,
+     *                 greater than 0 and less than 1
+     * @return this builder instance for method chaining
+     */
+    public SDKBuilder tokenRefreshAhead(double fraction) {
+        if (!(fraction > 0 && fraction < 1)) {
+            throw new IllegalArgumentException("token refresh fraction must be greater than 0 and less than 1: " + fraction);
+        }
+        this.tokenRefreshAheadFraction = fraction;
+        return this;
+    }
+
+    /**
+     * Reuse DPoP proofs for identical requests (same method, URL, nonce and access token) for up
+     * to {@code maxAge}, instead of signing a new proof for every request. Only enable this when
+     * the platform accepts proofs within an {@code iat} window and does not reject a repeated
+     * {@code jti}; {@code maxAge} should be well inside that window.
+     *
+     * @param maxAge how long a proof is reused
+     * @return this builder instance for method chaining
+     */
+    public SDKBuilder dpopProofCache(Duration maxAge) {
+        if (maxAge == null || maxAge.isNegative() || maxAge.isZero()) {
+            throw new IllegalArgumentException("DPoP proof cache max age must be positive: " + maxAge);
+        }
+        this.dpopProofCacheMaxAge = maxAge;
+        return this;
+    }
+
+    /**
+     * Reuse the ephemeral EC key pair sent to the KAS when rewrapping with an EC session key,
+     * rather than generating a new key pair for every rewrap request. A key pair is replaced once
+     * it is older than {@code lifetime} or has been used for {@code maxUses} requests. By default
+     * a new key pair is generated for each request.
+     *
+     * @param lifetime how long a key pair is used
+     * @param maxUses how many rewrap requests a key pair is used for, or 0 for no limit
+     * @return this builder instance for method chaining
+     */
+    public SDKBuilder ecSessionKeyReuse(Duration lifetime, int maxUses) {
+        KASClient.checkEcSessionKeyReuse(lifetime, maxUses);
+        this.ecSessionKeyLifetime = lifetime;
+        this.ecSessionKeyMaxUses = maxUses;
+        return this;
+    }
+
+    /**
+     * Keep keys that have been unwrapped by a KAS in the given cache, so that reading the same
+     * TDF again within the cache's TTL does not need another rewrap request. Keys are cached per
+     * platform endpoint, client and authorization grant, so one cache can be shared by several
+     * SDK instances. By default unwrapped keys are not cached.
+     *
+     * @param cache the cache to keep unwrapped keys in
+     * @return this builder instance for method chaining
+     */
+    public SDKBuilder rewrapCache(RewrapCache cache) {
+        this.rewrapCache = Objects.requireNonNull(cache, "cache");
+        return this;
+    }
+
+    /**
+     * Run the blocking work of {@link SDK#createTDFAsync(java.io.InputStream, java.io.OutputStream, Config.TDFConfig)}
+     * on a new virtual thread per task instead of on a pool of platform threads owned by the SDK.
+     * Requires Java 21 or later at runtime.
+     *
+     * @param useVirtualThreads whether to use virtual threads
+     * @return this builder instance for method chaining
+     */
+    public SDKBuilder useVirtualThreads(boolean useVirtualThreads) {
+        if (useVirtualThreads && VIRTUAL_THREAD_EXECUTOR_FACTORY == null) {
+            throw new SDKException("virtual threads require Java 21 or later, the current runtime is Java "
+                    + Runtime.version().feature());
+        }
+        this.useVirtualThreads = useVirtualThreads;
+        return this;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor, looked up reflectively since the SDK is built for Java 11
+    private static final Method VIRTUAL_THREAD_EXECUTOR_FACTORY = findVirtualThreadExecutorFactory();
+
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) VIRTUAL_THREAD_EXECUTOR_FACTORY.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new SDKException("error creating a virtual thread executor", e);
+        }
+    }
+
     private AuthInterceptor getAuthInterceptor(JWK dpopJwk, JWSAlgorithm dpopAlgorithm) {
         if (platformEndpoint == null) {
             throw new SDKException("cannot build an SDK without specifying the platform endpoint");
@@ -304,7 +461,9 @@ public class SDKBuilder {
         if (this.authzGrant == null) {
             this.authzGrant = new ClientCredentialsGrant();
         }
-        var ts = new TokenSource(clientAuth, dpopJwk, dpopAlgorithm, providerMetadata.getTokenEndpointURI(), this.authzGrant, sslSocketFactory);
+        var ts = new TokenSource(clientAuth, dpopJwk, dpopAlgorithm, providerMetadata.getTokenEndpointURI(), this.authzGrant, sslSocketFactory,
+                tokenRefreshAheadFraction);
+        ts.enableProofCache(dpopProofCacheMaxAge);
         return new AuthInterceptor(ts);
     }
 
@@ -402,6 +561,8 @@ public class SDKBuilder {
 
         okhttp3.Interceptor dpopRetry = authInterceptor != null ? authInterceptor.dpopRetryInterceptor() : null;
         var kasClient = getKASClient(srtSignerToUse, authInterceptor, dpopRetry);
+        var executor = useVirtualThreads ? newVirtualThreadExecutor() : null;
+        var platformCache = new PlatformCache(platformCacheTTL, platformCacheMaxSize);
         var httpClient = getHttpClient(dpopRetry);
         var client = getProtocolClient(platformEndpoint, httpClient, authInterceptor);
         var attributeService = new AttributesServiceClient(client);
@@ -416,6 +577,9 @@ public class SDKBuilder {
         var services = new SDK.Services() {
             @Override
             public void close() {
+                if (executor != null) {
+                    executor.shutdown();
+                }
                 kasClient.close();
                 httpClient.dispatcher().executorService().shutdown();
                 httpClient.connectionPool().evictAll();
@@ -465,6 +629,16 @@ public class SDKBuilder {
             public SDK.KAS kas() {
                 return kasClient;
             }
+
+            @Override
+            public Optional<Executor> executor() {
+                return Optional.ofNullable(executor);
+            }
+
+            @Override
+            public Optional<PlatformCache> platformCache() {
+                return Optional.of(platformCache);
+            }
         };
 
         return new ServicesAndInternals(
@@ -478,7 +652,26 @@ public class SDKBuilder {
     @Nonnull
     private KASClient getKASClient(SrtSigner srtSigner, AuthInterceptor interceptor, okhttp3.Interceptor dpopRetry) {
         BiFunction<OkHttpClient, String, ProtocolClient> protocolClientFactory = (OkHttpClient client, String address) -> getProtocolClient(address, client, interceptor);
-        return new KASClient(getHttpClient(dpopRetry), protocolClientFactory, srtSigner, usePlainText);
+        var kasClient = new KASClient(getHttpClient(dpopRetry), protocolClientFactory, srtSigner, usePlainText,
+                new KASKeyCache(kasKeyCacheTTL, kasKeyCacheMaxSize, kasKeyCacheRefreshAhead));
+        kasClient.setEcSessionKeyReuse(ecSessionKeyLifetime, ecSessionKeyMaxUses);
+        if (rewrapCache != null) {
+            kasClient.setRewrapCache(rewrapCache, rewrapCacheIdentity());
+        }
+        return kasClient;
+    }
+
+    // the entity that the SDK authenticates as, used to keep keys unwrapped for one entity from
+    // being served to another that shares the same rewrap cache
+    private String rewrapCacheIdentity() {
+        var identity = new StringBuilder(platformEndpoint);
+        if (clientAuth != null) {
+            identity.append('\n').append(clientAuth.getClientID().getValue());
+        }
+        if (authzGrant != null) {
+            identity.append('\n').append(new TreeMap<>(authzGrant.toParameters()));
+        }
+        return identity.toString();
     }
 
     public SDK build() {
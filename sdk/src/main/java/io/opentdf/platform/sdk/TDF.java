@@ -15,10 +15,10 @@ import org.apache.commons.codec.binary.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
@@ -26,6 +26,10 @@ import java.security.interfaces.ECPublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.AEADBadTagException;
 
 /**
  * The TDF class is responsible for handling operations related to
@@ -295,6 +299,7 @@ class TDF {
         private final TDFReader tdfReader;
         private final byte[] payloadKey;
         private final Manifest manifest;
+        private final Manifest.SegmentList segments;
 
         public String getMetadata() {
             return unencryptedMetadata;
@@ -306,69 +311,297 @@ class TDF {
 
         private final String unencryptedMetadata;
         private final AesGcm aesGcm;
+        private final int decryptParallelism;
+        private final int verifyParallelism;
+        private final Executor decryptExecutor;
+        private final boolean mapPayload;
+        private ThreadPoolExecutor segmentPool;
 
         Reader(TDFReader tdfReader, Manifest manifest, byte[] payloadKey, String unencryptedMetadata) {
+            this(tdfReader, manifest, payloadKey, unencryptedMetadata, 0, null, true);
+        }
+
+        /**
+         * @param decryptParallelism the configured parallelism, or 0 if it wasn't set
+         * @param mapPayload whether to memory map the payload when the TDF is read from a file
+         */
+        Reader(TDFReader tdfReader, Manifest manifest, byte[] payloadKey, String unencryptedMetadata,
+               int decryptParallelism, Executor decryptExecutor, boolean mapPayload) {
             this.tdfReader = tdfReader;
             this.manifest = manifest;
+            this.segments = Manifest.SegmentList.of(manifest.encryptionInformation.integrityInformation.segments);
             this.aesGcm = new AesGcm(payloadKey);
             this.payloadKey = payloadKey;
             this.unencryptedMetadata = unencryptedMetadata;
+            this.decryptParallelism = Config.resolveParallelism(decryptParallelism, decryptExecutor);
+            // nothing is written when verifying, so it runs on every processor unless told otherwise
+            this.verifyParallelism = decryptParallelism > 0 ? decryptParallelism : Runtime.getRuntime().availableProcessors();
+            this.decryptExecutor = decryptExecutor;
+            this.mapPayload = mapPayload;
         }
 
+        /**
+         * Verifies and decrypts the payload, writing the plaintext to {@code outputStream} in order. If
+         * the reader was configured with a decrypt parallelism greater than one, segments are read ahead
+         * on the calling thread and verified and decrypted concurrently, with at most that many segments
+         * held in memory at once.
+         */
         public void readPayload(OutputStream outputStream) throws SDK.SegmentSignatureMismatch, IOException {
+            readSegments(0, 0, Long.MAX_VALUE, outputStream, decryptParallelism);
+        }
 
-            MessageDigest digest = null;
-            try {
-                digest = MessageDigest.getInstance("SHA-256");
-            } catch (NoSuchAlgorithmException e) {
-                throw new IllegalStateException("error getting instance of SHA-256", e);
+        /**
+         * Checks every segment of the payload against its hash in the manifest without writing any
+         * plaintext. Segments are read ahead on the calling thread and checked concurrently. Unless a
+         * decrypt parallelism was configured, as many segments are checked at once as there are
+         * available processors.
+         * <p>
+         * An HS256 segment hash is computed over the ciphertext, so it is checked without decrypting.
+         * A GMAC segment hash is the GCM tag of the segment, and comparing it with the manifest does not
+         * show that the ciphertext is intact, so GMAC segments are also authenticated by decrypting
+         * them into a buffer that is discarded.
+         *
+         * @throws SDK.SegmentSignatureMismatch for the first segment in the payload that doesn't match,
+         * see {@link SDK.SegmentSignatureMismatch#getSegment()}
+         */
+        public void verifyPayload() throws SDK.SegmentSignatureMismatch, IOException {
+            readSegments(0, 0, Long.MAX_VALUE, null, verifyParallelism);
+        }
+
+        /**
+         * Verifies and decrypts {@code length} bytes of plaintext starting at {@code plaintextOffset},
+         * writing them to {@code outputStream}. Only the segments that overlap the requested range are
+         * read from the TDF. If the range extends past the end of the payload, the bytes up to the end
+         * are written.
+         *
+         * @param plaintextOffset the offset into the plaintext to start at
+         * @param length the maximum number of plaintext bytes to write
+         * @param outputStream where to write the plaintext
+         * @return the number of bytes written
+         */
+        public long readPayload(long plaintextOffset, long length, OutputStream outputStream) throws SDK.SegmentSignatureMismatch, IOException {
+            if (plaintextOffset < 0 || length < 0) {
+                throw new IllegalArgumentException("offset and length must not be negative");
+            }
+            long plaintextSize = segments.plaintextSize();
+            if (plaintextOffset > plaintextSize) {
+                throw new IllegalArgumentException("offset " + plaintextOffset + " is past the end of the payload of size " + plaintextSize);
+            }
+            length = Math.min(length, plaintextSize - plaintextOffset);
+            if (length == 0) {
+                return 0;
             }
 
-            for (Manifest.Segment segment : manifest.encryptionInformation.integrityInformation.segments) {
-                if (segment.encryptedSegmentSize > Config.MAX_SEGMENT_SIZE) {
-                    throw new IllegalStateException("Segment size " + segment.encryptedSegmentSize + " exceeded limit "
-                            + Config.MAX_SEGMENT_SIZE);
-                } // MIN_SEGMENT_SIZE NOT validated out due to tests needing small segment sizes
-                  // with existing payloads
+            int index = segments.segmentAt(plaintextOffset);
+            readSegments(index, plaintextOffset - segments.plaintextOffset(index), length, outputStream, decryptParallelism);
+            return length;
+        }
 
-                byte[] readBuf = new byte[(int) segment.encryptedSegmentSize];
-                int bytesRead = tdfReader.readPayloadBytes(readBuf);
+        /**
+         * Verifies and decrypts the segments from {@code firstSegment} on, with up to {@code parallelism}
+         * segments in flight. When {@code outputStream} is {@code null} the segments are only verified.
+         */
+        private void readSegments(int firstSegment, long skip, long length, OutputStream outputStream, int parallelism)
+                throws IOException {
+            long payloadOffset = segments.encryptedOffset(firstSegment);
+            final boolean verifyOnly = outputStream == null;
+
+            // a range that only covers a few segments, like a seek to the end of a file, doesn't need
+            // more segments in flight than it has
+            parallelism = Math.max(1, Math.min(parallelism, segmentsInRange(firstSegment, skip, length)));
+            Executor executor;
+            if (parallelism == 1) {
+                executor = Runnable::run;
+            } else if (decryptExecutor != null) {
+                executor = decryptExecutor;
+            } else {
+                executor = segmentPool();
+            }
 
-                if (readBuf.length != bytesRead) {
-                    throw new IllegalStateException("unable to read bytes for segment (wanted "
-                            + segment.encryptedSegmentSize + " but got " + bytesRead + ")");
+            ArrayDeque<CompletableFuture<DecryptedSegment>> inFlight = new ArrayDeque<>(parallelism);
+            ArrayDeque<byte[]> cipherTextBuffers = new ArrayDeque<>(parallelism);
+            ArrayDeque<byte[]> plainTextBuffers = new ArrayDeque<>(parallelism);
+            long remaining = length;
+            try {
+                for (int i = firstSegment; i < segments.size() && remaining > 0; i++) {
+                    final int segment = i;
+                    long encryptedSegmentSize = segments.encryptedSegmentSize(segment);
+                    if (encryptedSegmentSize > Config.MAX_SEGMENT_SIZE) {
+                        throw new IllegalStateException("Segment size " + encryptedSegmentSize + " exceeded limit "
+                                + Config.MAX_SEGMENT_SIZE);
+                    } // MIN_SEGMENT_SIZE NOT validated out due to tests needing small segment sizes
+                      // with existing payloads
+
+                    int encryptedSize = (int) encryptedSegmentSize;
+                    // read straight out of the file when we can map it, otherwise into a pooled buffer
+                    byte[] readBuf = null;
+                    ByteBuffer encrypted = mapPayload ? tdfReader.mapPayloadBytes(payloadOffset, encryptedSize) : null;
+                    if (encrypted == null) {
+                        readBuf = takeBuffer(cipherTextBuffers, encryptedSize);
+                        int bytesRead = tdfReader.readPayloadBytes(payloadOffset, readBuf, encryptedSize);
+
+                        if (encryptedSize != bytesRead) {
+                            throw new IllegalStateException("unable to read bytes for segment (wanted "
+                                    + encryptedSegmentSize + " but got " + bytesRead + ")");
+                        }
+                        encrypted = ByteBuffer.wrap(readBuf, 0, encryptedSize);
+                    }
+                    payloadOffset += encryptedSize;
+
+                    // only the part of the range that we know about when reading ahead is counted here;
+                    // the bytes actually written are trimmed as segments are drained below
+                    remaining -= Math.max(0, segments.segmentSize(segment) - (i == firstSegment ? skip : 0));
+
+                    byte[] plainBuf;
+                    if (verifyOnly && !needsDecryptToVerify()) {
+                        plainBuf = null;
+                    } else if (manifest.payload.isEncrypted) {
+                        plainBuf = takeBuffer(plainTextBuffers, Math.max(0, encryptedSize - kGcmIvSize - kAesBlockSize));
+                    } else {
+                        plainBuf = readBuf != null ? readBuf : takeBuffer(plainTextBuffers, encryptedSize);
+                    }
+                    final byte[] cipherBuf = readBuf;
+                    final ByteBuffer segmentData = encrypted;
+                    inFlight.add(CompletableFuture.supplyAsync(
+                            () -> decryptSegment(segment, segmentData, cipherBuf, plainBuf), executor));
+                    while (inFlight.size() >= parallelism) {
+                        var decrypted = awaitSegment(inFlight.remove());
+                        length = writeSegment(decrypted, skip, length, outputStream);
+                        skip = 0;
+                        recycle(decrypted, cipherTextBuffers, plainTextBuffers);
+                    }
                 }
 
-                var isLegacyTdf = manifest.tdfVersion == null || manifest.tdfVersion.isEmpty();
+                while (!inFlight.isEmpty()) {
+                    var decrypted = awaitSegment(inFlight.remove());
+                    length = writeSegment(decrypted, skip, length, outputStream);
+                    skip = 0;
+                    recycle(decrypted, cipherTextBuffers, plainTextBuffers);
+                }
+            } finally {
+                inFlight.forEach(f -> f.cancel(true));
+            }
+        }
 
-                if (manifest.payload.isEncrypted) {
-                    String segHashAlg = manifest.encryptionInformation.integrityInformation.segmentHashAlg;
-                    Config.IntegrityAlgorithm sigAlg = Config.IntegrityAlgorithm.HS256;
-                    if (segHashAlg.compareToIgnoreCase(kGmacIntegrityAlgorithm) == 0) {
-                        sigAlg = Config.IntegrityAlgorithm.GMAC;
-                    }
+        private int segmentsInRange(int firstSegment, long skip, long length) {
+            long start = segments.plaintextOffset(firstSegment) + skip;
+            if (length >= segments.plaintextSize() - start) {
+                return segments.size() - firstSegment;
+            }
+            return segments.segmentAt(start + length - 1) - firstSegment + 1;
+        }
 
-                    var payloadSig = calculateSignature(readBuf, payloadKey, sigAlg);
-                    if (isLegacyTdf) {
-                        payloadSig = Hex.encodeHexString(payloadSig).getBytes(StandardCharsets.UTF_8);
-                    }
+        /**
+         * The threads that decrypt segments when no decrypt executor was configured. The pool is created
+         * the first time it's needed and shared by every read from this reader, and its threads exit when
+         * they have been idle for a while so that a reader that is no longer used doesn't hold any.
+         */
+        private synchronized Executor segmentPool() {
+            if (segmentPool == null) {
+                int threads = Math.max(decryptParallelism, verifyParallelism);
+                segmentPool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(), daemonThreadFactory("opentdf-decrypt"));
+                segmentPool.allowCoreThreadTimeOut(true);
+            }
+            return segmentPool;
+        }
 
-                    if (segment.hash.compareTo(Base64.getEncoder().encodeToString(payloadSig)) != 0) {
-                        throw new SDK.SegmentSignatureMismatch("segment signature miss match");
-                    }
+        private static final class DecryptedSegment {
+            final byte[] cipherText;
+            final byte[] plainText;
+            final int plainTextSize;
 
-                    byte[] writeBuf = aesGcm.decrypt(new AesGcm.Encrypted(readBuf));
-                    outputStream.write(writeBuf);
+            DecryptedSegment(byte[] cipherText, byte[] plainText, int plainTextSize) {
+                this.cipherText = cipherText;
+                this.plainText = plainText;
+                this.plainTextSize = plainTextSize;
+            }
+        }
 
-                } else {
-                    String segmentSig = Hex.encodeHexString(digest.digest(readBuf));
-                    if (segment.hash.compareTo(segmentSig) != 0) {
-                        throw new SDK.SegmentSignatureMismatch("segment signature miss match");
-                    }
+        private static void recycle(DecryptedSegment segment, ArrayDeque<byte[]> cipherTextBuffers, ArrayDeque<byte[]> plainTextBuffers) {
+            if (segment.cipherText != null) {
+                cipherTextBuffers.push(segment.cipherText);
+            }
+            if (segment.plainText != null && segment.plainText != segment.cipherText) {
+                plainTextBuffers.push(segment.plainText);
+            }
+        }
+
+        private static long writeSegment(DecryptedSegment segment, long skip, long length, OutputStream outputStream) throws IOException {
+            if (outputStream == null) {
+                return length;
+            }
+            int from = (int) Math.min(skip, segment.plainTextSize);
+            int len = (int) Math.min(length, segment.plainTextSize - from);
+            outputStream.write(segment.plainText, from, len);
+            return length - len;
+        }
+
+        private Config.IntegrityAlgorithm segmentIntegrityAlgorithm() {
+            String segHashAlg = manifest.encryptionInformation.integrityInformation.segmentHashAlg;
+            if (segHashAlg.compareToIgnoreCase(kGmacIntegrityAlgorithm) == 0) {
+                return Config.IntegrityAlgorithm.GMAC;
+            }
+            return Config.IntegrityAlgorithm.HS256;
+        }
+
+        // a GMAC segment hash is just the GCM tag, so the ciphertext is only authenticated by decrypting it
+        private boolean needsDecryptToVerify() {
+            return manifest.payload.isEncrypted && segmentIntegrityAlgorithm() == Config.IntegrityAlgorithm.GMAC;
+        }
+
+        /**
+         * Verifies and decrypts the segment in {@code encrypted}, which is either a mapped view of the file
+         * or wraps the pooled buffer {@code cipherBuf}, writing the plaintext to {@code plainBuf}. When
+         * {@code plainBuf} is {@code null} the segment is only verified.
+         */
+        private DecryptedSegment decryptSegment(int segment, ByteBuffer encrypted, byte[] cipherBuf, byte[] plainBuf) {
+            var isLegacyTdf = manifest.tdfVersion == null || manifest.tdfVersion.isEmpty();
+
+            if (manifest.payload.isEncrypted) {
+                Config.IntegrityAlgorithm sigAlg = segmentIntegrityAlgorithm();
+                var payloadSig = calculateSignature(encrypted, payloadKey, sigAlg);
+                if (isLegacyTdf) {
+                    payloadSig = Hex.encodeHexString(payloadSig).getBytes(StandardCharsets.UTF_8);
+                }
+
+                if (!segments.hashMatches(segment, payloadSig)) {
+                    throw new SDK.SegmentSignatureMismatch("segment signature miss match in segment " + segment, segment);
+                }
+                if (plainBuf == null) {
+                    return new DecryptedSegment(cipherBuf, null, 0);
+                }
 
-                    outputStream.write(readBuf);
+                int plainTextSize;
+                try {
+                    plainTextSize = aesGcm.decrypt(encrypted.duplicate(), ByteBuffer.wrap(plainBuf));
+                } catch (RuntimeException e) {
+                    if (e.getCause() instanceof AEADBadTagException) {
+                        throw new SDK.SegmentSignatureMismatch("segment authentication failed in segment " + segment, segment);
+                    }
+                    throw e;
                 }
+                return new DecryptedSegment(cipherBuf, plainBuf, plainTextSize);
             }
+
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("error getting instance of SHA-256", e);
+            }
+
+            int len = encrypted.remaining();
+            digest.update(encrypted.duplicate());
+            String segmentSig = Hex.encodeHexString(digest.digest());
+            if (segments.hash(segment).compareTo(segmentSig) != 0) {
+                throw new SDK.SegmentSignatureMismatch("segment signature miss match in segment " + segment, segment);
+            }
+
+            if (plainBuf != null && plainBuf != cipherBuf) {
+                encrypted.duplicate().get(plainBuf, 0, len);
+            }
+            return new DecryptedSegment(cipherBuf, plainBuf, len);
         }
 
         public PolicyObject readPolicyObject() {
@@ -377,22 +610,120 @@ class TDF {
     }
 
     private static byte[] calculateSignature(byte[] data, byte[] secret, Config.IntegrityAlgorithm algorithm) {
+        return calculateSignature(data, 0, data.length, secret, algorithm);
+    }
+
+    private static byte[] calculateSignature(byte[] data, int offset, int len, byte[] secret, Config.IntegrityAlgorithm algorithm) {
+        if (algorithm == Config.IntegrityAlgorithm.HS256) {
+            return CryptoUtils.CalculateSHA256Hmac(secret, data, offset, len);
+        }
+
+        if (kGMACPayloadLength > len) {
+            throw new IllegalArgumentException("tried to calculate GMAC on too small a payload. payload is "
+                    + len + "bytes while GMAC is " + kGMACPayloadLength + " bytes");
+        }
+
+        return Arrays.copyOfRange(data, offset + len - kGMACPayloadLength, offset + len);
+    }
+
+    private static byte[] calculateSignature(ByteBuffer data, byte[] secret, Config.IntegrityAlgorithm algorithm) {
         if (algorithm == Config.IntegrityAlgorithm.HS256) {
-            return CryptoUtils.CalculateSHA256Hmac(secret, data);
+            return CryptoUtils.CalculateSHA256Hmac(secret, data.duplicate());
         }
 
-        if (kGMACPayloadLength > data.length) {
+        if (kGMACPayloadLength > data.remaining()) {
             throw new IllegalArgumentException("tried to calculate GMAC on too small a payload. payload is "
-                    + data.length + "bytes while GMAC is " + kGMACPayloadLength + " bytes");
+                    + data.remaining() + "bytes while GMAC is " + kGMACPayloadLength + " bytes");
+        }
+
+        byte[] tag = new byte[kGMACPayloadLength];
+        data.duplicate().position(data.limit() - kGMACPayloadLength).get(tag);
+        return tag;
+    }
+
+    // returns a buffer from the pool that can hold at least `size` bytes. pools are only ever
+    // used from the thread driving the segment loop, workers just fill the buffers they're handed
+    private static byte[] takeBuffer(ArrayDeque<byte[]> pool, int size) {
+        byte[] buf = pool.poll();
+        return buf == null || buf.length < size ? new byte[size] : buf;
+    }
+
+    private static final class EncryptedSegment {
+        final byte[] plainText;
+        final int plainTextSize;
+        final byte[] cipherData;
+        final int cipherDataSize;
+        final byte[] segmentSig;
+
+        EncryptedSegment(byte[] plainText, int plainTextSize, byte[] cipherData, int cipherDataSize, byte[] segmentSig) {
+            this.plainText = plainText;
+            this.plainTextSize = plainTextSize;
+            this.cipherData = cipherData;
+            this.cipherDataSize = cipherDataSize;
+            this.segmentSig = segmentSig;
+        }
+    }
+
+    private static EncryptedSegment encryptSegment(TDFObject tdfObject, byte[] plainText, int len, byte[] cipherData,
+                                                   Config.TDFConfig tdfConfig) {
+        int cipherDataSize = tdfObject.aesGcm.encrypt(ByteBuffer.wrap(plainText, 0, len), ByteBuffer.wrap(cipherData));
+        byte[] segmentSig = calculateSignature(cipherData, 0, cipherDataSize, tdfObject.payloadKey,
+                tdfConfig.segmentIntegrityAlgorithm);
+        if (tdfConfig.hexEncodeRootAndSegmentHashes) {
+            segmentSig = Hex.encodeHexString(segmentSig).getBytes(StandardCharsets.UTF_8);
+        }
+        return new EncryptedSegment(plainText, len, cipherData, cipherDataSize, segmentSig);
+    }
+
+    private static <T> T awaitSegment(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SDKException("error processing segment", (Exception) cause);
         }
+    }
 
-        return Arrays.copyOfRange(data, data.length - kGMACPayloadLength, data.length);
+    static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
     }
 
     TDFObject createTDF(InputStream payload, OutputStream outputStream, Config.TDFConfig tdfConfig) throws SDKException, IOException {
         Planner planner = new Planner(tdfConfig, services, Autoconfigure::createGranter);
-        Map<String, List<KASInfo>> splits = planner.getSplits();
+        return createTDF(payload, outputStream, tdfConfig, planner.getSplits());
+    }
+
+    /**
+     * Creates a TDF once the KAS public keys have been fetched without blocking. The payload is
+     * read and encrypted on {@code executor}, which also runs the attribute lookups when the
+     * config uses autoconfigure.
+     */
+    CompletableFuture<TDFObject> createTDFAsync(InputStream payload, OutputStream outputStream, Config.TDFConfig tdfConfig,
+                                                Executor executor) {
+        Planner planner = new Planner(tdfConfig, services, Autoconfigure::createGranter);
+        return planner.getSplitsAsync(executor).thenApplyAsync(splits -> {
+            try {
+                return createTDF(payload, outputStream, tdfConfig, splits);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
 
+    private TDFObject createTDF(InputStream payload, OutputStream outputStream, Config.TDFConfig tdfConfig,
+                                Map<String, List<KASInfo>> splits) throws SDKException, IOException {
         // Add System Metadata Assertion if configured
         if (tdfConfig.systemMetadataAssertion) {
             AssertionConfig systemAssertion = AssertionConfig.getSystemMetadataAssertionConfig(TDF_SPEC_VERSION);
@@ -405,14 +736,33 @@ class TDF {
         long encryptedSegmentSize = tdfConfig.defaultSegmentSize + kGcmIvSize + kAesBlockSize;
         TDFWriter tdfWriter = new TDFWriter(outputStream);
 
-        ByteArrayOutputStream aggregateHash = new ByteArrayOutputStream();
-        byte[] readBuf = new byte[tdfConfig.defaultSegmentSize];
+        AggregateHash aggregateHash = AggregateHash.forSignature(tdfConfig.integrityAlgorithm, tdfObject.payloadKey,
+                !tdfConfig.assertionConfigList.isEmpty());
+
+        // by default segments are encrypted on the calling thread, one at a time, reusing a single buffer.
+        // otherwise up to `parallelism` segments are in flight at once and are drained in order
+        int parallelism = Config.resolveParallelism(tdfConfig.encryptParallelism, tdfConfig.encryptExecutor);
+        ExecutorService ownedExecutor = null;
+        Executor executor;
+        if (tdfConfig.encryptExecutor != null) {
+            executor = tdfConfig.encryptExecutor;
+        } else if (parallelism == 1) {
+            executor = Runnable::run;
+        } else {
+            ownedExecutor = Executors.newFixedThreadPool(parallelism, daemonThreadFactory("opentdf-encrypt"));
+            executor = ownedExecutor;
+        }
+        ArrayDeque<CompletableFuture<EncryptedSegment>> inFlight = new ArrayDeque<>(parallelism);
+        ArrayDeque<byte[]> plainTextBuffers = new ArrayDeque<>(parallelism);
+        ArrayDeque<byte[]> cipherTextBuffers = new ArrayDeque<>(parallelism);
 
-        tdfObject.manifest.encryptionInformation.integrityInformation.segments = new ArrayList<>();
+        var segments = new Manifest.SegmentList();
+        tdfObject.manifest.encryptionInformation.integrityInformation.segments = segments;
         long totalSize = 0;
         boolean finished;
         try (var payloadOutput = tdfWriter.payload()) {
             do {
+                byte[] readBuf = takeBuffer(plainTextBuffers, tdfConfig.defaultSegmentSize);
                 int nRead = 0;
                 int readThisLoop = 0;
                 while (readThisLoop < readBuf.length
@@ -426,32 +776,32 @@ class TDF {
                     throw new SDK.DataSizeNotSupported("can't create tdf larger than 64gb");
                 }
 
-                byte[] cipherData;
-                byte[] segmentSig;
-                Manifest.Segment segmentInfo = new Manifest.Segment();
+                final int segmentLength = readThisLoop;
+                byte[] cipherBuf = takeBuffer(cipherTextBuffers, (int) encryptedSegmentSize);
+                inFlight.add(CompletableFuture.supplyAsync(
+                        () -> encryptSegment(tdfObject, readBuf, segmentLength, cipherBuf, tdfConfig), executor));
 
-                // encrypt
-                cipherData = tdfObject.aesGcm.encrypt(readBuf, 0, readThisLoop).asBytes();
-                payloadOutput.write(cipherData);
+                while (!inFlight.isEmpty() && (finished || inFlight.size() >= parallelism)) {
+                    EncryptedSegment encryptedSegment = awaitSegment(inFlight.remove());
+                    payloadOutput.write(encryptedSegment.cipherData, 0, encryptedSegment.cipherDataSize);
+                    aggregateHash.add(encryptedSegment.segmentSig);
 
-                segmentSig = calculateSignature(cipherData, tdfObject.payloadKey, tdfConfig.segmentIntegrityAlgorithm);
-                if (tdfConfig.hexEncodeRootAndSegmentHashes) {
-                    segmentSig = Hex.encodeHexString(segmentSig).getBytes(StandardCharsets.UTF_8);
-                }
-                segmentInfo.hash = Base64.getEncoder().encodeToString(segmentSig);
-
-                aggregateHash.write(segmentSig);
-                segmentInfo.segmentSize = readThisLoop;
-                segmentInfo.encryptedSegmentSize = cipherData.length;
+                    segments.add(encryptedSegment.segmentSig, encryptedSegment.plainTextSize, encryptedSegment.cipherDataSize);
 
-                tdfObject.manifest.encryptionInformation.integrityInformation.segments.add(segmentInfo);
+                    plainTextBuffers.push(encryptedSegment.plainText);
+                    cipherTextBuffers.push(encryptedSegment.cipherData);
+                }
             } while (!finished);
+        } finally {
+            inFlight.forEach(f -> f.cancel(true));
+            if (ownedExecutor != null) {
+                ownedExecutor.shutdownNow();
+            }
         }
 
         Manifest.RootSignature rootSignature = new Manifest.RootSignature();
 
-        byte[] rootSig = calculateSignature(aggregateHash.toByteArray(), tdfObject.payloadKey,
-                tdfConfig.integrityAlgorithm);
+        byte[] rootSig = aggregateHash.rootSignature();
         byte[] encodedRootSig = tdfConfig.hexEncodeRootAndSegmentHashes
                 ? Hex.encodeHexString(rootSig).getBytes(StandardCharsets.UTF_8)
                 : rootSig;
@@ -503,11 +853,7 @@ class TDF {
                     throw new SDKException("error decoding assertion hash", e);
                 }
             }
-            byte[] completeHash = new byte[aggregateHash.size() + assertionHash.length];
-            System.arraycopy(aggregateHash.toByteArray(), 0, completeHash, 0, aggregateHash.size());
-            System.arraycopy(assertionHash, 0, completeHash, aggregateHash.size(), assertionHash.length);
-
-            var encodedHash = Base64.getEncoder().encodeToString(completeHash);
+            var encodedHash = aggregateHash.assertionBinding(assertionHash);
 
             var assertionSigningKey = new AssertionConfig.AssertionKey(AssertionConfig.AssertionKeyAlg.HS256,
                     tdfObject.aesGcm.getKey());
@@ -526,9 +872,7 @@ class TDF {
         }
 
         tdfObject.manifest.assertions = signedAssertions;
-        String manifestAsStr = gson.toJson(tdfObject.manifest);
-
-        tdfWriter.appendManifest(manifestAsStr);
+        tdfWriter.appendManifest(tdfObject.manifest);
         tdfObject.size = tdfWriter.finish();
 
         return tdfObject;
@@ -541,6 +885,17 @@ class TDF {
 
     Reader loadTDF(SeekableByteChannel tdf, Config.TDFReaderConfig tdfReaderConfig, String platformUrl)
             throws SDKException, IOException {
+        ensureKasAllowlist(tdfReaderConfig, platformUrl);
+        return loadTDF(tdf, tdfReaderConfig);
+    }
+
+    Reader loadTDF(TDFHandle tdf, Config.TDFReaderConfig tdfReaderConfig, String platformUrl)
+            throws SDKException, IOException {
+        ensureKasAllowlist(tdfReaderConfig, platformUrl);
+        return loadTDF(tdf, tdfReaderConfig);
+    }
+
+    private void ensureKasAllowlist(Config.TDFReaderConfig tdfReaderConfig, String platformUrl) {
         if (!tdfReaderConfig.ignoreKasAllowlist
                 && (tdfReaderConfig.kasAllowlist == null || tdfReaderConfig.kasAllowlist.isEmpty())) {
             ListKeyAccessServersRequest request = ListKeyAccessServersRequest.newBuilder()
@@ -559,59 +914,213 @@ class TDF {
             }
             tdfReaderConfig.kasAllowlist.add(Config.getKasAddress(platformUrl));
         }
-        return loadTDF(tdf, tdfReaderConfig);
+    }
+
+    /**
+     * Fetches the KAS allowlist, if needed, without blocking the calling thread.
+     */
+    private CompletableFuture<Void> ensureKasAllowlistAsync(Config.TDFReaderConfig tdfReaderConfig, String platformUrl) {
+        if (tdfReaderConfig.ignoreKasAllowlist
+                || (tdfReaderConfig.kasAllowlist != null && !tdfReaderConfig.kasAllowlist.isEmpty())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ListKeyAccessServersRequest request = ListKeyAccessServersRequest.newBuilder()
+                .build();
+        return ConnectFutures.<ListKeyAccessServersResponse>call(
+                onResult -> services.kasRegistry().listKeyAccessServers(request, Collections.emptyMap(), onResult))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = ConnectFutures.unwrap(error);
+                        if (cause instanceof ConnectException) {
+                            throw new SDKException("error getting kas servers", (ConnectException) cause);
+                        }
+                        throw new CompletionException(cause);
+                    }
+                    Set<String> kasAllowlist = new HashSet<>();
+                    for (var entry : response.getKeyAccessServersList()) {
+                        kasAllowlist.add(Config.getKasAddress(entry.getUri()));
+                    }
+                    kasAllowlist.add(Config.getKasAddress(platformUrl));
+                    tdfReaderConfig.kasAllowlist = kasAllowlist;
+                    return null;
+                });
+    }
+
+    /**
+     * Loads a TDF without blocking the calling thread while the KAS allowlist is fetched or the
+     * keys are unwrapped. The manifest is read on the calling thread and the reader is created on
+     * the thread that completes the last unwrap. The future fails with the same exceptions that
+     * {@link #loadTDF(SeekableByteChannel, Config.TDFReaderConfig, String)} throws.
+     */
+    CompletableFuture<Reader> loadTDFAsync(SeekableByteChannel tdf, Config.TDFReaderConfig tdfReaderConfig, String platformUrl) {
+        TDFReader tdfReader;
+        Manifest manifest;
+        try {
+            tdfReader = new TDFReader(tdf);
+            // use Manifest.readManifest in order to validate the Manifest input
+            manifest = tdfReader.readManifest();
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (!manifest.payload.isEncrypted) {
+            return ensureKasAllowlistAsync(tdfReaderConfig, platformUrl)
+                    .thenApply(ignored -> newReaderUnchecked(tdfReader, manifest, Collections.emptyList(), tdfReaderConfig));
+        }
+
+        return ensureKasAllowlistAsync(tdfReaderConfig, platformUrl).thenCompose(ignored -> {
+            List<CompletableFuture<SplitUnwrap>> futures = new ArrayList<>();
+            for (var entry : keyAccessBySplit(manifest).entrySet()) {
+                futures.add(unwrapSplitAsync(new SplitUnwrap(entry.getKey()), entry.getValue().iterator(),
+                        manifest.encryptionInformation.policy, tdfReaderConfig));
+            }
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+                List<SplitUnwrap> unwraps = new ArrayList<>(futures.size());
+                for (var future : futures) {
+                    unwraps.add(future.join());
+                }
+                return newReaderUnchecked(tdfReader, manifest, unwraps, tdfReaderConfig);
+            });
+        });
+    }
+
+    private Reader newReaderUnchecked(TDFReader tdfReader, Manifest manifest, List<SplitUnwrap> unwraps,
+                                      Config.TDFReaderConfig tdfReaderConfig) {
+        try {
+            return newReader(tdfReader, manifest, unwraps, tdfReaderConfig);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
     }
 
     Reader loadTDF(SeekableByteChannel tdf, Config.TDFReaderConfig tdfReaderConfig) throws SDKException, IOException {
+        return loadTDF(TDFHandle.open(tdf), tdfReaderConfig);
+    }
 
+    /**
+     * Loads a TDF that has already been opened, reusing the manifest if it has already been read
+     */
+    Reader loadTDF(TDFHandle tdf, Config.TDFReaderConfig tdfReaderConfig) throws SDKException, IOException {
         TDFReader tdfReader = new TDFReader(tdf);
-        String manifestJson = tdfReader.manifest();
         // use Manifest.readManifest in order to validate the Manifest input
-        Manifest manifest = Manifest.readManifest(manifestJson);
+        Manifest manifest = tdfReader.readManifest();
 
+        List<SplitUnwrap> unwraps = manifest.payload.isEncrypted
+                ? unwrapSplits(keyAccessBySplit(manifest), manifest.encryptionInformation.policy, tdfReaderConfig)
+                : Collections.emptyList();
+        return newReader(tdfReader, manifest, unwraps, tdfReaderConfig);
+    }
+
+    /**
+     * Loads several TDFs, unwrapping their keys with {@link SDK.KAS#unwrapBatch} so that the keys
+     * held by the same KAS are unwrapped together instead of with one request per TDF.
+     * If any of the TDFs can't be loaded the whole call fails.
+     */
+    List<Reader> loadTDFs(List<? extends SeekableByteChannel> tdfs, Config.TDFReaderConfig tdfReaderConfig, String platformUrl)
+            throws SDKException, IOException {
+        ensureKasAllowlist(tdfReaderConfig, platformUrl);
+        return loadTDFs(tdfs, tdfReaderConfig);
+    }
+
+    List<Reader> loadTDFs(List<? extends SeekableByteChannel> tdfs, Config.TDFReaderConfig tdfReaderConfig)
+            throws SDKException, IOException {
+        List<TDFReader> tdfReaders = new ArrayList<>(tdfs.size());
+        List<Manifest> manifests = new ArrayList<>(tdfs.size());
+        List<List<SplitUnwrap>> unwraps = new ArrayList<>(tdfs.size());
+        // the key access objects for each split, along with the position of the next one to try
+        List<List<Manifest.KeyAccess>> pendingKeyAccesses = new ArrayList<>();
+        List<SplitUnwrap> pendingUnwraps = new ArrayList<>();
+        List<String> pendingPolicies = new ArrayList<>();
+        for (SeekableByteChannel tdf : tdfs) {
+            TDFReader tdfReader = new TDFReader(tdf);
+            Manifest manifest = tdfReader.readManifest();
+            tdfReaders.add(tdfReader);
+            manifests.add(manifest);
+            List<SplitUnwrap> tdfUnwraps = new ArrayList<>();
+            if (manifest.payload.isEncrypted) {
+                for (var entry : keyAccessBySplit(manifest).entrySet()) {
+                    var unwrap = new SplitUnwrap(entry.getKey());
+                    tdfUnwraps.add(unwrap);
+                    pendingUnwraps.add(unwrap);
+                    pendingKeyAccesses.add(entry.getValue());
+                    pendingPolicies.add(manifest.encryptionInformation.policy);
+                }
+            }
+            unwraps.add(tdfUnwraps);
+        }
+
+        // each round sends the next candidate for every split that is still missing its key, so the
+        // alternatives for a split are only tried once the previous one has failed
+        int[] nextCandidate = new int[pendingUnwraps.size()];
+        while (true) {
+            List<SDK.KAS.UnwrapRequest> requests = new ArrayList<>();
+            List<Integer> requestSplits = new ArrayList<>();
+            for (int i = 0; i < pendingUnwraps.size(); i++) {
+                SplitUnwrap unwrap = pendingUnwraps.get(i);
+                List<Manifest.KeyAccess> candidates = pendingKeyAccesses.get(i);
+                while (unwrap.unwrappedKey == null && nextCandidate[i] < candidates.size()) {
+                    Manifest.KeyAccess keyAccess = candidates.get(nextCandidate[i]++);
+                    try {
+                        checkKasAllowed(keyAccess, tdfReaderConfig);
+                    } catch (RuntimeException e) {
+                        unwrap.failures.put(new Autoconfigure.KeySplitStep(keyAccess.url, unwrap.splitId), e);
+                        continue;
+                    }
+                    requests.add(new SDK.KAS.UnwrapRequest(keyAccess, pendingPolicies.get(i)));
+                    requestSplits.add(i);
+                    break;
+                }
+            }
+            if (requests.isEmpty()) {
+                break;
+            }
+
+            List<SDK.KAS.UnwrapResult> results = services.kas().unwrapBatch(requests, tdfReaderConfig.sessionKeyType);
+            if (results.size() != requests.size()) {
+                throw new SDKException("expected " + requests.size() + " unwrap results but got " + results.size());
+            }
+            for (int r = 0; r < results.size(); r++) {
+                SplitUnwrap unwrap = pendingUnwraps.get(requestSplits.get(r));
+                Manifest.KeyAccess keyAccess = requests.get(r).getKeyAccess();
+                SDK.KAS.UnwrapResult result = results.get(r);
+                if (result.isSuccess()) {
+                    unwrap.unwrappedKey = result.getKey();
+                    unwrap.keyAccess = keyAccess;
+                } else {
+                    unwrap.failures.put(new Autoconfigure.KeySplitStep(keyAccess.url, unwrap.splitId), result.getError());
+                }
+            }
+        }
+
+        List<Reader> readers = new ArrayList<>(tdfs.size());
+        for (int i = 0; i < tdfs.size(); i++) {
+            readers.add(newReader(tdfReaders.get(i), manifests.get(i), unwraps.get(i), tdfReaderConfig));
+        }
+        return readers;
+    }
+
+    private Reader newReader(TDFReader tdfReader, Manifest manifest, List<SplitUnwrap> unwraps,
+                             Config.TDFReaderConfig tdfReaderConfig) throws SDKException, IOException {
         byte[] payloadKey = new byte[GCM_KEY_SIZE];
         String unencryptedMetadata = null;
 
-        Set<String> knownSplits = new HashSet<>();
-        Set<String> foundSplits = new HashSet<>();
-
         Map<Autoconfigure.KeySplitStep, Exception> skippedSplits = new HashMap<>();
 
         if (manifest.payload.isEncrypted) {
-            for (Manifest.KeyAccess keyAccess : manifest.encryptionInformation.keyAccessObj) {
-                String splitId = keyAccess.sid == null || keyAccess.sid.isEmpty() ? EMPTY_SPLIT_ID : keyAccess.sid;
-                Autoconfigure.KeySplitStep ss = new Autoconfigure.KeySplitStep(keyAccess.url, splitId);
-                byte[] unwrappedKey;
-                if (foundSplits.contains(ss.splitID)) {
-                    continue;
-                }
-                knownSplits.add(ss.splitID);
-                try {
-                    var realAddress = Config.getKasAddress(keyAccess.url);
-                    if (tdfReaderConfig.ignoreKasAllowlist) {
-                        logger.warn("Ignoring KasAllowlist for url {}", realAddress);
-                    } else if (tdfReaderConfig.kasAllowlist == null || tdfReaderConfig.kasAllowlist.isEmpty()) {
-                        logger.error(
-                                "KasAllowlist: No KAS allowlist provided and no KeyAccessServerRegistry available, {} is not allowed",
-                                realAddress);
-                        throw new SDK.KasAllowlistException(
-                                "No KAS allowlist provided and no KeyAccessServerRegistry available");
-                    } else if (!tdfReaderConfig.kasAllowlist.contains(realAddress)) {
-                        logger.error("KasAllowlist: kas url {} is not allowed", realAddress);
-                        throw new SDK.KasAllowlistException("KasAllowlist: kas url " + realAddress + " is not allowed");
-                    }
-                    unwrappedKey = services.kas().unwrap(keyAccess, manifest.encryptionInformation.policy,
-                            tdfReaderConfig.sessionKeyType);
-                } catch (Exception e) {
-                    skippedSplits.put(ss, e);
+            boolean missingSplit = false;
+            for (SplitUnwrap unwrap : unwraps) {
+                skippedSplits.putAll(unwrap.failures);
+                if (unwrap.unwrappedKey == null) {
+                    missingSplit = true;
                     continue;
                 }
 
+                byte[] unwrappedKey = unwrap.unwrappedKey;
                 for (int index = 0; index < unwrappedKey.length; index++) {
                     payloadKey[index] ^= unwrappedKey[index];
                 }
-                foundSplits.add(ss.splitID);
 
+                Manifest.KeyAccess keyAccess = unwrap.keyAccess;
                 if (keyAccess.encryptedMetadata != null && !keyAccess.encryptedMetadata.isEmpty()) {
                     AesGcm aesGcm = new AesGcm(unwrappedKey);
 
@@ -631,7 +1140,7 @@ class TDF {
                 }
             }
 
-            if (knownSplits.size() > foundSplits.size()) {
+            if (missingSplit) {
                 List<Exception> exceptionList = new ArrayList<>(skippedSplits.size() + 1);
                 exceptionList.add(new Exception("splitKey.unable to reconstruct split key: " + skippedSplits));
 
@@ -652,39 +1161,33 @@ class TDF {
         String rootAlgorithm = manifest.encryptionInformation.integrityInformation.rootSignature.algorithm;
         String rootSignature = manifest.encryptionInformation.integrityInformation.rootSignature.signature;
 
-        ByteArrayOutputStream aggregateHash = new ByteArrayOutputStream();
-        for (Manifest.Segment segment : manifest.encryptionInformation.integrityInformation.segments) {
-            if (manifest.payload.isEncrypted) {
-                byte[] decodedHash = Base64.getDecoder().decode(segment.hash);
-                aggregateHash.write(decodedHash);
-            } else {
-                aggregateHash.write(segment.hash.getBytes());
-            }
-        }
-
-        String rootSigValue;
-        boolean isLegacyTdf = manifest.tdfVersion == null || manifest.tdfVersion.isEmpty();
+        boolean verifyAssertions = !tdfReaderConfig.disableAssertionVerification && !manifest.assertions.isEmpty();
+        AggregateHash aggregateHash;
         if (manifest.payload.isEncrypted) {
             Config.IntegrityAlgorithm sigAlg = Config.IntegrityAlgorithm.HS256;
             if (rootAlgorithm.compareToIgnoreCase(kGmacIntegrityAlgorithm) == 0) {
                 sigAlg = Config.IntegrityAlgorithm.GMAC;
             }
-
-            var sig = calculateSignature(aggregateHash.toByteArray(), payloadKey, sigAlg);
-            if (isLegacyTdf) {
-                sig = Hex.encodeHexString(sig).getBytes();
-            }
-            rootSigValue = Base64.getEncoder().encodeToString(sig);
+            aggregateHash = AggregateHash.forSignature(sigAlg, payloadKey, verifyAssertions);
         } else {
-            MessageDigest digest;
-            try {
-                digest = MessageDigest.getInstance("SHA-256");
-            } catch (NoSuchAlgorithmException e) {
-                throw new IllegalStateException("error getting instance of SHA-256 digest", e);
+            aggregateHash = AggregateHash.forDigest(verifyAssertions);
+        }
+        var segments = Manifest.SegmentList.of(manifest.encryptionInformation.integrityInformation.segments);
+        for (int i = 0; i < segments.size(); i++) {
+            if (manifest.payload.isEncrypted) {
+                aggregateHash.add(segments.decodedHash(i));
+            } else {
+                aggregateHash.add(segments.hash(i).getBytes());
             }
+        }
 
-            rootSigValue = Base64.getEncoder().encodeToString(digest.digest(aggregateHash.toString().getBytes()));
+        String rootSigValue;
+        boolean isLegacyTdf = manifest.tdfVersion == null || manifest.tdfVersion.isEmpty();
+        var sig = aggregateHash.rootSignature();
+        if (manifest.payload.isEncrypted && isLegacyTdf) {
+            sig = Hex.encodeHexString(sig).getBytes();
         }
+        rootSigValue = Base64.getEncoder().encodeToString(sig);
 
         if (rootSignature.compareTo(rootSigValue) != 0) {
             throw new SDK.RootSignatureValidationException("root signature validation failed");
@@ -698,7 +1201,6 @@ class TDF {
                     "segment size mismatch. encrypted segment size differs from plaintext segment size. the TDF is invalid");
         }
 
-        var aggregateHashByteArrayBytes = aggregateHash.toByteArray();
         // Validate assertions
         for (var assertion : manifest.assertions) {
             // Skip assertion verification if disabled
@@ -738,16 +1240,138 @@ class TDF {
                     throw new SDKException("error decoding assertion hash", e);
                 }
             }
-            var signature = new byte[aggregateHashByteArrayBytes.length + hashOfAssertion.length];
-            System.arraycopy(aggregateHashByteArrayBytes, 0, signature, 0, aggregateHashByteArrayBytes.length);
-            System.arraycopy(hashOfAssertion, 0, signature, aggregateHashByteArrayBytes.length, hashOfAssertion.length);
-            var encodeSignature = Base64.getEncoder().encodeToString(signature);
-
-            if (!Objects.equals(encodeSignature, hashValues.getSignature())) {
+            if (!aggregateHash.matchesAssertionBinding(hashOfAssertion, hashValues.getSignature())) {
                 throw new SDK.AssertionException("failed integrity check on assertion signature", assertion.id);
             }
         }
 
-        return new Reader(tdfReader, manifest, payloadKey, unencryptedMetadata);
+        return new Reader(tdfReader, manifest, payloadKey, unencryptedMetadata,
+                tdfReaderConfig.decryptParallelism, tdfReaderConfig.decryptExecutor, !tdfReaderConfig.disableMemoryMapping);
+    }
+
+    private static final class SplitUnwrap {
+        final String splitId;
+        Manifest.KeyAccess keyAccess;
+        byte[] unwrappedKey;
+        final Map<Autoconfigure.KeySplitStep, Exception> failures = new HashMap<>();
+
+        SplitUnwrap(String splitId) {
+            this.splitId = splitId;
+        }
+    }
+
+    // the entries for a split are alternatives to each other, while every split is needed to
+    // reconstruct the payload key
+    private static void checkKasAllowed(Manifest.KeyAccess keyAccess, Config.TDFReaderConfig tdfReaderConfig) {
+        var realAddress = Config.getKasAddress(keyAccess.url);
+        if (tdfReaderConfig.ignoreKasAllowlist) {
+            logger.warn("Ignoring KasAllowlist for url {}", realAddress);
+        } else if (tdfReaderConfig.kasAllowlist == null || tdfReaderConfig.kasAllowlist.isEmpty()) {
+            logger.error(
+                    "KasAllowlist: No KAS allowlist provided and no KeyAccessServerRegistry available, {} is not allowed",
+                    realAddress);
+            throw new SDK.KasAllowlistException(
+                    "No KAS allowlist provided and no KeyAccessServerRegistry available");
+        } else if (!tdfReaderConfig.kasAllowlist.contains(realAddress)) {
+            logger.error("KasAllowlist: kas url {} is not allowed", realAddress);
+            throw new SDK.KasAllowlistException("KasAllowlist: kas url " + realAddress + " is not allowed");
+        }
+    }
+
+    private static Map<String, List<Manifest.KeyAccess>> keyAccessBySplit(Manifest manifest) {
+        Map<String, List<Manifest.KeyAccess>> keyAccessBySplit = new LinkedHashMap<>();
+        for (Manifest.KeyAccess keyAccess : manifest.encryptionInformation.keyAccessObj) {
+            String splitId = keyAccess.sid == null || keyAccess.sid.isEmpty() ? EMPTY_SPLIT_ID : keyAccess.sid;
+            keyAccessBySplit.computeIfAbsent(splitId, k -> new ArrayList<>()).add(keyAccess);
+        }
+        return keyAccessBySplit;
+    }
+
+    /**
+     * Unwraps the key for every split, issuing the rewrap requests for different splits concurrently
+     * through {@link SDK.KAS#unwrapAsync} so that no threads are held while they are in flight.
+     * The results are returned in the order the splits first appear in the manifest.
+     */
+    private List<SplitUnwrap> unwrapSplits(Map<String, List<Manifest.KeyAccess>> keyAccessBySplit, String policy,
+                                           Config.TDFReaderConfig tdfReaderConfig) {
+        if (keyAccessBySplit.size() <= 1) {
+            List<SplitUnwrap> unwraps = new ArrayList<>(1);
+            for (var entry : keyAccessBySplit.entrySet()) {
+                unwraps.add(unwrapSplit(entry.getKey(), entry.getValue(), policy, tdfReaderConfig));
+            }
+            return unwraps;
+        }
+
+        List<CompletableFuture<SplitUnwrap>> futures = new ArrayList<>(keyAccessBySplit.size());
+        for (var entry : keyAccessBySplit.entrySet()) {
+            futures.add(unwrapSplitAsync(new SplitUnwrap(entry.getKey()), entry.getValue().iterator(),
+                    policy, tdfReaderConfig));
+        }
+        List<SplitUnwrap> unwraps = new ArrayList<>(futures.size());
+        for (var future : futures) {
+            try {
+                unwraps.add(future.join());
+            } catch (CompletionException e) {
+                // failures to unwrap are recorded in the result, so only errors end up here
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return unwraps;
+    }
+
+    /**
+     * Tries the remaining entries for a split one after another, like {@link #unwrapSplit}, without
+     * blocking while each key is unwrapped.
+     */
+    private CompletableFuture<SplitUnwrap> unwrapSplitAsync(SplitUnwrap result, Iterator<Manifest.KeyAccess> keyAccesses,
+                                                            String policy, Config.TDFReaderConfig tdfReaderConfig) {
+        while (keyAccesses.hasNext()) {
+            Manifest.KeyAccess keyAccess = keyAccesses.next();
+            Autoconfigure.KeySplitStep ss = new Autoconfigure.KeySplitStep(keyAccess.url, result.splitId);
+            try {
+                checkKasAllowed(keyAccess, tdfReaderConfig);
+            } catch (Exception e) {
+                result.failures.put(ss, e);
+                continue;
+            }
+            return services.kas().unwrapAsync(keyAccess, policy, tdfReaderConfig.sessionKeyType)
+                    .handle((unwrappedKey, error) -> {
+                        if (error == null) {
+                            result.unwrappedKey = unwrappedKey;
+                            result.keyAccess = keyAccess;
+                            return true;
+                        }
+                        Throwable cause = ConnectFutures.unwrap(error);
+                        if (cause instanceof Error) {
+                            throw (Error) cause;
+                        }
+                        result.failures.put(ss, (Exception) cause);
+                        return false;
+                    })
+                    .thenCompose(unwrapped -> unwrapped
+                            ? CompletableFuture.completedFuture(result)
+                            : unwrapSplitAsync(result, keyAccesses, policy, tdfReaderConfig));
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+
+    private SplitUnwrap unwrapSplit(String splitId, List<Manifest.KeyAccess> keyAccesses, String policy,
+                                    Config.TDFReaderConfig tdfReaderConfig) {
+        SplitUnwrap result = new SplitUnwrap(splitId);
+        for (Manifest.KeyAccess keyAccess : keyAccesses) {
+            Autoconfigure.KeySplitStep ss = new Autoconfigure.KeySplitStep(keyAccess.url, splitId);
+            try {
+                checkKasAllowed(keyAccess, tdfReaderConfig);
+                result.unwrappedKey = services.kas().unwrap(keyAccess, policy, tdfReaderConfig.sessionKeyType);
+                result.keyAccess = keyAccess;
+                return result;
+            } catch (Exception e) {
+                result.failures.put(ss, e);
+            }
+        }
+        return result;
     }
 }
@@ -0,0 +1,108 @@
+package io.opentdf.platform.sdk;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static io.opentdf.platform.sdk.TDFWriter.TDF_MANIFEST_FILE_NAME;
+import static io.opentdf.platform.sdk.TDFWriter.TDF_PAYLOAD_FILE_NAME;
+
+/**
+ * A TDF that has been opened for inspection. The central directory of the zip is read once when the
+ * handle is opened, and the manifest and the policy are each parsed the first time they are asked
+ * for. Checking whether the channel holds a TDF, reading its manifest and policy and then loading
+ * it with {@link SDK#loadTDF(TDFHandle, Config.TDFReaderConfig)} all share that work, so code that
+ * only inspects the policies of TDFs never parses a TDF more than once.
+ * <p>
+ * The manifest and policy returned are the same objects on every call and are shared with the
+ * readers loaded from the handle, so they should not be modified. A handle is safe to use from
+ * several threads. Reading a {@link java.nio.channels.FileChannel} doesn't move its position, and any
+ * other channel is positioned and read while holding its lock, so code that reads such a channel
+ * while the handle is in use has to hold the lock as well.
+ */
+public final class TDFHandle {
+    private final ZipReader.Entry manifestEntry;
+    private final ZipReader.Entry payloadEntry;
+    private final int entryCount;
+
+    private Manifest manifest;
+    private PolicyObject policyObject;
+
+    private TDFHandle(ZipReader zipReader) {
+        ZipReader.Entry manifest = null;
+        ZipReader.Entry payload = null;
+        for (var entry : zipReader.getEntries()) {
+            if (TDF_MANIFEST_FILE_NAME.equals(entry.getName())) {
+                manifest = entry;
+            } else if (TDF_PAYLOAD_FILE_NAME.equals(entry.getName())) {
+                payload = entry;
+            }
+        }
+        this.manifestEntry = manifest;
+        this.payloadEntry = payload;
+        this.entryCount = zipReader.getEntries().size();
+    }
+
+    /**
+     * Reads the central directory of the zip in {@code channel}. Nothing else is read until it is needed.
+     *
+     * @param channel the bytes of the TDF
+     * @return the handle
+     * @throws InvalidZipException if the channel doesn't contain a zip file
+     * @throws IOException if an I/O error occurs
+     */
+    public static TDFHandle open(SeekableByteChannel channel) throws SDKException, IOException {
+        return new TDFHandle(new ZipReader(channel));
+    }
+
+    /**
+     * @return {@code true} if the zip has the structure of a Z-TDF, in that it contains a
+     * manifest and a payload and nothing else. The manifest itself is not read
+     * @see SDK#isTDF(SeekableByteChannel)
+     */
+    public boolean isTDF() {
+        return entryCount == 2 && manifestEntry != null && payloadEntry != null;
+    }
+
+    /**
+     * Reads and validates the manifest the first time it is called, and returns the same manifest afterwards
+     *
+     * @return the manifest of the TDF
+     * @throws IllegalArgumentException if the TDF doesn't contain a manifest, or the manifest is invalid
+     */
+    public synchronized Manifest readManifest() {
+        if (manifest == null) {
+            if (manifestEntry == null) {
+                throw new IllegalArgumentException("tdf doesn't contain a manifest");
+            }
+            try (var manifestJson = new InputStreamReader(manifestEntry.getData(), StandardCharsets.UTF_8)) {
+                manifest = Manifest.readManifest(manifestJson);
+            } catch (IOException e) {
+                throw new SDKException("error retrieving manifest from zip file", e);
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Decodes the policy from the manifest the first time it is called, and returns the same policy afterwards
+     *
+     * @return the policy of the TDF
+     * @see SDK#decodePolicyObject(Manifest)
+     */
+    public synchronized PolicyObject decodePolicyObject() {
+        if (policyObject == null) {
+            policyObject = Manifest.decodePolicyObject(readManifest());
+        }
+        return policyObject;
+    }
+
+    ZipReader.Entry getManifestEntry() {
+        return manifestEntry;
+    }
+
+    ZipReader.Entry getPayloadEntry() {
+        return payloadEntry;
+    }
+}
@@ -1,15 +1,9 @@
 package io.opentdf.platform.sdk;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
-import java.nio.charset.StandardCharsets;
-import java.util.Map;
-import java.util.stream.Collectors;
-
-import static io.opentdf.platform.sdk.TDFWriter.TDF_MANIFEST_FILE_NAME;
-import static io.opentdf.platform.sdk.TDFWriter.TDF_PAYLOAD_FILE_NAME;
 
 /**
  * TDFReader is responsible for reading and processing Trusted Data Format (TDF) files.
@@ -18,41 +12,71 @@ import static io.opentdf.platform.sdk.TDFWriter.TDF_PAYLOAD_FILE_NAME;
  */
 public class TDFReader {
 
+    private final TDFHandle handle;
     private final ZipReader.Entry manifestEntry;
-    private final InputStream payload;
+    private final ZipReader.Entry payloadEntry;
 
     public TDFReader(SeekableByteChannel tdf) throws SDKException, IOException {
-        Map<String, ZipReader.Entry> entries = new ZipReader(tdf).getEntries()
-                .stream()
-                .collect(Collectors.toMap(ZipReader.Entry::getName, e -> e));
+        this(TDFHandle.open(tdf));
+    }
 
-        if (!entries.containsKey(TDF_MANIFEST_FILE_NAME)) {
+    TDFReader(TDFHandle handle) {
+        if (handle.getManifestEntry() == null) {
             throw new IllegalArgumentException("tdf doesn't contain a manifest");
         }
-        if (!entries.containsKey(TDF_PAYLOAD_FILE_NAME)) {
+        if (handle.getPayloadEntry() == null) {
             throw new IllegalArgumentException("tdf doesn't contain a payload");
         }
 
-        manifestEntry = entries.get(TDF_MANIFEST_FILE_NAME);
-        payload = entries.get(TDF_PAYLOAD_FILE_NAME).getData();
+        this.handle = handle;
+        manifestEntry = handle.getManifestEntry();
+        payloadEntry = handle.getPayloadEntry();
+    }
+
+    /**
+     * Reads and validates the manifest straight from the zip entry, without holding its JSON in
+     * memory. The manifest is only parsed once for each {@link TDFHandle}
+     */
+    Manifest readManifest() {
+        return handle.readManifest();
     }
 
-    String manifest() {
-        var out = new ByteArrayOutputStream();
+    /**
+     * Reads {@code len} bytes of the payload starting at {@code payloadOffset} into the start of
+     * {@code buf}.
+     */
+    int readPayloadBytes(long payloadOffset, byte[] buf, int len) {
+        if (payloadOffset >= payloadEntry.getSize()) {
+            return 0;
+        }
         try {
-            manifestEntry.getData().transferTo(out);
+            return readFully(payloadEntry.getData(payloadOffset), buf, len);
         } catch (IOException e) {
-            throw new SDKException("error retrieving manifest from zip file", e);
+            throw new SDKException("error reading from payload in TDF", e);
         }
+    }
 
-        return out.toString(StandardCharsets.UTF_8);
+    /**
+     * Returns a memory mapped view of {@code len} bytes of the payload starting at {@code payloadOffset},
+     * or {@code null} if the TDF isn't being read from a file.
+     */
+    ByteBuffer mapPayloadBytes(long payloadOffset, int len) {
+        if (payloadOffset + len > payloadEntry.getSize()) {
+            // let the caller fall back to reading so that it reports the short read
+            return null;
+        }
+        try {
+            return payloadEntry.mapData(payloadOffset, len);
+        } catch (IOException e) {
+            throw new SDKException("error mapping payload in TDF", e);
+        }
     }
 
-    int readPayloadBytes(byte[] buf) {
+    private static int readFully(InputStream in, byte[] buf, int len) {
         int totalRead = 0;
         int nread;
         try {
-            while (totalRead < buf.length && (nread = payload.read(buf, totalRead, buf.length - totalRead)) >= 0) {
+            while (totalRead < len && (nread = in.read(buf, totalRead, len - totalRead)) >= 0) {
                 totalRead += nread;
             }
         } catch (IOException e) {
@@ -62,8 +86,6 @@ public class TDFReader {
     }
 
     PolicyObject readPolicyObject() {
-        String manifestJson = manifest();
-        Manifest manifest = Manifest.readManifest(manifestJson);
-        return Manifest.decodePolicyObject(manifest);
+        return handle.decodePolicyObject();
     }
 }
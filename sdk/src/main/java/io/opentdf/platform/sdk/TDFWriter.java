@@ -1,7 +1,10 @@
 package io.opentdf.platform.sdk;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -21,6 +24,19 @@ public class TDFWriter {
         this.archiveWriter.data(TDF_MANIFEST_FILE_NAME, manifest.getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Writes the manifest as JSON into the archive, encoding it to UTF-8 as it is serialized rather
+     * than building it up as a string first. The manifest is still stored with its sizes in the local
+     * header, the same as {@link #appendManifest(String)}
+     */
+    public void appendManifest(Manifest manifest) throws IOException {
+        var json = new ByteArrayOutputStream();
+        try (var writer = new BufferedWriter(new OutputStreamWriter(json, StandardCharsets.UTF_8))) {
+            Manifest.writeManifest(manifest, writer);
+        }
+        this.archiveWriter.data(TDF_MANIFEST_FILE_NAME, json.toByteArray());
+    }
+
     public OutputStream payload() throws IOException {
         return this.archiveWriter.stream(TDF_PAYLOAD_FILE_NAME);
 
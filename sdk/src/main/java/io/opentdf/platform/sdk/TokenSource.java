@@ -25,9 +25,16 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The TokenSource class is responsible for providing authorization tokens. It handles
@@ -46,12 +53,30 @@ class TokenSource {
         }
     }
 
-    private Instant tokenExpiryTime;
-    private AccessToken token;
-    private TokenScheme tokenScheme;
+    // how long before its real expiry a token is treated as expired when refreshing ahead, so that a
+    // token is not sent just as it expires
+    private static final Duration EXPIRY_MARGIN = Duration.ofSeconds(30);
+    // how long to wait before trying again after a background refresh fails
+    static final Duration REFRESH_RETRY_DELAY = Duration.ofSeconds(5);
+
+    // read without locking; only replaced while holding fetchLock
+    private volatile TokenSnapshot current;
+    // a lock rather than a monitor, since the token request is made while holding it and a virtual
+    // thread blocked inside a synchronized block pins its carrier thread
+    private final ReentrantLock fetchLock = new ReentrantLock();
+    private final double refreshAheadFraction;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Instant nextRefreshAttempt = Instant.MIN;
+    Clock clock = Clock.systemUTC();
+    // runs background refreshes, each on a new daemon thread unless replaced in tests
+    Executor refreshExecutor = r -> REFRESH_THREADS.newThread(r).start();
     private final ClientAuthentication clientAuth;
-    private final JWK dpopJwk;
-    private final JWSAlgorithm dpopAlg;
+    // the factory converts the JWK to a JCA key and sets up the signer once, and is safe to share
+    private final DPoPProofFactory dpopFactory;
+    // cached DPoP proofs for resource requests, only used when enabled with enableProofCache
+    private volatile Duration proofCacheMaxAge;
+    private final Map<ProofKey, CachedProof> proofCache = new ConcurrentHashMap<>();
+    static final int MAX_CACHED_PROOFS = 256;
     private final URI tokenEndpointURI;
     private final AuthorizationGrant authzGrant;
     private final SSLSocketFactory sslSocketFactory;
@@ -69,14 +94,33 @@ class TokenSource {
      * @param sslSocketFactory  Optional SSLSocketFactory for token endpoint requests
      */
     public TokenSource(ClientAuthentication clientAuth, JWK dpopJwk, JWSAlgorithm dpopAlg, URI tokenEndpointURI, AuthorizationGrant authzGrant, SSLSocketFactory sslSocketFactory) {
+        this(clientAuth, dpopJwk, dpopAlg, tokenEndpointURI, authzGrant, sslSocketFactory, 0);
+    }
+
+    /**
+     * Constructs a new TokenSource that refreshes its token in the background once the given
+     * fraction of the token's lifetime has passed. Callers keep using the current token while it
+     * is refreshed, and only block when the token has actually expired.
+     *
+     * @param refreshAheadFraction the fraction of {@code expires_in} after which the token is
+     *                             refreshed in the background, or 0 to only fetch a token once
+     *                             the current one has expired
+     */
+    public TokenSource(ClientAuthentication clientAuth, JWK dpopJwk, JWSAlgorithm dpopAlg, URI tokenEndpointURI, AuthorizationGrant authzGrant, SSLSocketFactory sslSocketFactory, double refreshAheadFraction) {
         DpopKeyValidation.validate(dpopJwk, dpopAlg);
+        if (!(refreshAheadFraction >= 0 && refreshAheadFraction < 1)) {
+            throw new IllegalArgumentException("refresh ahead fraction must be at least 0 and less than 1: " + refreshAheadFraction);
+        }
+        this.refreshAheadFraction = refreshAheadFraction;
         this.clientAuth = clientAuth;
-        this.dpopJwk = dpopJwk;
-        this.dpopAlg = dpopAlg;
+        try {
+            this.dpopFactory = new DefaultDPoPProofFactory(dpopJwk, dpopAlg);
+        } catch (JOSEException e) {
+            throw new SDKException("error creating DPoP proof factory", e);
+        }
         this.tokenEndpointURI = tokenEndpointURI;
         this.sslSocketFactory = sslSocketFactory;
         this.authzGrant = authzGrant;
-        this.tokenExpiryTime = null;
     }
 
     static final class AuthHeaders {
@@ -101,18 +145,31 @@ class TokenSource {
 
     /**
      * Immutable pairing of an access token with the auth scheme (DPoP or Bearer) the AS
-     * assigned it. Returned by {@link #getToken()} so callers read both values atomically:
-     * the mutable token/tokenScheme fields are only ever written and read under
-     * getToken()'s monitor, so a caller can never observe a token from one generation
-     * alongside a scheme from another.
+     * assigned it, and the times at which it should be refreshed and stops being used.
+     * Returned by {@link #getToken()} so callers read all of these atomically: a caller can
+     * never observe a token from one generation alongside a scheme from another.
      */
     private static final class TokenSnapshot {
         final AccessToken accessToken;
         final TokenScheme scheme;
+        @Nullable
+        final Instant refreshAt;
+        @Nullable
+        final Instant expiresAt;
 
-        TokenSnapshot(AccessToken accessToken, TokenScheme scheme) {
+        TokenSnapshot(AccessToken accessToken, TokenScheme scheme, @Nullable Instant refreshAt, @Nullable Instant expiresAt) {
             this.accessToken = accessToken;
             this.scheme = scheme;
+            this.refreshAt = refreshAt;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(Instant now) {
+            return expiresAt != null && expiresAt.isBefore(now);
+        }
+
+        boolean shouldRefresh(Instant now) {
+            return refreshAt != null && refreshAt.isBefore(now);
         }
     }
 
@@ -131,9 +188,8 @@ class TokenSource {
      * @return AuthHeaders with the Authorization header, and a DPoP proof header when DPoP-bound
      */
     public AuthHeaders getAuthHeaders(URL url, String method, String nonce) {
-        // Snapshot the token and its scheme together under getToken()'s lock so the
-        // Authorization value and the DPoP/Bearer decision always come from the same
-        // token generation.
+        // Snapshot the token and its scheme together so the Authorization value and the
+        // DPoP/Bearer decision always come from the same token generation.
         TokenSnapshot snapshot = getToken();
         AccessToken t = snapshot.accessToken;
 
@@ -147,22 +203,13 @@ class TokenSource {
         // Build the DPoP proof for each request
         String dpopProof;
         try {
-            DPoPProofFactory dpopFactory = new DefaultDPoPProofFactory(dpopJwk, dpopAlg);
-
             // Get cached nonce if not explicitly provided
             if (nonce == null) {
                 String origin = getOrigin(url);
                 nonce = nonceCache.get(origin);
             }
 
-            SignedJWT proof;
-            URI htu = htuOf(url.toURI());
-            if (nonce != null) {
-                proof = dpopFactory.createDPoPJWT(method, htu, t, new Nonce(nonce));
-            } else {
-                proof = dpopFactory.createDPoPJWT(method, htu, t);
-            }
-            dpopProof = proof.serialize();
+            dpopProof = getProof(method, htuOf(url.toURI()), t, nonce);
         } catch (URISyntaxException e) {
             throw new SDKException("Invalid URI syntax for DPoP proof creation", e);
         } catch (JOSEException e) {
@@ -174,6 +221,93 @@ class TokenSource {
                 dpopProof);
     }
 
+    /**
+     * Reuse the DPoP proof for a request with the same method, URI, nonce and access token
+     * for up to {@code maxAge} after the proof was issued. This saves signing a proof for every
+     * request, at the cost of sending the same {@code jti} more than once. Only enable this
+     * for resource servers that accept proofs within an {@code iat} window rather than
+     * rejecting replayed {@code jti} values.
+     *
+     * @param maxAge how long a proof is reused, which should be well inside the server's
+     *               allowed {@code iat} skew. {@code null} or zero disables the cache
+     */
+    void enableProofCache(@Nullable Duration maxAge) {
+        if (maxAge != null && maxAge.isNegative()) {
+            throw new IllegalArgumentException("DPoP proof cache max age must not be negative: " + maxAge);
+        }
+        this.proofCacheMaxAge = maxAge == null || maxAge.isZero() ? null : maxAge;
+        proofCache.clear();
+    }
+
+    private static final class ProofKey {
+        private final String method;
+        private final URI htu;
+        @Nullable
+        private final String nonce;
+        private final String accessToken;
+
+        ProofKey(String method, URI htu, @Nullable String nonce, String accessToken) {
+            this.method = method;
+            this.htu = htu;
+            this.nonce = nonce;
+            this.accessToken = accessToken;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ProofKey that = (ProofKey) o;
+            return method.equals(that.method) && htu.equals(that.htu) && Objects.equals(nonce, that.nonce)
+                    && accessToken.equals(that.accessToken);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, htu, nonce, accessToken);
+        }
+    }
+
+    private static final class CachedProof {
+        final String proof;
+        final Instant issuedAt;
+
+        CachedProof(String proof, Instant issuedAt) {
+            this.proof = proof;
+            this.issuedAt = issuedAt;
+        }
+    }
+
+    private String getProof(String method, URI htu, AccessToken t, @Nullable String nonce) throws JOSEException {
+        Duration maxAge = proofCacheMaxAge;
+        if (maxAge == null) {
+            return createProof(method, htu, t, nonce);
+        }
+
+        ProofKey key = new ProofKey(method, htu, nonce, t.getValue());
+        Instant now = clock.instant();
+        CachedProof cached = proofCache.get(key);
+        if (cached != null && now.isBefore(cached.issuedAt.plus(maxAge))) {
+            return cached.proof;
+        }
+
+        String proof = createProof(method, htu, t, nonce);
+        if (proofCache.size() >= MAX_CACHED_PROOFS) {
+            // entries for old tokens and nonces are never looked up again, so start over
+            // rather than tracking which ones are stale
+            proofCache.clear();
+        }
+        proofCache.put(key, new CachedProof(proof, now));
+        return proof;
+    }
+
+    private String createProof(String method, URI htu, AccessToken t, @Nullable String nonce) throws JOSEException {
+        SignedJWT proof = nonce != null
+                ? dpopFactory.createDPoPJWT(method, htu, t, new Nonce(nonce))
+                : dpopFactory.createDPoPJWT(method, htu, t);
+        return proof.serialize();
+    }
+
     /** Cache a server-issued nonce for the given URL's origin. */
     public void cacheNonce(URL url, String nonce) {
         if (nonce != null && !nonce.isEmpty()) {
@@ -207,23 +341,78 @@ class TokenSource {
 
     /**
      * Either fetches a new access token or returns the cached access token if it is still valid.
+     * A valid token is returned without taking a lock; when it is due for a refresh, one caller
+     * starts the refresh in the background and every caller keeps using the current token.
      *
      * @return A snapshot of the access token and its assigned auth scheme.
      */
-    private synchronized TokenSnapshot getToken() {
-        // If the token is still valid, return the cached snapshot.
-        if (token != null && !isTokenExpired()) {
-            return new TokenSnapshot(this.token, this.tokenScheme);
+    private TokenSnapshot getToken() {
+        TokenSnapshot snapshot = current;
+        Instant now = clock.instant();
+        if (snapshot != null && !snapshot.isExpired(now)) {
+            if (snapshot.shouldRefresh(now)) {
+                refreshInBackground(snapshot, now);
+            }
+            return snapshot;
+        }
+
+        fetchLock.lock();
+        try {
+            // another thread may have fetched a token while we were waiting
+            snapshot = current;
+            if (snapshot != null && !snapshot.isExpired(clock.instant())) {
+                return snapshot;
+            }
+            current = fetchToken();
+            return current;
+        } finally {
+            fetchLock.unlock();
         }
+    }
+
+    private void refreshInBackground(TokenSnapshot snapshot, Instant now) {
+        if (now.isBefore(nextRefreshAttempt) || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        Runnable refresh = () -> {
+            try {
+                fetchLock.lock();
+                try {
+                    // skip the refresh if a caller already replaced the token
+                    if (current == snapshot) {
+                        current = fetchToken();
+                    }
+                } finally {
+                    fetchLock.unlock();
+                }
+            } catch (SDKException e) {
+                nextRefreshAttempt = clock.instant().plus(REFRESH_RETRY_DELAY);
+                logger.warn("background refresh of the access token from {} failed, the current token will be used until it expires",
+                        tokenEndpointURI, e);
+            } finally {
+                refreshing.set(false);
+            }
+        };
+        try {
+            refreshExecutor.execute(refresh);
+        } catch (RuntimeException | OutOfMemoryError e) {
+            refreshing.set(false);
+            logger.warn("unable to start a background token refresh", e);
+        }
+    }
 
+    private static final ThreadFactory REFRESH_THREADS = TDF.daemonThreadFactory("opentdf-token-refresh");
+
+    /** Fetches a new token from the token endpoint. Called while holding {@link #fetchLock}. */
+    private TokenSnapshot fetchToken() {
         logger.trace("The current access token is expired or empty, getting a new one");
         try {
-            DPoPProofFactory dpopFactory = new DefaultDPoPProofFactory(dpopJwk, dpopAlg);
             URL tokenEndpointUrl = tokenEndpointURI.toURL();
 
             // Proactively use any cached nonce for the token endpoint origin (RFC 9449 §8.2)
             String cachedNonce = nonceCache.get(getOrigin(tokenEndpointUrl));
-            HTTPResponse httpResponse = sendTokenRequest(dpopFactory, cachedNonce);
+            HTTPResponse httpResponse = sendTokenRequest(cachedNonce);
             TokenResponse tokenResponse = TokenResponse.parse(httpResponse);
 
             // RFC 9449 §8.2: if the AS requires a nonce, cache it and retry once.
@@ -231,7 +420,7 @@ class TokenSource {
                 String dpopNonce = nonceForRetry(tokenResponse, httpResponse);
                 if (dpopNonce != null) {
                     cacheNonce(tokenEndpointUrl, dpopNonce);
-                    httpResponse = retryWithNonce(dpopFactory, dpopNonce, tokenEndpointUrl);
+                    httpResponse = retryWithNonce(dpopNonce, tokenEndpointUrl);
                     tokenResponse = TokenResponse.parse(httpResponse);
                 }
                 if (!tokenResponse.indicatesSuccess()) {
@@ -247,8 +436,7 @@ class TokenSource {
             // uses the freshest value (cacheNonce ignores null/empty).
             cacheNonce(tokenEndpointUrl, httpResponse.getHeaderValue("DPoP-Nonce"));
 
-            applyTokenResponse(tokenResponse);
-            return new TokenSnapshot(this.token, this.tokenScheme);
+            return toSnapshot(tokenResponse);
 
         } catch (SDKException e) {
             // Already shaped for the caller — don't double-wrap.
@@ -286,7 +474,7 @@ class TokenSource {
     }
 
     /** Build and send the initial token request, stamping a DPoP proof (with the cached nonce if any). */
-    private HTTPResponse sendTokenRequest(DPoPProofFactory dpopFactory, @Nullable String cachedNonce)
+    private HTTPResponse sendTokenRequest(@Nullable String cachedNonce)
             throws JOSEException, IOException {
         TokenRequest tokenRequest = new TokenRequest(this.tokenEndpointURI, clientAuth, authzGrant, null);
         HTTPRequest httpRequest = tokenRequest.toHTTPRequest();
@@ -302,7 +490,7 @@ class TokenSource {
     }
 
     /** Retry the token request once with the AS-provided nonce (RFC 9449 §8.2). */
-    private HTTPResponse retryWithNonce(DPoPProofFactory dpopFactory, String dpopNonce, URL tokenEndpointUrl)
+    private HTTPResponse retryWithNonce(String dpopNonce, URL tokenEndpointUrl)
             throws JOSEException, IOException {
         TokenRequest retryRequest = new TokenRequest(tokenEndpointURI, clientAuth, authzGrant, null);
         HTTPRequest retryHttpRequest = retryRequest.toHTTPRequest();
@@ -322,8 +510,8 @@ class TokenSource {
         return retryResponse;
     }
 
-    /** Assign token, scheme, and expiry from a settled successful token response. */
-    private void applyTokenResponse(TokenResponse tokenResponse) {
+    /** Build the token, scheme, and refresh and expiry times from a settled successful token response. */
+    private TokenSnapshot toSnapshot(TokenResponse tokenResponse) {
         var tokens = tokenResponse.toSuccessResponse().getTokens();
         boolean asAssertsDpop = tokens.getDPoPAccessToken() != null;
         if (asAssertsDpop) {
@@ -335,29 +523,32 @@ class TokenSource {
                     tokenEndpointURI);
         }
 
-        this.token = tokens.getAccessToken();
-        if (this.token == null) {
+        AccessToken token = tokens.getAccessToken();
+        if (token == null) {
             throw new SDKException("token endpoint " + tokenEndpointURI
                     + " returned a success response with no access token");
         }
-        this.tokenScheme = asAssertsDpop ? TokenScheme.DPOP : TokenScheme.BEARER;
+        TokenScheme tokenScheme = asAssertsDpop ? TokenScheme.DPOP : TokenScheme.BEARER;
         if (!asAssertsDpop) {
             logger.warn("token endpoint {} returned a non-DPoP-bound access token (token_type=Bearer) despite"
                     + " DPoP proof — falling back to Bearer scheme. Check the IdP DPoP configuration.",
                     tokenEndpointURI);
         }
 
-        if (token.getLifetime() != 0) {
-            this.tokenExpiryTime = Instant.now().plusSeconds(token.getLifetime() / 3);
+        Instant refreshAt = null;
+        Instant expiresAt = null;
+        long lifetime = token.getLifetime();
+        if (lifetime != 0) {
+            Instant now = clock.instant();
+            if (refreshAheadFraction > 0) {
+                // the token keeps being used while it is refreshed, up until just before it expires
+                refreshAt = now.plusMillis((long) (lifetime * 1000 * refreshAheadFraction));
+                long marginSeconds = Math.min(lifetime / 10, EXPIRY_MARGIN.getSeconds());
+                expiresAt = now.plusSeconds(lifetime - marginSeconds);
+            } else {
+                expiresAt = now.plusSeconds(lifetime / 3);
+            }
         }
-    }
-
-    /**
-     * Checks if the token has expired.
-     *
-     * @return true if the token has expired, false otherwise.
-     */
-    private boolean isTokenExpired() {
-        return this.tokenExpiryTime != null && this.tokenExpiryTime.isBefore(Instant.now());
+        return new TokenSnapshot(token, tokenScheme, refreshAt, expiresAt);
     }
 }
@@ -0,0 +1,146 @@
+package io.opentdf.platform.sdk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the values that creating a TDF looks up from the platform in the SDK's caches, so that the
+ * first TDFs created after the SDK is built don't have to wait for them. Created with
+ * {@link SDK#warmUp(Config.WarmUpSpec)}.
+ * <p>
+ * When the spec has a refresh interval everything is fetched again in the background on a daemon
+ * thread until the warm-up, or the SDK, is closed. A refresh that fails is logged and the values
+ * fetched earlier stay in use until they expire.
+ */
+public final class WarmUp implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(WarmUp.class);
+
+    private final SDK.Services services;
+    private final PlatformCache platformCache;
+    private final Config.WarmUpSpec spec;
+    private ScheduledExecutorService refresher;
+    private volatile Runnable onClose;
+
+    private WarmUp(SDK.Services services, PlatformCache platformCache, Config.WarmUpSpec spec) {
+        this.services = services;
+        this.platformCache = platformCache;
+        this.spec = spec;
+    }
+
+    /**
+     * Fetches everything in the spec, and schedules the refreshes if the spec has a refresh interval.
+     *
+     * @param platformCache where the base key and attribute values are kept, may be {@code null}
+     *                      when the spec has neither
+     */
+    static WarmUp start(SDK.Services services, PlatformCache platformCache, Config.WarmUpSpec spec) {
+        Objects.requireNonNull(spec, "spec");
+        if (platformCache == null && (spec.baseKey || !spec.attributes.isEmpty())) {
+            throw new SDKException("unable to warm up the base key or attributes without a platform cache");
+        }
+
+        var warmUp = new WarmUp(services, platformCache, spec);
+        warmUp.fetch(false);
+        if (!spec.refreshInterval.isZero()) {
+            long interval = spec.refreshInterval.toMillis();
+            warmUp.refresher = Executors.newSingleThreadScheduledExecutor(TDF.daemonThreadFactory("opentdf-warm-up"));
+            warmUp.refresher.scheduleWithFixedDelay(warmUp::refresh, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        return warmUp;
+    }
+
+    /**
+     * @return whether this warm-up refreshes its values in the background
+     */
+    boolean isRefreshing() {
+        return refresher != null && !refresher.isShutdown();
+    }
+
+    /**
+     * Stops refreshing. The values that have already been fetched stay cached until they expire.
+     */
+    @Override
+    public void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+        var callback = onClose;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    /**
+     * @param onClose run when the warm-up is closed, used by the SDK to stop tracking it
+     */
+    void onClose(Runnable onClose) {
+        this.onClose = onClose;
+    }
+
+    private void refresh() {
+        try {
+            fetch(true);
+        } catch (Exception e) {
+            // a task that throws is never run again by the scheduler, so keep going and retry next time
+            logger.warn("error refreshing warmed up values, the previous values stay in use until they expire", e);
+        }
+    }
+
+    /**
+     * @param reload whether to fetch the KAS public keys even when they are already cached
+     */
+    void fetch(boolean reload) {
+        // the public keys are fetched while the base key and attributes are looked up
+        List<CompletableFuture<Config.KASInfo>> keys = new ArrayList<>(spec.kasKeys.size());
+        for (var request : spec.kasKeys) {
+            keys.add(fetchPublicKey(request, reload));
+        }
+
+        if (spec.baseKey) {
+            platformCache.putBaseKey(Planner.fetchBaseKey(services.wellknown()));
+        }
+        if (!spec.attributes.isEmpty()) {
+            var values = Autoconfigure.fetchAttributeValues(services.attributes(), spec.attributes);
+            for (var entry : values.entrySet()) {
+                platformCache.putAttributeValue(entry.getKey(), entry.getValue());
+            }
+            // building a granter puts the keys of the grants and mapped keys into the KAS key cache
+            Autoconfigure.getGranter(services.kas().getKeyCache(), new ArrayList<>(values.values()));
+        }
+
+        for (var key : keys) {
+            try {
+                key.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private CompletableFuture<Config.KASInfo> fetchPublicKey(Config.KASInfo request, boolean reload) {
+        var keyCache = services.kas().getKeyCache();
+        if (reload && keyCache != null) {
+            try {
+                var kasInfo = keyCache.reload(request);
+                if (kasInfo != null) {
+                    return CompletableFuture.completedFuture(kasInfo);
+                }
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return services.kas().getPublicKeyAsync(request);
+    }
+}
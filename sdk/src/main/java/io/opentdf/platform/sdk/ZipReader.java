@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -25,51 +26,78 @@ public class ZipReader {
     public static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
     public static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIZE = 20;
 
-    final ByteBuffer longBuf = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-    private long readLong() throws IOException {
-        longBuf.clear();
-        if (this.zipChannel.read(longBuf) != 8) {
-            throw new InvalidZipException("Expected long value");
+    // the largest possible end of central directory record (with a maximal comment), plus the
+    // ZIP64 locator and end of central directory record that can precede it. reading this much
+    // of the tail gets the central directory as well for any reasonably sized TDF
+    static final int MAX_TAIL_SIZE = END_OF_CENTRAL_DIRECTORY_SIZE + 0xFFFF
+            + ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIZE + 56;
+    private static final int LOCAL_FILE_HEADER_SIZE = 30;
+    private static final int CENTRAL_FILE_HEADER_SIZE = 46;
+
+    private void readFully(long position, ByteBuffer buf) throws IOException {
+        long next = position;
+        while (buf.hasRemaining()) {
+            int read = readAt(next, buf);
+            if (read < 0) {
+                throw new EOFException("Unexpected EOF reading " + buf.limit() + " bytes at " + position);
+            }
+            next += read;
         }
-        longBuf.flip();
-        return longBuf.getLong();
+        buf.flip();
     }
 
-    final ByteBuffer intBuf = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
-    private Integer readInteger() throws IOException {
-        intBuf.clear();
-        if (this.zipChannel.read(intBuf) != 4) {
-            return null;
+    /**
+     * Reads from {@code position} without moving a {@link FileChannel}, so that entries can be read
+     * from several threads at once. Other channels have to be positioned first, which is done while
+     * holding the channel's lock.
+     */
+    private int readAt(long position, ByteBuffer buf) throws IOException {
+        if (zipChannel instanceof FileChannel) {
+            return ((FileChannel) zipChannel).read(buf, position);
         }
-        intBuf.flip();
-        return intBuf.getInt();
-    }
-    private int readInt() throws IOException {
-        Integer result = readInteger();
-        if (result == null) {
-            throw new InvalidZipException("Expected int value");
+        synchronized (zipChannel) {
+            zipChannel.position(position);
+            return zipChannel.read(buf);
         }
-        return result.intValue();
     }
 
-    final ByteBuffer shortBuf = ByteBuffer.allocate(Short.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    /**
+     * A window of the file held in memory, so that records can be parsed without going back to the
+     * channel for every field.
+     */
+    private static class Window {
+        final long start;
+        final ByteBuffer buf;
+
+        Window(long start, ByteBuffer buf) {
+            this.start = start;
+            this.buf = buf;
+        }
+
+        boolean contains(long position, long length) {
+            return position >= start && position + length <= start + buf.limit();
+        }
 
-    private short readShort() throws IOException {
-        shortBuf.clear();
-        if (this.zipChannel.read(shortBuf) != 2) {
-            throw new InvalidZipException("Expected short value");
+        ByteBuffer at(long position) {
+            return buf.duplicate().order(ByteOrder.LITTLE_ENDIAN).position((int) (position - start));
         }
-        shortBuf.flip();
-        return shortBuf.getShort();
+    }
+
+    private Window read(long position, int length) throws IOException {
+        var buf = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(position, buf);
+        return new Window(position, buf);
     }
 
     private static class CentralDirectoryRecord {
         final long numEntries;
         final long offsetToStart;
+        final long size;
 
-        public CentralDirectoryRecord(long numEntries, long offsetToStart) {
+        public CentralDirectoryRecord(long numEntries, long offsetToStart, long size) {
             this.numEntries = numEntries;
             this.offsetToStart = offsetToStart;
+            this.size = size;
         }
     }
 
@@ -79,73 +107,77 @@ public class ZipReader {
     private static final int CENTRAL_FILE_HEADER_SIGNATURE =  0x02014b50;
 
     private static final int LOCAL_FILE_HEADER_SIGNATURE =  0x04034b50;
-    private static final int ZIP64_MAGICVAL = 0xFFFFFFFF;
+    private static final long ZIP64_MAGICVAL = 0xFFFFFFFFL;
+    private static final int ZIP64_SHORT_MAGICVAL = 0xFFFF;
     private static final int ZIP64_EXTID= 0x0001;
 
-    CentralDirectoryRecord readEndOfCentralDirectory() throws IOException {
-        long eoCDRStart = zipChannel.size() - END_OF_CENTRAL_DIRECTORY_SIZE; // 22 is the minimum size of the EOCDR
-
-        while (eoCDRStart >= 0) {
-            zipChannel.position(eoCDRStart);
-            Integer signature = readInteger();
-            if (signature == null || signature == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Found end of central directory signature at {}", zipChannel.position() - Integer.BYTES);
-                }
-                break;
-            }
+    CentralDirectoryRecord readEndOfCentralDirectory(Window tail) throws IOException {
+        var buf = tail.buf;
+        int eoCDRStart = buf.limit() - END_OF_CENTRAL_DIRECTORY_SIZE; // 22 is the minimum size of the EOCDR
+        while (eoCDRStart >= 0 && buf.getInt(eoCDRStart) != END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
             eoCDRStart--;
         }
 
         if (eoCDRStart < 0) {
             throw new InvalidZipException("Didn't find the end of central directory");
         }
+        long eoCDRPosition = tail.start + eoCDRStart;
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found end of central directory signature at {}", eoCDRPosition);
+        }
 
-        short diskNumber = readShort();
-        short centralDirectoryDiskNumber = readShort();
-        short numCDEntriesOnThisDisk = readShort();
+        var eocd = tail.at(eoCDRPosition + Integer.BYTES);
+        short diskNumber = eocd.getShort();
+        short centralDirectoryDiskNumber = eocd.getShort();
+        short numCDEntriesOnThisDisk = eocd.getShort();
 
-        int totalNumEntries = readShort();
-        int sizeOfCentralDirectory = readInt();
-        long offsetToStartOfCentralDirectory = readInt();
-        short commentLength = readShort();
+        int totalNumEntries = Short.toUnsignedInt(eocd.getShort());
+        long sizeOfCentralDirectory = Integer.toUnsignedLong(eocd.getInt());
+        long offsetToStartOfCentralDirectory = Integer.toUnsignedLong(eocd.getInt());
+        short commentLength = eocd.getShort();
 
         if (offsetToStartOfCentralDirectory != ZIP64_MAGICVAL) {
-            return new CentralDirectoryRecord(totalNumEntries, offsetToStartOfCentralDirectory);
+            return new CentralDirectoryRecord(totalNumEntries, offsetToStartOfCentralDirectory, sizeOfCentralDirectory);
         }
 
-        long zip64CentralDirectoryLocatorStart = zipChannel.size() - (ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIZE + END_OF_CENTRAL_DIRECTORY_SIZE + commentLength);
-        zipChannel.position(zip64CentralDirectoryLocatorStart);
-        return extractZIP64CentralDirectoryInfo();
+        long zip64CentralDirectoryLocatorStart = eoCDRPosition - ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIZE;
+        return extractZIP64CentralDirectoryInfo(tail, zip64CentralDirectoryLocatorStart);
     }
 
-    private CentralDirectoryRecord extractZIP64CentralDirectoryInfo() throws IOException {
-        // buffer's position at the start of the Central Directory
-        Integer signature = readInteger();
-        if (signature == null || signature != ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE) {
+    private CentralDirectoryRecord extractZIP64CentralDirectoryInfo(Window tail, long locatorStart) throws IOException {
+        if (!tail.contains(locatorStart, ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIZE)) {
+            throw new InvalidZipException("Invalid Zip64 End of Central Directory Record Signature");
+        }
+        var locator = tail.at(locatorStart);
+        int signature = locator.getInt();
+        if (signature != ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE) {
             throw new InvalidZipException("Invalid Zip64 End of Central Directory Record Signature");
         }
 
-        int centralDirectoryDiskNumber = readInt();
-        long offsetToEndOfCentralDirectory = readLong();
-        int totalNumberOfDisks = readInt();
+        int centralDirectoryDiskNumber = locator.getInt();
+        long offsetToEndOfCentralDirectory = locator.getLong();
+        int totalNumberOfDisks = locator.getInt();
 
-        zipChannel.position(offsetToEndOfCentralDirectory);
-        int sig = readInt();
+        // the fixed part of the ZIP64 end of central directory record is 56 bytes
+        var record = tail.contains(offsetToEndOfCentralDirectory, 56)
+                ? tail
+                : read(offsetToEndOfCentralDirectory, 56);
+        var zip64Eocd = record.at(offsetToEndOfCentralDirectory);
+        int sig = zip64Eocd.getInt();
         if (sig != ZIP_64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
             throw new InvalidZipException("Invalid");
         }
-        long sizeOfEndOfCentralDirectoryRecord = readLong();
-        short versionMadeBy = readShort();
-        short versionNeeded = readShort();
-        int thisDiskNumber = readInt();
-        int cdDiskNumber = readInt();
-        long numCDEntriesOnThisDisk = readLong();
-        long totalNumCDEntries = readLong();
-        long cdSize = readLong();
-        long cdOffset = readLong();
-
-        return new CentralDirectoryRecord(totalNumCDEntries, cdOffset);
+        long sizeOfEndOfCentralDirectoryRecord = zip64Eocd.getLong();
+        short versionMadeBy = zip64Eocd.getShort();
+        short versionNeeded = zip64Eocd.getShort();
+        int thisDiskNumber = zip64Eocd.getInt();
+        int cdDiskNumber = zip64Eocd.getInt();
+        long numCDEntriesOnThisDisk = zip64Eocd.getLong();
+        long totalNumCDEntries = zip64Eocd.getLong();
+        long cdSize = zip64Eocd.getLong();
+        long cdOffset = zip64Eocd.getLong();
+
+        return new CentralDirectoryRecord(totalNumCDEntries, cdOffset, cdSize);
     }
 
     public class Entry {
@@ -153,6 +185,8 @@ public class ZipReader {
         private final String fileName;
         final long offsetToLocalHeader;
 
+        private long dataStart = -1;
+
         private Entry(byte[] fileName, long offsetToLocalHeader, long fileSize) {
             this.fileName = new String(fileName, StandardCharsets.UTF_8);
             this.offsetToLocalHeader = offsetToLocalHeader;
@@ -163,13 +197,16 @@ public class ZipReader {
             return fileName;
         }
 
-        public InputStream getData() throws IOException {
-            zipChannel.position(offsetToLocalHeader);
-            Integer signature = readInteger();
-            if (signature == null || signature != LOCAL_FILE_HEADER_SIGNATURE) {
+        private long getDataStart() throws IOException {
+            if (dataStart >= 0) {
+                return dataStart;
+            }
+            var header = read(offsetToLocalHeader, LOCAL_FILE_HEADER_SIZE).at(offsetToLocalHeader);
+            int signature = header.getInt();
+            if (signature != LOCAL_FILE_HEADER_SIGNATURE) {
                 throw new InvalidZipException("Invalid Local Header Signature");
             }
-            zipChannel.position(zipChannel.position()
+            header.position(header.position()
                     + Short.BYTES
                     + Short.BYTES
                     + Short.BYTES
@@ -177,24 +214,60 @@ public class ZipReader {
                     + Short.BYTES
                     + Integer.BYTES);
 
-            long compressedSize = readInt();
-            long uncompressedSize = readInt();
-            int filenameLength = readShort();
-            int extrafieldLength = readShort();
+            long compressedSize = Integer.toUnsignedLong(header.getInt());
+            long uncompressedSize = Integer.toUnsignedLong(header.getInt());
+            int filenameLength = Short.toUnsignedInt(header.getShort());
+            int extrafieldLength = Short.toUnsignedInt(header.getShort());
+
+            dataStart = offsetToLocalHeader + LOCAL_FILE_HEADER_SIZE + filenameLength + extrafieldLength;
+            return dataStart;
+        }
+
+        public long getSize() {
+            return fileSize;
+        }
+
+        /**
+         * Returns a read-only view of {@code length} bytes of this entry's data starting {@code offset}
+         * bytes in, backed by a memory mapping of the file, or {@code null} if the archive isn't being
+         * read from a {@link FileChannel}. The returned buffer is independent of any other buffer
+         * returned by this method and can be handed to another thread.
+         */
+        public ByteBuffer mapData(long offset, int length) throws IOException {
+            if (!(zipChannel instanceof FileChannel)) {
+                return null;
+            }
+            if (offset < 0 || length < 0 || offset + length > fileSize) {
+                throw new IllegalArgumentException("range " + offset + "+" + length + " is outside of entry of size " + fileSize);
+            }
+            return map(getDataStart() + offset, length);
+        }
+
+        public InputStream getData() throws IOException {
+            return getData(0);
+        }
 
-            final long startPosition = zipChannel.position() + filenameLength + extrafieldLength;
+        /**
+         * Returns a stream over the data of this entry starting {@code startOffset} bytes in, so that
+         * callers can read part of a large entry without reading everything before it.
+         */
+        public InputStream getData(long startOffset) throws IOException {
+            if (startOffset < 0 || startOffset > fileSize) {
+                throw new IllegalArgumentException("offset " + startOffset + " is outside of entry of size " + fileSize);
+            }
+            final long startPosition = getDataStart();
             final long endPosition = startPosition + fileSize;
             final ByteBuffer buf = ByteBuffer.allocate(1);
             return new InputStream() {
-                long offset = 0;
+                long offset = startOffset;
                 @Override
                 public int read() throws IOException {
                     if (doneReading()) {
                         return -1;
                     }
-                    setChannelPosition();
+                    buf.clear();
                     while (buf.hasRemaining()) {
-                        if (zipChannel.read(buf) <= 0) {
+                        if (readAt(startPosition + offset, buf) <= 0) {
                             return -1;
                         }
                     }
@@ -206,22 +279,14 @@ public class ZipReader {
                     return offset >= fileSize;
                 }
 
-                private void setChannelPosition() throws IOException {
-                    var nextPosition = startPosition + offset;
-                    if (zipChannel.position() != nextPosition) {
-                        zipChannel.position(nextPosition);
-                    }
-                }
-
                 @Override
                 public int read(byte[] b, int off, int len) throws IOException {
                     if (doneReading()) {
                         return -1;
                     }
-                    setChannelPosition();
                     var lenToRead = (int)Math.min(len, fileSize - offset); // cast is always valid because len is an int
                     var buf = ByteBuffer.wrap(b, off, lenToRead);
-                    var nread = zipChannel.read(buf);
+                    var nread = readAt(startPosition + offset, buf);
                     if (nread > 0) {
                         offset += nread;
                     }
@@ -230,71 +295,121 @@ public class ZipReader {
             };
         }
     }
+    /**
+     * Reads a central directory file header at the current position of the channel, leaving the channel
+     * positioned at the next header.
+     */
     public Entry readCentralDirectoryFileHeader() throws IOException {
-        Integer signature = readInteger();
-        if (signature == null || signature != CENTRAL_FILE_HEADER_SIGNATURE) {
+        long position = zipChannel.position();
+        var fixed = read(position, CENTRAL_FILE_HEADER_SIZE).buf;
+        int variableLength = Short.toUnsignedInt(fixed.getShort(28))
+                + Short.toUnsignedInt(fixed.getShort(30))
+                + Short.toUnsignedInt(fixed.getShort(32));
+        var header = read(position, CENTRAL_FILE_HEADER_SIZE + variableLength).buf;
+        var entry = readCentralDirectoryFileHeader(header);
+        zipChannel.position(position + header.position());
+        return entry;
+    }
+
+    private Entry readCentralDirectoryFileHeader(ByteBuffer buf) {
+        if (buf.remaining() < CENTRAL_FILE_HEADER_SIZE) {
             throw new InvalidZipException("Invalid Central Directory File Header Signature");
         }
-        short versionMadeBy = readShort();
-        short versionNeededToExtract = readShort();
-        short generalPurposeBitFlag = readShort();
-        short compressionMethod = readShort();
-        short lastModFileTime = readShort();
-        short lastModFileDate = readShort();
-        int crc32 = readInt();
-        long compressedSize = readInt();
-        long uncompressedSize = readInt();
-        int fileNameLength = readShort();
-        int extraFieldLength = readShort();
-        short fileCommentLength = readShort();
-        int diskNumberStart = readShort();
-        short internalFileAttributes = readShort();
-        int externalFileAttributes = readInt();
-        long relativeOffsetOfLocalHeader = readInt();
-
-        ByteBuffer fileName = ByteBuffer.allocate(fileNameLength);
-        while (fileName.hasRemaining()) {
-            if (zipChannel.read(fileName) <= 0) {
-                throw new EOFException("Unexpected EOF when reading filename of length: " + fileNameLength);
-            }
+        int signature = buf.getInt();
+        if (signature != CENTRAL_FILE_HEADER_SIGNATURE) {
+            throw new InvalidZipException("Invalid Central Directory File Header Signature");
         }
+        short versionMadeBy = buf.getShort();
+        short versionNeededToExtract = buf.getShort();
+        short generalPurposeBitFlag = buf.getShort();
+        short compressionMethod = buf.getShort();
+        short lastModFileTime = buf.getShort();
+        short lastModFileDate = buf.getShort();
+        int crc32 = buf.getInt();
+        long compressedSize = Integer.toUnsignedLong(buf.getInt());
+        long uncompressedSize = Integer.toUnsignedLong(buf.getInt());
+        int fileNameLength = Short.toUnsignedInt(buf.getShort());
+        int extraFieldLength = Short.toUnsignedInt(buf.getShort());
+        int fileCommentLength = Short.toUnsignedInt(buf.getShort());
+        long diskNumberStart = Short.toUnsignedInt(buf.getShort());
+        short internalFileAttributes = buf.getShort();
+        int externalFileAttributes = buf.getInt();
+        long relativeOffsetOfLocalHeader = Integer.toUnsignedLong(buf.getInt());
+
+        if (buf.remaining() < fileNameLength + extraFieldLength + fileCommentLength) {
+            throw new InvalidZipException("Unexpected end of central directory when reading filename of length: " + fileNameLength);
+        }
+        byte[] fileName = new byte[fileNameLength];
+        buf.get(fileName);
 
         // Parse the extra field
-        for (final long startPos = zipChannel.position(); zipChannel.position() < startPos + extraFieldLength; ) {
-            long fieldStart = zipChannel.position();
-            int headerId = readShort();
-            int dataSize = readShort();
+        final int extraFieldEnd = buf.position() + extraFieldLength;
+        while (buf.position() + 2 * Short.BYTES <= extraFieldEnd) {
+            int headerId = Short.toUnsignedInt(buf.getShort());
+            int dataSize = Short.toUnsignedInt(buf.getShort());
+            int fieldEnd = buf.position() + dataSize;
 
             if (headerId == ZIP64_EXTID) {
-                if (compressedSize == -1) {
-                    compressedSize = readLong();
+                if (compressedSize == ZIP64_MAGICVAL) {
+                    compressedSize = buf.getLong();
                 }
-                if (uncompressedSize == -1) {
-                    uncompressedSize = readLong();
+                if (uncompressedSize == ZIP64_MAGICVAL) {
+                    uncompressedSize = buf.getLong();
                 }
-                if (relativeOffsetOfLocalHeader == -1) {
-                    relativeOffsetOfLocalHeader = readLong();
+                if (relativeOffsetOfLocalHeader == ZIP64_MAGICVAL) {
+                    relativeOffsetOfLocalHeader = buf.getLong();
                 }
-                if (diskNumberStart == ZIP64_MAGICVAL) {
-                    diskNumberStart = readInt();
+                if (diskNumberStart == ZIP64_SHORT_MAGICVAL) {
+                    diskNumberStart = Integer.toUnsignedLong(buf.getInt());
                 }
             }
             // Skip other extra fields
-            zipChannel.position(fieldStart + dataSize + 4);
+            buf.position(fieldEnd);
         }
 
-        zipChannel.position(zipChannel.position() + fileCommentLength);
+        buf.position(extraFieldEnd + fileCommentLength);
 
-        return new Entry(fileName.array(), relativeOffsetOfLocalHeader, uncompressedSize);
+        return new Entry(fileName, relativeOffsetOfLocalHeader, uncompressedSize);
     }
 
     public ZipReader(SeekableByteChannel channel) throws IOException {
         zipChannel = channel;
-        var centralDirectoryRecord = readEndOfCentralDirectory();
-        zipChannel.position(centralDirectoryRecord.offsetToStart);
-        for (int i = 0; i < centralDirectoryRecord.numEntries; i++) {
-            entries.add(readCentralDirectoryFileHeader());
+        long size = zipChannel.size();
+        int tailSize = (int) Math.min(size, MAX_TAIL_SIZE);
+        var tail = read(size - tailSize, tailSize);
+        var centralDirectoryRecord = readEndOfCentralDirectory(tail);
+
+        long cdStart = centralDirectoryRecord.offsetToStart;
+        long cdSize = centralDirectoryRecord.size;
+        if (cdStart < 0 || cdSize < 0 || cdStart + cdSize > size || cdSize > Integer.MAX_VALUE) {
+            throw new InvalidZipException("Invalid central directory location");
+        }
+        var centralDirectory = tail.contains(cdStart, cdSize) ? tail : read(cdStart, (int) cdSize);
+        var buf = centralDirectory.at(cdStart);
+        buf.limit(buf.position() + (int) cdSize);
+        for (long i = 0; i < centralDirectoryRecord.numEntries; i++) {
+            entries.add(readCentralDirectoryFileHeader(buf));
+        }
+    }
+
+    // files are mapped a window at a time so that we can read past 2GB, which is the most a single
+    // mapping can cover. windows start wherever the first read that didn't fit in the previous one did.
+    // a window is replaced rather than changed so that readers on other threads always see a mapping
+    // together with its own start, and a replaced window is unmapped once the last view of it is collected
+    static final int MAP_WINDOW_SIZE = 64 * 1024 * 1024;
+    int mapWindowSize = MAP_WINDOW_SIZE;
+    private volatile Window mappedWindow;
+
+    private ByteBuffer map(long position, int length) throws IOException {
+        Window window = mappedWindow;
+        if (window == null || !window.contains(position, length)) {
+            long windowSize = Math.min(zipChannel.size() - position, Math.max(length, mapWindowSize));
+            window = new Window(position, ((FileChannel) zipChannel).map(FileChannel.MapMode.READ_ONLY, position, windowSize));
+            mappedWindow = window;
         }
+        var view = window.at(position);
+        view.limit(view.position() + length);
+        return view.slice();
     }
 
     final SeekableByteChannel zipChannel;
@@ -5,9 +5,19 @@ import static org.junit.jupiter.api.Assertions.*;
 import javax.crypto.BadPaddingException;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import java.nio.ByteBuffer;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.Test;
 
 class AesGcmTest {
@@ -42,4 +52,88 @@ class AesGcmTest {
 
         assertThrows(IllegalArgumentException.class, () -> new AesGcm(key));
     }
-}
\ No newline at end of file
+
+    @Test
+    void encryptionUsesFreshNoncesAcrossThreads() throws Exception {
+        AesGcm aesGcm = new AesGcm(AesGcm.generateKey());
+        byte[] plaintext = "Virtru, JavaSDK!".getBytes();
+        Set<String> nonces = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < 250; j++) {
+                        var encrypted = aesGcm.encrypt(plaintext);
+                        assertTrue(nonces.add(Base64.getEncoder().encodeToString(encrypted.getIv())), "nonce was reused");
+                        assertArrayEquals(plaintext, aesGcm.decrypt(new AesGcm.Encrypted(encrypted.asBytes())));
+                    }
+                }));
+            }
+            for (var result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1000, nonces.size());
+    }
+
+    @Test
+    void failedDecryptionDoesNotAffectLaterCalls() {
+        AesGcm aesGcm = new AesGcm(AesGcm.generateKey());
+        byte[] plaintext = "Virtru, JavaSDK!".getBytes();
+
+        var bytes = aesGcm.encrypt(plaintext).asBytes();
+        bytes[bytes.length - 1] ^= 1;
+        assertThrows(RuntimeException.class, () -> aesGcm.decrypt(new AesGcm.Encrypted(bytes)));
+
+        var encrypted = aesGcm.encrypt(plaintext);
+        assertArrayEquals(plaintext, aesGcm.decrypt(encrypted));
+    }
+
+    @Test
+    void byteBufferEncryptionMatchesArrayLayout() {
+        AesGcm aesGcm = new AesGcm(AesGcm.generateKey());
+        byte[] plaintext = "Virtru, JavaSDK! with some more bytes".getBytes();
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(plaintext.length + AesGcm.GCM_NONCE_LENGTH + AesGcm.GCM_TAG_LENGTH);
+        int written = aesGcm.encrypt(ByteBuffer.wrap(plaintext), direct);
+        assertEquals(direct.capacity(), written);
+
+        direct.flip();
+        byte[] ivAndCiphertext = new byte[written];
+        direct.duplicate().get(ivAndCiphertext);
+        assertArrayEquals(plaintext, aesGcm.decrypt(new AesGcm.Encrypted(ivAndCiphertext)));
+
+        ByteBuffer out = ByteBuffer.allocateDirect(plaintext.length);
+        assertEquals(plaintext.length, aesGcm.decrypt(direct, out));
+        byte[] decrypted = new byte[plaintext.length];
+        out.flip().get(decrypted);
+        assertArrayEquals(plaintext, decrypted);
+    }
+
+    @Test
+    void byteBufferEncryptionInPlace() {
+        AesGcm aesGcm = new AesGcm(AesGcm.generateKey());
+        byte[] plaintext = "Virtru, JavaSDK!".getBytes();
+
+        byte[] buf = new byte[plaintext.length + AesGcm.GCM_NONCE_LENGTH + AesGcm.GCM_TAG_LENGTH];
+        System.arraycopy(plaintext, 0, buf, 0, plaintext.length);
+        int written = aesGcm.encrypt(ByteBuffer.wrap(buf, 0, plaintext.length), ByteBuffer.wrap(buf));
+        assertEquals(buf.length, written);
+        assertArrayEquals(plaintext, aesGcm.decrypt(new AesGcm.Encrypted(buf.clone())));
+
+        int decrypted = aesGcm.decrypt(ByteBuffer.wrap(buf), ByteBuffer.wrap(buf));
+        assertEquals(plaintext.length, decrypted);
+        assertArrayEquals(plaintext, Arrays.copyOf(buf, decrypted));
+    }
+
+    @Test
+    void byteBufferEncryptionRejectsSmallOutput() {
+        AesGcm aesGcm = new AesGcm(AesGcm.generateKey());
+        assertThrows(IllegalArgumentException.class,
+                () -> aesGcm.encrypt(ByteBuffer.allocate(16), ByteBuffer.allocate(16 + AesGcm.GCM_NONCE_LENGTH)));
+    }
+}
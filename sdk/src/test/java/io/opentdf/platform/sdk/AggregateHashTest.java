@@ -0,0 +1,92 @@
+package io.opentdf.platform.sdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AggregateHashTest {
+    private static final Random random = new Random(17);
+
+    @Test
+    void testRootSignatureMatchesTheConcatenatedHashes() throws Exception {
+        byte[] key = randomBytes(32);
+        // hashes of 16 and 32 bytes are the GMAC and HMAC segment hashes, the odd lengths are
+        // from legacy TDFs that hex encode their hashes
+        for (int hashLength : new int[]{1, 5, 16, 32, 64}) {
+            for (int segments : new int[]{1, 2, 3, 1000}) {
+                var concatenated = new ByteArrayOutputStream();
+                var hmac = AggregateHash.forSignature(Config.IntegrityAlgorithm.HS256, key, false);
+                var gmac = AggregateHash.forSignature(Config.IntegrityAlgorithm.GMAC, key, false);
+                var digest = AggregateHash.forDigest(false);
+                for (int i = 0; i < segments; i++) {
+                    byte[] hash = randomBytes(hashLength);
+                    concatenated.write(hash);
+                    hmac.add(hash);
+                    gmac.add(hash);
+                    digest.add(hash);
+                }
+
+                byte[] all = concatenated.toByteArray();
+                assertThat(hmac.rootSignature()).isEqualTo(CryptoUtils.CalculateSHA256Hmac(key, all));
+                assertThat(digest.rootSignature()).isEqualTo(MessageDigest.getInstance("SHA-256").digest(all));
+                if (all.length >= AggregateHash.GMAC_LENGTH) {
+                    assertThat(gmac.rootSignature()).isEqualTo(Arrays.copyOfRange(all, all.length - AggregateHash.GMAC_LENGTH, all.length));
+                } else {
+                    assertThatThrownBy(gmac::rootSignature).isInstanceOf(IllegalArgumentException.class);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testAssertionBindingsShareTheEncodedHashes() throws Exception {
+        for (int segments = 0; segments < 7; segments++) {
+            var concatenated = new ByteArrayOutputStream();
+            var aggregateHash = AggregateHash.forSignature(Config.IntegrityAlgorithm.GMAC, null, true);
+            for (int i = 0; i < segments; i++) {
+                // lengths that leave every possible remainder when encoding groups of three bytes
+                byte[] hash = randomBytes(16 + i);
+                concatenated.write(hash);
+                aggregateHash.add(hash);
+            }
+
+            for (int assertion = 0; assertion < 3; assertion++) {
+                byte[] assertionHash = randomBytes(32);
+                var expected = new ByteArrayOutputStream();
+                expected.write(concatenated.toByteArray());
+                expected.write(assertionHash);
+                String binding = Base64.getEncoder().encodeToString(expected.toByteArray());
+
+                assertThat(aggregateHash.assertionBinding(assertionHash)).isEqualTo(binding);
+                assertThat(aggregateHash.matchesAssertionBinding(assertionHash, binding)).isTrue();
+                assertThat(aggregateHash.matchesAssertionBinding(randomBytes(32), binding)).isFalse();
+                assertThat(aggregateHash.matchesAssertionBinding(assertionHash, binding + "AAAA")).isFalse();
+                assertThat(aggregateHash.matchesAssertionBinding(assertionHash, null)).isFalse();
+            }
+        }
+    }
+
+    @Test
+    void testHashesCanNotBeAddedOnceBindingsAreComputed() {
+        var aggregateHash = AggregateHash.forDigest(true);
+        aggregateHash.add(randomBytes(32));
+        aggregateHash.assertionBinding(randomBytes(32));
+
+        assertThatThrownBy(() -> aggregateHash.add(randomBytes(32))).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> AggregateHash.forDigest(false).assertionBinding(randomBytes(32)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -26,6 +26,8 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -49,6 +51,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -1008,6 +1011,79 @@ public class AutoconfigureTest {
         assertEquals("public-key-pem-2", storedKASInfo2.PublicKey);
     }
 
+    @Test
+    void testGranterIsCachedForTheSameAttributes() {
+        var attributeService = mock(AttributesServiceClient.class);
+        var requested = new ArrayList<List<String>>();
+        when(attributeService.getAttributeValuesByFqnsBlocking(any(), any())).thenAnswer(invocation -> {
+            var request = (GetAttributeValuesByFqnsRequest) invocation.getArgument(0);
+            requested.add(request.getFqnsList());
+            return TestUtil.successfulUnaryCall(getResponse(request));
+        });
+        var platformCache = new PlatformCache();
+
+        Granter granter = Autoconfigure.newGranterFromService(attributeService, new KASKeyCache(), platformCache,
+                spk2uns2uns, uns2spk);
+        // the same attributes in a different order and case
+        Granter cached = Autoconfigure.newGranterFromService(attributeService, new KASKeyCache(), platformCache,
+                uns2spk, new AttributeValueFQN(spk2uns2uns.toString().replace("hasgrants", "HasGrants")));
+
+        assertThat(cached).isSameAs(granter);
+        assertThat(requested).hasSize(1);
+        assertThat(platformCache.granterCount()).isEqualTo(1);
+
+        // each plan built from the cached granter gets its own split IDs
+        var counter = new AtomicInteger();
+        Supplier<String> splitGen = () -> String.valueOf(counter.incrementAndGet());
+        assertThat(granter.getSplits(List.of(KAS_US), splitGen, Optional::empty)).containsExactlyInAnyOrder(
+                new Autoconfigure.KeySplitTemplate(NAMESPACE_KAS, "1", null, null),
+                new Autoconfigure.KeySplitTemplate(EVEN_MORE_SPECIFIC_KAS, "2", null, null));
+        assertThat(cached.getSplits(List.of(KAS_US), splitGen, Optional::empty)).containsExactlyInAnyOrder(
+                new Autoconfigure.KeySplitTemplate(NAMESPACE_KAS, "3", null, null),
+                new Autoconfigure.KeySplitTemplate(EVEN_MORE_SPECIFIC_KAS, "4", null, null));
+    }
+
+    @Test
+    void testOnlyAttributeValuesMissingFromTheCacheAreFetched() {
+        var attributeService = mock(AttributesServiceClient.class);
+        var requested = new ArrayList<List<String>>();
+        when(attributeService.getAttributeValuesByFqnsBlocking(any(), any())).thenAnswer(invocation -> {
+            var request = (GetAttributeValuesByFqnsRequest) invocation.getArgument(0);
+            requested.add(request.getFqnsList());
+            return TestUtil.successfulUnaryCall(getResponse(request));
+        });
+        var platformCache = new PlatformCache();
+
+        Autoconfigure.newGranterFromService(attributeService, null, platformCache, spk2uns2uns);
+        Granter granter = Autoconfigure.newGranterFromService(attributeService, null, platformCache, spk2uns2uns, uns2spk);
+
+        assertThat(granter.getPolicy()).containsExactlyInAnyOrder(spk2uns2uns, uns2spk);
+        assertThat(requested).containsExactly(List.of(spk2uns2uns.toString()), List.of(uns2spk.toString()));
+        assertThat(platformCache.attributeValueCount()).isEqualTo(2);
+        assertThat(platformCache.granterCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testCachedValuesAreFetchedAgainOnceTheyExpire() {
+        var attributeService = mock(AttributesServiceClient.class);
+        when(attributeService.getAttributeValuesByFqnsBlocking(any(), any())).thenAnswer(invocation ->
+                TestUtil.successfulUnaryCall(getResponse(invocation.getArgument(0))));
+        var platformCache = new PlatformCache(Duration.ofMinutes(1), 1);
+
+        Granter granter = Autoconfigure.newGranterFromService(attributeService, null, platformCache, uns2spk);
+        assertThat(Autoconfigure.newGranterFromService(attributeService, null, platformCache, uns2spk)).isSameAs(granter);
+
+        platformCache.clock = Clock.offset(Clock.systemUTC(), Duration.ofMinutes(2));
+        assertThat(Autoconfigure.newGranterFromService(attributeService, null, platformCache, uns2spk)).isNotSameAs(granter);
+        verify(attributeService, times(2)).getAttributeValuesByFqnsBlocking(any(), any());
+
+        // the least recently used entries are evicted once the cache is full
+        Autoconfigure.newGranterFromService(attributeService, null, platformCache, spk2uns2uns);
+        assertThat(platformCache.attributeValueCount()).isEqualTo(1);
+        assertThat(platformCache.granterCount()).isEqualTo(1);
+        assertThat(platformCache.getAttributeValue(uns2spk)).isNull();
+    }
+
     @Test
     void testUsingBaseKeyWhenNoMappedKeysOrGrants() {
         Autoconfigure.Granter granter = Autoconfigure.newGranterFromAttributes(null);
@@ -1132,6 +1208,7 @@ public class AutoconfigureTest {
             KID = "kid";
         }};
         Mockito.when(kas.getPublicKey(any())).thenReturn(kasInfo);
+        Mockito.when(kas.getPublicKeyAsync(any())).thenCallRealMethod();
 
         var services = new FakeServicesBuilder().setKas(kas).build();
 
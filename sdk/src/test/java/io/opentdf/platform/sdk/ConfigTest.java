@@ -2,6 +2,8 @@ package io.opentdf.platform.sdk;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.Executor;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -83,4 +85,38 @@ class ConfigTest {
         Config.TDFConfig config = Config.newTDFConfig(Config.withMimeType(mimeType));
         assertEquals(mimeType, config.mimeType);
     }
-}
\ No newline at end of file
+
+    @Test
+    void withEncryptExecutor_shouldKeepAnExplicitParallelism() {
+        Executor executor = Runnable::run;
+        var parallelismFirst = Config.newTDFConfig(Config.withEncryptParallelism(1), Config.withEncryptExecutor(executor));
+        var executorFirst = Config.newTDFConfig(Config.withEncryptExecutor(executor), Config.withEncryptParallelism(1));
+        assertThat(Config.resolveParallelism(parallelismFirst.encryptParallelism, parallelismFirst.encryptExecutor)).isEqualTo(1);
+        assertThat(Config.resolveParallelism(executorFirst.encryptParallelism, executorFirst.encryptExecutor)).isEqualTo(1);
+
+        var unset = Config.newTDFConfig(Config.withEncryptExecutor(executor));
+        assertThat(Config.resolveParallelism(unset.encryptParallelism, unset.encryptExecutor))
+                .isEqualTo(Runtime.getRuntime().availableProcessors());
+        var defaults = Config.newTDFConfig();
+        assertThat(Config.resolveParallelism(defaults.encryptParallelism, defaults.encryptExecutor)).isEqualTo(1);
+    }
+
+    @Test
+    void withDecryptExecutor_shouldKeepAnExplicitParallelism() {
+        Executor executor = Runnable::run;
+        var parallelismFirst = Config.newTDFReaderConfig(Config.withDecryptParallelism(1), Config.withDecryptExecutor(executor));
+        var executorFirst = Config.newTDFReaderConfig(Config.withDecryptExecutor(executor), Config.withDecryptParallelism(1));
+        assertThat(Config.resolveParallelism(parallelismFirst.decryptParallelism, parallelismFirst.decryptExecutor)).isEqualTo(1);
+        assertThat(Config.resolveParallelism(executorFirst.decryptParallelism, executorFirst.decryptExecutor)).isEqualTo(1);
+
+        var unset = Config.newTDFReaderConfig(Config.withDecryptExecutor(executor));
+        assertThat(Config.resolveParallelism(unset.decryptParallelism, unset.decryptExecutor))
+                .isEqualTo(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    void withDisableMemoryMapping_shouldTurnOffMapping() {
+        assertThat(Config.newTDFReaderConfig().disableMemoryMapping).isFalse();
+        assertThat(Config.newTDFReaderConfig(Config.withDisableMemoryMapping(true)).disableMemoryMapping).isTrue();
+    }
+}
@@ -9,6 +9,8 @@ import io.opentdf.platform.policy.subjectmapping.SubjectMappingServiceClientInte
 import io.opentdf.platform.wellknownconfiguration.WellKnownServiceClientInterface;
 
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 
 public class FakeServices implements SDK.Services {
 
@@ -21,6 +23,8 @@ public class FakeServices implements SDK.Services {
     private final KeyAccessServerRegistryServiceClientInterface keyAccessServerRegistryServiceFutureStub;
     private final WellKnownServiceClientInterface wellKnownService;
     private final SDK.KAS kas;
+    private final Executor executor;
+    private final PlatformCache platformCache;
 
     public FakeServices(
             AuthorizationServiceClientInterface authorizationService,
@@ -32,6 +36,37 @@ public class FakeServices implements SDK.Services {
             KeyAccessServerRegistryServiceClientInterface keyAccessServerRegistryServiceFutureStub,
             WellKnownServiceClientInterface wellKnownServiceClient,
             SDK.KAS kas) {
+        this(authorizationService, authorizationServiceV2, attributesService, namespaceService, subjectMappingService,
+                resourceMappingService, keyAccessServerRegistryServiceFutureStub, wellKnownServiceClient, kas, null);
+    }
+
+    public FakeServices(
+            AuthorizationServiceClientInterface authorizationService,
+            io.opentdf.platform.authorization.v2.AuthorizationServiceClientInterface authorizationServiceV2,
+            AttributesServiceClientInterface attributesService,
+            NamespaceServiceClientInterface namespaceService,
+            SubjectMappingServiceClientInterface subjectMappingService,
+            ResourceMappingServiceClientInterface resourceMappingService,
+            KeyAccessServerRegistryServiceClientInterface keyAccessServerRegistryServiceFutureStub,
+            WellKnownServiceClientInterface wellKnownServiceClient,
+            SDK.KAS kas,
+            Executor executor) {
+        this(authorizationService, authorizationServiceV2, attributesService, namespaceService, subjectMappingService,
+                resourceMappingService, keyAccessServerRegistryServiceFutureStub, wellKnownServiceClient, kas, executor, null);
+    }
+
+    public FakeServices(
+            AuthorizationServiceClientInterface authorizationService,
+            io.opentdf.platform.authorization.v2.AuthorizationServiceClientInterface authorizationServiceV2,
+            AttributesServiceClientInterface attributesService,
+            NamespaceServiceClientInterface namespaceService,
+            SubjectMappingServiceClientInterface subjectMappingService,
+            ResourceMappingServiceClientInterface resourceMappingService,
+            KeyAccessServerRegistryServiceClientInterface keyAccessServerRegistryServiceFutureStub,
+            WellKnownServiceClientInterface wellKnownServiceClient,
+            SDK.KAS kas,
+            Executor executor,
+            PlatformCache platformCache) {
         this.authorizationService = authorizationService;
         this.authorizationServiceV2 = authorizationServiceV2;
         this.attributesService = attributesService;
@@ -41,6 +76,8 @@ public class FakeServices implements SDK.Services {
         this.keyAccessServerRegistryServiceFutureStub = keyAccessServerRegistryServiceFutureStub;
         this.wellKnownService = wellKnownServiceClient;
         this.kas = kas;
+        this.executor = executor;
+        this.platformCache = platformCache;
     }
 
     @Override
@@ -88,6 +125,16 @@ public class FakeServices implements SDK.Services {
         return Objects.requireNonNull(kas);
     }
 
+    @Override
+    public Optional<Executor> executor() {
+        return Optional.ofNullable(executor);
+    }
+
+    @Override
+    public Optional<PlatformCache> platformCache() {
+        return Optional.ofNullable(platformCache);
+    }
+
     @Override
     public void close() {
         // no-op for this fake stuff in tests
@@ -8,6 +8,8 @@ import io.opentdf.platform.policy.resourcemapping.ResourceMappingServiceClientIn
 import io.opentdf.platform.policy.subjectmapping.SubjectMappingServiceClientInterface;
 import io.opentdf.platform.wellknownconfiguration.WellKnownServiceClientInterface;
 
+import java.util.concurrent.Executor;
+
 public class FakeServicesBuilder {
     private AuthorizationServiceClientInterface authorizationService;
     private io.opentdf.platform.authorization.v2.AuthorizationServiceClientInterface authorizationServiceV2;
@@ -18,6 +20,8 @@ public class FakeServicesBuilder {
     private KeyAccessServerRegistryServiceClientInterface keyAccessServerRegistryServiceFutureStub;
     private WellKnownServiceClientInterface wellKnownServiceClient;
     private SDK.KAS kas;
+    private Executor executor;
+    private PlatformCache platformCache;
 
     public FakeServicesBuilder setAuthorizationService(AuthorizationServiceClientInterface authorizationService) {
         this.authorizationService = authorizationService;
@@ -64,8 +68,18 @@ public class FakeServicesBuilder {
         return this;
     }
 
+    public FakeServicesBuilder setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public FakeServicesBuilder setPlatformCache(PlatformCache platformCache) {
+        this.platformCache = platformCache;
+        return this;
+    }
+
     public FakeServices build() {
         return new FakeServices(authorizationService, authorizationServiceV2, attributesService, namespaceService, subjectMappingService,
-                resourceMappingService, keyAccessServerRegistryServiceFutureStub, wellKnownServiceClient, kas);
+                resourceMappingService, keyAccessServerRegistryServiceFutureStub, wellKnownServiceClient, kas, executor, platformCache);
     }
 }
\ No newline at end of file
@@ -17,9 +17,12 @@ import com.nimbusds.jose.crypto.RSASSAVerifier;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jwt.SignedJWT;
 import io.grpc.Server;
+import io.grpc.Status;
 import io.grpc.ServerBuilder;
 import io.grpc.stub.StreamObserver;
 import io.opentdf.platform.kas.AccessServiceGrpc;
+import io.opentdf.platform.kas.KeyAccessRewrapResult;
+import io.opentdf.platform.kas.PolicyRewrapResult;
 import io.opentdf.platform.kas.PublicKeyRequest;
 import io.opentdf.platform.kas.PublicKeyResponse;
 import io.opentdf.platform.kas.RewrapRequest;
@@ -29,11 +32,23 @@ import okhttp3.Protocol;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.security.KeyPair;
 import java.security.interfaces.RSAPublicKey;
 import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.nio.charset.StandardCharsets;
@@ -117,6 +132,59 @@ public class KASClientTest {
         }
     }
 
+    @Test
+    void testConcurrentPublicKeyRequestsAreShared() throws Exception {
+        var requests = new AtomicInteger();
+        var respond = new CountDownLatch(1);
+        AccessServiceGrpc.AccessServiceImplBase accessService = new AccessServiceGrpc.AccessServiceImplBase() {
+            @Override
+            public void publicKey(PublicKeyRequest request, StreamObserver<PublicKeyResponse> responseObserver) {
+                requests.incrementAndGet();
+                try {
+                    respond.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                responseObserver.onNext(PublicKeyResponse.newBuilder().setKid("r1").setPublicKey("the key").build());
+                responseObserver.onCompleted();
+            }
+        };
+
+        Server server = null;
+        try {
+            server = startServer(accessService);
+
+            var keypair = CryptoUtils.generateRSAKeypair();
+            var dpopKey = new RSAKey.Builder((RSAPublicKey) keypair.getPublic()).privateKey(keypair.getPrivate())
+                    .build();
+            try (var kas = new KASClient(httpClient, aclientFactory, new DefaultSrtSigner(dpopKey), true)) {
+                Config.KASInfo kasInfo = new Config.KASInfo();
+                kasInfo.URL = "http://localhost:" + server.getPort();
+                kasInfo.Algorithm = "rsa:2048";
+
+                // the first request is still waiting on the KAS, so the rest join it
+                var futures = new ArrayList<CompletableFuture<Config.KASInfo>>();
+                for (int i = 0; i < 8; i++) {
+                    futures.add(kas.getPublicKeyAsync(kasInfo));
+                }
+                respond.countDown();
+                for (var future : futures) {
+                    assertThat(future.get().KID).isEqualTo("r1");
+                    assertThat(future.get().PublicKey).isEqualTo("the key");
+                }
+
+                // asking for the current key again is answered from the cache
+                assertThat(kas.getPublicKey(kasInfo).KID).isEqualTo("r1");
+                assertThat(requests.get()).isEqualTo(1);
+            }
+        } finally {
+            respond.countDown();
+            if (server != null) {
+                server.shutdownNow();
+            }
+        }
+    }
+
     @Test
     void testCallingRewrap() throws IOException {
         var dpopKeypair = CryptoUtils.generateRSAKeypair();
@@ -187,6 +255,278 @@ public class KASClientTest {
         }
     }
 
+    @Test
+    void testCallingBatchRewrap() throws IOException {
+        var dpopKeypair = CryptoUtils.generateRSAKeypair();
+        var dpopKey = new RSAKey.Builder((RSAPublicKey) dpopKeypair.getPublic()).privateKey(dpopKeypair.getPrivate())
+                .build();
+        var serverKeypair = CryptoUtils.generateRSAKeypair();
+        var rewrapCalls = new AtomicInteger();
+        var accessService = bulkRewrapService(serverKeypair, rewrapCalls);
+
+        Server rewrapServer = null;
+        try {
+            rewrapServer = startServer(accessService);
+            var plaintextKeys = new ArrayList<byte[]>();
+            var requests = new ArrayList<SDK.KAS.UnwrapRequest>();
+            var policies = List.of("policy a", "policy b", "denied", "policy a");
+            for (var policy : policies) {
+                var plaintextKey = new byte[32];
+                new Random().nextBytes(plaintextKey);
+                plaintextKeys.add(plaintextKey);
+                Manifest.KeyAccess keyAccess = new Manifest.KeyAccess();
+                keyAccess.url = "http://localhost:" + rewrapServer.getPort();
+                keyAccess.wrappedKey = Base64.getEncoder()
+                        .encodeToString(new AsymEncryption(serverKeypair.getPublic()).encrypt(plaintextKey));
+                requests.add(new SDK.KAS.UnwrapRequest(keyAccess, policy));
+            }
+
+            List<SDK.KAS.UnwrapResult> results;
+            try (var kas = new KASClient(httpClient, aclientFactory, new DefaultSrtSigner(dpopKey), true)) {
+                results = kas.unwrapBatch(requests, KeyType.RSA2048Key);
+            }
+
+            assertThat(rewrapCalls.get()).isEqualTo(1);
+            assertThat(results.size()).isEqualTo(4);
+            for (int i : new int[]{0, 1, 3}) {
+                assertThat(results.get(i).isSuccess()).isTrue();
+                assertThat(results.get(i).getKey()).containsExactly(plaintextKeys.get(i));
+            }
+            assertThat(results.get(2).isSuccess()).isFalse();
+            assertThat(results.get(2).getError()).hasMessageContaining("forbidden");
+        } finally {
+            if (rewrapServer != null) {
+                rewrapServer.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void testBatchRewrapFallsBackToSingleRequestsForALegacyKas() throws IOException {
+        var dpopKeypair = CryptoUtils.generateRSAKeypair();
+        var dpopKey = new RSAKey.Builder((RSAPublicKey) dpopKeypair.getPublic()).privateKey(dpopKeypair.getPrivate())
+                .build();
+        var serverKeypair = CryptoUtils.generateRSAKeypair();
+        var rewrapCalls = new AtomicInteger();
+        // a KAS that only understands a single key access object in the request body
+        AccessServiceGrpc.AccessServiceImplBase accessService = new AccessServiceGrpc.AccessServiceImplBase() {
+            @Override
+            public void rewrap(RewrapRequest request, StreamObserver<RewrapResponse> responseObserver) {
+                rewrapCalls.incrementAndGet();
+                KASClient.RewrapRequestBody req;
+                try {
+                    var requestBodyJson = SignedJWT.parse(request.getSignedRequestToken()).getJWTClaimsSet()
+                            .getStringClaim("requestBody");
+                    req = new Gson().fromJson(requestBodyJson, KASClient.RewrapRequestBody.class);
+                } catch (ParseException e) {
+                    responseObserver.onError(e);
+                    return;
+                }
+                if (req.keyAccess == null) {
+                    responseObserver.onError(Status.INVALID_ARGUMENT.withDescription("missing keyAccess").asRuntimeException());
+                    return;
+                }
+
+                var decryptedKey = new AsymDecryption(serverKeypair.getPrivate())
+                        .decrypt(Base64.getDecoder().decode(req.keyAccess.wrappedKey));
+                responseObserver.onNext(RewrapResponse.newBuilder().setEntityWrappedKey(
+                        ByteString.copyFrom(new AsymEncryption(req.clientPublicKey).encrypt(decryptedKey))).build());
+                responseObserver.onCompleted();
+            }
+        };
+
+        Server rewrapServer = null;
+        try {
+            rewrapServer = startServer(accessService);
+            var plaintextKeys = new ArrayList<byte[]>();
+            var requests = new ArrayList<SDK.KAS.UnwrapRequest>();
+            for (var policy : List.of("policy a", "policy b")) {
+                var plaintextKey = new byte[32];
+                new Random().nextBytes(plaintextKey);
+                plaintextKeys.add(plaintextKey);
+                Manifest.KeyAccess keyAccess = new Manifest.KeyAccess();
+                keyAccess.url = "http://localhost:" + rewrapServer.getPort();
+                keyAccess.wrappedKey = Base64.getEncoder()
+                        .encodeToString(new AsymEncryption(serverKeypair.getPublic()).encrypt(plaintextKey));
+                requests.add(new SDK.KAS.UnwrapRequest(keyAccess, policy));
+            }
+
+            List<SDK.KAS.UnwrapResult> results;
+            try (var kas = new KASClient(httpClient, aclientFactory, new DefaultSrtSigner(dpopKey), true)) {
+                results = kas.unwrapBatch(requests, KeyType.RSA2048Key);
+            }
+
+            // the rejected bulk request, then one request for each key access object
+            assertThat(rewrapCalls.get()).isEqualTo(3);
+            for (int i = 0; i < requests.size(); i++) {
+                assertThat(results.get(i).isSuccess()).isTrue();
+                assertThat(results.get(i).getKey()).containsExactly(plaintextKeys.get(i));
+            }
+        } finally {
+            if (rewrapServer != null) {
+                rewrapServer.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void testBatchRewrapFailuresOnlyFailTheirBatch() throws IOException {
+        var dpopKeypair = CryptoUtils.generateRSAKeypair();
+        var dpopKey = new RSAKey.Builder((RSAPublicKey) dpopKeypair.getPublic()).privateKey(dpopKeypair.getPrivate())
+                .build();
+        var serverKeypair = CryptoUtils.generateRSAKeypair();
+
+        Server rewrapServer = null;
+        try {
+            rewrapServer = startServer(bulkRewrapService(serverKeypair, new AtomicInteger()));
+            var plaintextKey = new byte[32];
+            new Random().nextBytes(plaintextKey);
+            var wrappedKey = Base64.getEncoder()
+                    .encodeToString(new AsymEncryption(serverKeypair.getPublic()).encrypt(plaintextKey));
+            Manifest.KeyAccess working = new Manifest.KeyAccess();
+            working.url = "http://localhost:" + rewrapServer.getPort();
+            working.wrappedKey = wrappedKey;
+            Manifest.KeyAccess broken = new Manifest.KeyAccess();
+            broken.url = "http://broken.example.org";
+            broken.wrappedKey = wrappedKey;
+
+            List<SDK.KAS.UnwrapResult> results;
+            try (var kas = new KASClient(httpClient, aclientFactory, new DefaultSrtSigner(dpopKey), true) {
+                @Override
+                AccessServiceClient getStub(String url) {
+                    if (url.equals(broken.url)) {
+                        throw new IllegalStateException("no client for " + url);
+                    }
+                    return super.getStub(url);
+                }
+            }) {
+                results = kas.unwrapBatch(List.of(
+                        new SDK.KAS.UnwrapRequest(broken, "the policy"),
+                        new SDK.KAS.UnwrapRequest(working, "the policy")), KeyType.RSA2048Key);
+            }
+
+            assertThat(results.get(0).isSuccess()).isFalse();
+            assertThat(results.get(0).getError()).isInstanceOf(IllegalStateException.class);
+            assertThat(results.get(1).isSuccess()).isTrue();
+            assertThat(results.get(1).getKey()).containsExactly(plaintextKey);
+        } finally {
+            if (rewrapServer != null) {
+                rewrapServer.shutdownNow();
+            }
+        }
+    }
+
+    private static AccessServiceGrpc.AccessServiceImplBase bulkRewrapService(KeyPair serverKeypair, AtomicInteger rewrapCalls) {
+        return new AccessServiceGrpc.AccessServiceImplBase() {
+            @Override
+            public void rewrap(RewrapRequest request, StreamObserver<RewrapResponse> responseObserver) {
+                rewrapCalls.incrementAndGet();
+                KASClient.BulkRewrapRequestBody req;
+                try {
+                    var requestBodyJson = SignedJWT.parse(request.getSignedRequestToken()).getJWTClaimsSet()
+                            .getStringClaim("requestBody");
+                    req = new Gson().fromJson(requestBodyJson, KASClient.BulkRewrapRequestBody.class);
+                } catch (ParseException e) {
+                    responseObserver.onError(e);
+                    return;
+                }
+
+                var response = RewrapResponse.newBuilder();
+                for (var policyRequest : req.requests) {
+                    var policyResult = PolicyRewrapResult.newBuilder().setPolicyId(policyRequest.policy.id);
+                    for (var kao : policyRequest.keyAccessObjects) {
+                        var result = KeyAccessRewrapResult.newBuilder().setKeyAccessObjectId(kao.keyAccessObjectId);
+                        if ("denied".equals(policyRequest.policy.body)) {
+                            result.setStatus("fail").setError("forbidden");
+                        } else {
+                            var decryptedKey = new AsymDecryption(serverKeypair.getPrivate())
+                                    .decrypt(Base64.getDecoder().decode(kao.keyAccessObject.wrappedKey));
+                            result.setStatus("permit").setKasWrappedKey(
+                                    ByteString.copyFrom(new AsymEncryption(req.clientPublicKey).encrypt(decryptedKey)));
+                        }
+                        policyResult.addResults(result);
+                    }
+                    response.addResponses(policyResult);
+                }
+                responseObserver.onNext(response.build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    @Test
+    void testReusingECSessionKeys() throws Exception {
+        var dpopKeypair = CryptoUtils.generateRSAKeypair();
+        var dpopKey = new RSAKey.Builder((RSAPublicKey) dpopKeypair.getPublic()).privateKey(dpopKeypair.getPrivate())
+                .build();
+        // the KAS uses a single session key so that the client can reuse the derived key
+        var kasSessionKey = new ECKeyPair(KeyType.EC256Key.getECCurve());
+        var clientPublicKeys = new ArrayList<String>();
+        AccessServiceGrpc.AccessServiceImplBase accessService = new AccessServiceGrpc.AccessServiceImplBase() {
+            @Override
+            public void rewrap(RewrapRequest request, StreamObserver<RewrapResponse> responseObserver) {
+                try {
+                    var requestBodyJson = SignedJWT.parse(request.getSignedRequestToken()).getJWTClaimsSet()
+                            .getStringClaim("requestBody");
+                    var req = new Gson().fromJson(requestBodyJson, KASClient.RewrapRequestBody.class);
+                    synchronized (clientPublicKeys) {
+                        clientPublicKeys.add(req.clientPublicKey);
+                    }
+                    var symKey = ECKeyPair.computeECDHKey(ECKeyPair.publicKeyFromPem(req.clientPublicKey),
+                            kasSessionKey.getPrivateKey());
+                    var sessionKey = ECKeyPair.calculateHKDF(TDF.GLOBAL_KEY_SALT, symKey);
+                    var plaintextKey = Base64.getDecoder().decode(req.keyAccess.wrappedKey);
+                    var wrappedKey = new AesGcm(sessionKey).encrypt(plaintextKey).asBytes();
+                    responseObserver.onNext(RewrapResponse.newBuilder()
+                            .setEntityWrappedKey(ByteString.copyFrom(wrappedKey))
+                            .setSessionPublicKey(kasSessionKey.publicKeyInPEMFormat())
+                            .build());
+                    responseObserver.onCompleted();
+                } catch (Exception e) {
+                    responseObserver.onError(e);
+                }
+            }
+        };
+
+        Server rewrapServer = null;
+        try {
+            rewrapServer = startServer(accessService);
+            try (var kas = new KASClient(httpClient, aclientFactory, new DefaultSrtSigner(dpopKey), true)) {
+                kas.setEcSessionKeyReuse(Duration.ofMinutes(5), 3);
+                for (int i = 0; i < 7; i++) {
+                    var plaintextKey = new byte[32];
+                    new Random().nextBytes(plaintextKey);
+                    Manifest.KeyAccess keyAccess = new Manifest.KeyAccess();
+                    keyAccess.url = "http://localhost:" + rewrapServer.getPort();
+                    // the test KAS treats the wrapped key as the plaintext key
+                    keyAccess.wrappedKey = Base64.getEncoder().encodeToString(plaintextKey);
+                    assertThat(kas.unwrap(keyAccess, "the policy", KeyType.EC256Key)).containsExactly(plaintextKey);
+                }
+
+                // a key pair is used for at most three requests
+                assertThat(clientPublicKeys.size()).isEqualTo(7);
+                assertThat(new HashSet<>(clientPublicKeys).size()).isEqualTo(3);
+                assertThat(clientPublicKeys.get(0)).isEqualTo(clientPublicKeys.get(2));
+                assertThat(clientPublicKeys.get(3)).isNotEqualTo(clientPublicKeys.get(2));
+
+                // without reuse every request gets a new key pair
+                kas.setEcSessionKeyReuse(Duration.ZERO, 0);
+                clientPublicKeys.clear();
+                for (int i = 0; i < 2; i++) {
+                    Manifest.KeyAccess keyAccess = new Manifest.KeyAccess();
+                    keyAccess.url = "http://localhost:" + rewrapServer.getPort();
+                    keyAccess.wrappedKey = Base64.getEncoder().encodeToString(new byte[32]);
+                    kas.unwrap(keyAccess, "the policy", KeyType.EC256Key);
+                }
+                assertThat(clientPublicKeys.get(0)).isNotEqualTo(clientPublicKeys.get(1));
+            }
+        } finally {
+            if (rewrapServer != null) {
+                rewrapServer.shutdownNow();
+            }
+        }
+    }
+
     @Test
     void testCustomSrtSignerIsUsed() throws IOException {
         var serverKeypair = CryptoUtils.generateRSAKeypair();
@@ -348,6 +688,179 @@ public class KASClientTest {
         assertThat(c1).isSameAs(c2);
     }
 
+    @Test
+    void testCachingUnwrappedKeys() throws Exception {
+        var dpopKeypair = CryptoUtils.generateRSAKeypair();
+        var dpopKey = new RSAKey.Builder((RSAPublicKey) dpopKeypair.getPublic()).privateKey(dpopKeypair.getPrivate())
+                .build();
+        var serverKeypair = CryptoUtils.generateRSAKeypair();
+        var rewrapCalls = new AtomicInteger();
+        AccessServiceGrpc.AccessServiceImplBase accessService = new AccessServiceGrpc.AccessServiceImplBase() {
+            @Override
+            public void rewrap(RewrapRequest request, StreamObserver<RewrapResponse> responseObserver) {
+                rewrapCalls.incrementAndGet();
+                try {
+                    var requestBodyJson = SignedJWT.parse(request.getSignedRequestToken()).getJWTClaimsSet()
+                            .getStringClaim("requestBody");
+                    var req = new Gson().fromJson(requestBodyJson, KASClient.RewrapRequestBody.class);
+                    var decryptedKey = new AsymDecryption(serverKeypair.getPrivate())
+                            .decrypt(Base64.getDecoder().decode(req.keyAccess.wrappedKey));
+                    var encryptedKey = new AsymEncryption(req.clientPublicKey).encrypt(decryptedKey);
+                    responseObserver.onNext(
+                            RewrapResponse.newBuilder().setEntityWrappedKey(ByteString.copyFrom(encryptedKey)).build());
+                    responseObserver.onCompleted();
+                } catch (Exception e) {
+                    responseObserver.onError(e);
+                }
+            }
+        };
+
+        Server rewrapServer = null;
+        try {
+            rewrapServer = startServer(accessService);
+            var plaintextKey = new byte[32];
+            new Random().nextBytes(plaintextKey);
+            Manifest.KeyAccess keyAccess = new Manifest.KeyAccess();
+            keyAccess.url = "http://localhost:" + rewrapServer.getPort();
+            keyAccess.wrappedKey = Base64.getEncoder()
+                    .encodeToString(new AsymEncryption(serverKeypair.getPublic()).encrypt(plaintextKey));
+
+            var cache = new RewrapCache();
+            try (var kas = new KASClient(httpClient, aclientFactory, new DefaultSrtSigner(dpopKey), true);
+                 var otherEntity = new KASClient(httpClient, aclientFactory, new DefaultSrtSigner(dpopKey), true)) {
+                kas.setRewrapCache(cache, "alice");
+                otherEntity.setRewrapCache(cache, "bob");
+
+                assertThat(kas.unwrap(keyAccess, "the policy", KeyType.RSA2048Key)).containsExactly(plaintextKey);
+                assertThat(kas.unwrap(keyAccess, "the policy", KeyType.RSA2048Key)).containsExactly(plaintextKey);
+                assertThat(rewrapCalls.get()).isEqualTo(1);
+
+                // keys are never shared between entities, or between policies
+                assertThat(otherEntity.unwrap(keyAccess, "the policy", KeyType.RSA2048Key)).containsExactly(plaintextKey);
+                assertThat(kas.unwrap(keyAccess, "another policy", KeyType.RSA2048Key)).containsExactly(plaintextKey);
+                assertThat(rewrapCalls.get()).isEqualTo(3);
+
+                cache.invalidate(keyAccess.url);
+                assertThat(kas.unwrap(keyAccess, "the policy", KeyType.RSA2048Key)).containsExactly(plaintextKey);
+                assertThat(rewrapCalls.get()).isEqualTo(4);
+                assertThat(kas.getRewrapCache()).isSameAs(cache);
+            }
+        } finally {
+            if (rewrapServer != null) {
+                rewrapServer.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void testConcurrentStubLookups() throws Exception {
+        Map<String, AtomicInteger> created = new ConcurrentHashMap<>();
+        var dpopKeypair = CryptoUtils.generateRSAKeypair();
+        var dpopKey = new RSAKey.Builder((RSAPublicKey) dpopKeypair.getPublic()).privateKey(dpopKeypair.getPrivate())
+                .build();
+        var kasClient = new KASClient(httpClient, (client, addr) -> {
+            created.computeIfAbsent(addr, a -> new AtomicInteger()).incrementAndGet();
+            return aclientFactory.apply(client, addr);
+        }, new DefaultSrtSigner(dpopKey), true);
+
+        var urls = List.of("http://example.org", "example.org:80", "http://example.org:80",
+                "http://kas.example.org:8080", "kas.example.org:8080");
+        var executor = Executors.newFixedThreadPool(16);
+        try {
+            var start = new CountDownLatch(1);
+            var futures = new ArrayList<Future<List<Object>>>();
+            for (int t = 0; t < 16; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    var stubs = new ArrayList<Object>();
+                    for (int i = 0; i < 1000; i++) {
+                        stubs.add(kasClient.getStub(urls.get(i % urls.size())));
+                    }
+                    return stubs;
+                }));
+            }
+            start.countDown();
+            var first = futures.get(0).get();
+            for (var future : futures) {
+                var stubs = future.get();
+                for (int i = 0; i < stubs.size(); i++) {
+                    assertThat(stubs.get(i)).isSameAs(first.get(i));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(new HashSet<>(created.keySet())).isEqualTo(Set.of("http://example.org:80", "http://kas.example.org:8080"));
+        assertThat(created.get("http://example.org:80").get()).isEqualTo(1);
+        assertThat(created.get("http://kas.example.org:8080").get()).isEqualTo(1);
+    }
+
+    @Test
+    void testConcurrentUnwraps() throws Exception {
+        var dpopKeypair = CryptoUtils.generateRSAKeypair();
+        var dpopKey = new RSAKey.Builder((RSAPublicKey) dpopKeypair.getPublic()).privateKey(dpopKeypair.getPrivate())
+                .build();
+        var serverKeypair = CryptoUtils.generateRSAKeypair();
+        var clientPublicKeys = ConcurrentHashMap.<String>newKeySet();
+        AccessServiceGrpc.AccessServiceImplBase accessService = new AccessServiceGrpc.AccessServiceImplBase() {
+            @Override
+            public void rewrap(RewrapRequest request, StreamObserver<RewrapResponse> responseObserver) {
+                try {
+                    var requestBodyJson = SignedJWT.parse(request.getSignedRequestToken()).getJWTClaimsSet()
+                            .getStringClaim("requestBody");
+                    var req = new Gson().fromJson(requestBodyJson, KASClient.RewrapRequestBody.class);
+                    clientPublicKeys.add(req.clientPublicKey);
+                    var decryptedKey = new AsymDecryption(serverKeypair.getPrivate())
+                            .decrypt(Base64.getDecoder().decode(req.keyAccess.wrappedKey));
+                    var encryptedKey = new AsymEncryption(req.clientPublicKey).encrypt(decryptedKey);
+                    responseObserver.onNext(
+                            RewrapResponse.newBuilder().setEntityWrappedKey(ByteString.copyFrom(encryptedKey)).build());
+                    responseObserver.onCompleted();
+                } catch (Exception e) {
+                    responseObserver.onError(e);
+                }
+            }
+        };
+
+        Server rewrapServer = null;
+        var executor = Executors.newFixedThreadPool(16);
+        try {
+            rewrapServer = startServer(accessService);
+            var kasUrl = "http://localhost:" + rewrapServer.getPort();
+            try (var kas = new KASClient(httpClient, aclientFactory, new DefaultSrtSigner(dpopKey), true)) {
+                var start = new CountDownLatch(1);
+                var futures = new ArrayList<Future<?>>();
+                for (int t = 0; t < 16; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < 10; i++) {
+                            var plaintextKey = new byte[32];
+                            new Random().nextBytes(plaintextKey);
+                            Manifest.KeyAccess keyAccess = new Manifest.KeyAccess();
+                            keyAccess.url = kasUrl;
+                            keyAccess.wrappedKey = Base64.getEncoder().encodeToString(
+                                    new AsymEncryption(serverKeypair.getPublic()).encrypt(plaintextKey));
+                            assertThat(kas.unwrap(keyAccess, "the policy", KeyType.RSA2048Key)).containsExactly(plaintextKey);
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (var future : futures) {
+                    future.get();
+                }
+            }
+            // every unwrap, including the first concurrent ones, shares one RSA key pair
+            assertThat(clientPublicKeys.size()).isEqualTo(1);
+        } finally {
+            executor.shutdown();
+            if (rewrapServer != null) {
+                rewrapServer.shutdownNow();
+            }
+        }
+    }
+
     private static Server startServer(AccessServiceGrpc.AccessServiceImplBase accessService) throws IOException {
         return ServerBuilder
                 .forPort(getRandomPort())
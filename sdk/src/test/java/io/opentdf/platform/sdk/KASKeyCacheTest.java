@@ -3,8 +3,17 @@ package io.opentdf.platform.sdk;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.time.LocalDateTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -52,7 +61,7 @@ class KASKeyCacheTest {
 
         // Simulate time passing by modifying the timestamp directly
         KASKeyRequest cacheKey = new KASKeyRequest("https://example.com/kas1", "rsa:2048", "kid1");
-        TimeStampedKASInfo timeStampedKASInfo = new TimeStampedKASInfo(kasInfo1, LocalDateTime.now().minus(6, ChronoUnit.MINUTES));
+        TimeStampedKASInfo timeStampedKASInfo = new TimeStampedKASInfo(kasInfo1, Instant.now().minus(6, ChronoUnit.MINUTES));
         kasKeyCache.cache.put(cacheKey, timeStampedKASInfo);
 
         // Attempt to retrieve the item after the time limit
@@ -94,6 +103,20 @@ class KASKeyCacheTest {
         assertEquals("publicKey1", result.PublicKey);
     }
 
+    @Test
+    void testStoreAndGet_CurrentKeyWithoutKID() {
+        // Store a key that was fetched without asking for a particular KID
+        var request = new Config.KASInfo();
+        request.URL = kasInfo1.URL;
+        request.Algorithm = kasInfo1.Algorithm;
+        kasKeyCache.store(request, kasInfo1);
+
+        // The key can be looked up both by the request and by its own KID
+        assertSame(kasInfo1, kasKeyCache.get(kasInfo1.URL, kasInfo1.Algorithm, null));
+        assertSame(kasInfo1, kasKeyCache.get(kasInfo1.URL, kasInfo1.Algorithm, "kid1"));
+        assertEquals(2, kasKeyCache.size());
+    }
+
     @Test
     void testClearCache() {
         // Store an item in the cache
@@ -138,4 +161,152 @@ class KASKeyCacheTest {
         assertEquals(keyRequest1, keyRequest2);
         assertEquals(keyRequest1.hashCode(), keyRequest2.hashCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        var cache = new KASKeyCache(Duration.ofMinutes(5), 2, Duration.ZERO);
+        var kasInfo3 = new Config.KASInfo();
+        kasInfo3.URL = "https://example.com/kas3";
+        kasInfo3.Algorithm = "rsa:2048";
+        kasInfo3.KID = "kid3";
+
+        cache.store(kasInfo1);
+        cache.store(kasInfo2);
+        // touch the first entry so that the second one is the least recently used
+        assertNotNull(cache.get(kasInfo1.URL, kasInfo1.Algorithm, kasInfo1.KID));
+        cache.store(kasInfo3);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNotNull(cache.get(kasInfo1.URL, kasInfo1.Algorithm, kasInfo1.KID));
+        assertNull(cache.get(kasInfo2.URL, kasInfo2.Algorithm, kasInfo2.KID));
+        assertNotNull(cache.get(kasInfo3.URL, kasInfo3.Algorithm, kasInfo3.KID));
+    }
+
+    @Test
+    void testEntriesExpireAcrossADaylightSavingChange() {
+        var cache = new KASKeyCache(Duration.ofMinutes(5), 10, Duration.ZERO);
+        var newYork = ZoneId.of("America/New_York");
+        // 01:50 EDT, ten minutes before the clocks go back to 01:00 EST
+        var start = Instant.parse("2025-11-02T05:50:00Z");
+        cache.clock = Clock.fixed(start, newYork);
+        cache.store(kasInfo1);
+
+        cache.clock = Clock.fixed(start.plus(Duration.ofMinutes(10)), newYork);
+        assertNull(cache.get(kasInfo1.URL, kasInfo1.Algorithm, kasInfo1.KID));
+        assertEquals(1, cache.getExpirationCount());
+    }
+
+    @Test
+    void testConfigurableTTLAndCounters() {
+        var cache = new KASKeyCache(Duration.ofSeconds(10), 10, Duration.ZERO);
+        var start = Instant.parse("2025-01-01T00:00:00Z");
+        cache.clock = Clock.fixed(start, ZoneOffset.UTC);
+        cache.store(kasInfo1);
+
+        cache.clock = Clock.fixed(start.plusSeconds(9), ZoneOffset.UTC);
+        assertNotNull(cache.get(kasInfo1.URL, kasInfo1.Algorithm, kasInfo1.KID));
+        assertNull(cache.get(kasInfo2.URL, kasInfo2.Algorithm, kasInfo2.KID));
+
+        cache.clock = Clock.fixed(start.plusSeconds(10), ZoneOffset.UTC);
+        assertNull(cache.get(kasInfo1.URL, kasInfo1.Algorithm, kasInfo1.KID));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getExpirationCount());
+        assertEquals(0, cache.getEvictionCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testEntriesAreRefreshedAheadOfExpiry() {
+        var cache = new KASKeyCache(Duration.ofSeconds(60), 10, Duration.ofSeconds(10));
+        var start = Instant.parse("2025-01-01T00:00:00Z");
+        cache.clock = Clock.fixed(start, ZoneOffset.UTC);
+        var loads = new AtomicInteger();
+        cache.setRefresher(request -> {
+            loads.incrementAndGet();
+            var refreshed = new Config.KASInfo();
+            refreshed.URL = request.URL;
+            refreshed.Algorithm = request.Algorithm;
+            refreshed.KID = request.KID;
+            refreshed.PublicKey = "refreshedKey";
+            return refreshed;
+        }, Runnable::run);
+        cache.store(kasInfo1);
+
+        // outside the refresh window nothing is reloaded
+        cache.clock = Clock.fixed(start.plusSeconds(49), ZoneOffset.UTC);
+        assertEquals("publicKey1", cache.get(kasInfo1.URL, kasInfo1.Algorithm, kasInfo1.KID).PublicKey);
+        assertEquals(0, loads.get());
+
+        // inside the window the current value is returned and the entry is reloaded
+        cache.clock = Clock.fixed(start.plusSeconds(55), ZoneOffset.UTC);
+        assertEquals("publicKey1", cache.get(kasInfo1.URL, kasInfo1.Algorithm, kasInfo1.KID).PublicKey);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getRefreshCount());
+
+        // the refreshed entry is valid for a full TTL from when it was reloaded
+        cache.clock = Clock.fixed(start.plusSeconds(100), ZoneOffset.UTC);
+        var result = cache.get(kasInfo1.URL, kasInfo1.Algorithm, kasInfo1.KID);
+        assertNotNull(result);
+        assertEquals("refreshedKey", result.PublicKey);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testFailedRefreshKeepsTheCurrentEntry() {
+        var cache = new KASKeyCache(Duration.ofSeconds(60), 10, Duration.ofSeconds(10));
+        var start = Instant.parse("2025-01-01T00:00:00Z");
+        cache.clock = Clock.fixed(start, ZoneOffset.UTC);
+        cache.setRefresher(request -> {
+            throw new SDKException("kas is down");
+        }, Runnable::run);
+        cache.store(kasInfo1);
+
+        cache.clock = Clock.fixed(start.plusSeconds(55), ZoneOffset.UTC);
+        assertEquals("publicKey1", cache.get(kasInfo1.URL, kasInfo1.Algorithm, kasInfo1.KID).PublicKey);
+        assertEquals("publicKey1", cache.get(kasInfo1.URL, kasInfo1.Algorithm, kasInfo1.KID).PublicKey);
+        assertEquals(0, cache.getRefreshCount());
+    }
+
+    @Test
+    void testInvalidLimitsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new KASKeyCache(Duration.ZERO, 10, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new KASKeyCache(Duration.ofMinutes(1), 0, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new KASKeyCache(Duration.ofMinutes(1), 10, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void testConcurrentAccess() throws Exception {
+        var cache = new KASKeyCache(Duration.ofMinutes(5), 50, Duration.ZERO);
+        int threads = 8;
+        int iterations = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        var kasInfo = new Config.KASInfo();
+                        kasInfo.URL = "https://example.com/kas" + ((thread * iterations + i) % 100);
+                        kasInfo.Algorithm = "rsa:2048";
+                        kasInfo.KID = "kid";
+                        if (cache.get(kasInfo.URL, kasInfo.Algorithm, kasInfo.KID) == null) {
+                            cache.store(kasInfo);
+                        }
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(cache.size() <= 50);
+        assertEquals((long) threads * iterations, cache.getHitCount() + cache.getMissCount());
+    }
+}
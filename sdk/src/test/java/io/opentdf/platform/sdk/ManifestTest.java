@@ -4,11 +4,17 @@ import com.google.gson.Gson;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class ManifestTest {
@@ -89,6 +95,133 @@ public class ManifestTest {
         assertEquals(manifest, deserializedAgain, "something changed when we deserialized -> serialized -> deserialized");
     }
 
+    private static String manifestWithSegments(String segments) {
+        return "{\"encryptionInformation\":{\"integrityInformation\":{" +
+                "\"rootSignature\":{\"alg\":\"HS256\",\"sig\":\"c2ln\"}," +
+                "\"segmentHashAlg\":\"GMAC\",\"segmentSizeDefault\":10,\"encryptedSegmentSizeDefault\":38," +
+                "\"segments\":[" + segments + "]}," +
+                "\"keyAccess\":[],\"policy\":\"e30=\"}," +
+                "\"payload\":{\"isEncrypted\":true,\"url\":\"0.payload\"}}";
+    }
+
+    @Test
+    void testSegmentHashesAreHeldCompactly() {
+        String canonical = Base64.getEncoder().encodeToString(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15});
+        String segmentsJson = "{\"hash\":\"" + canonical + "\",\"segmentSize\":10,\"encryptedSegmentSize\":38}," +
+                // Base64 without padding and a hash that isn't Base64 at all are kept as they are
+                "{\"hash\":\"YWJj ZA\",\"segmentSize\":\"10\",\"encryptedSegmentSize\":38,\"unknown\":[1]}," +
+                "{\"encryptedSegmentSize\":32,\"hash\":\"YQ\",\"segmentSize\":4}";
+
+        Manifest manifest = Manifest.readManifest(new StringReader(manifestWithSegments(segmentsJson)));
+
+        var segments = manifest.encryptionInformation.integrityInformation.segments;
+        assertThat(segments).isInstanceOf(Manifest.SegmentList.class).hasSize(3);
+        assertThat(segments).extracting(s -> s.hash).containsExactly(canonical, "YWJj ZA", "YQ");
+        assertThat(segments).extracting(s -> s.segmentSize).containsExactly(10L, 10L, 4L);
+        assertThat(segments).extracting(s -> s.encryptedSegmentSize).containsExactly(38L, 38L, 32L);
+
+        var segmentList = (Manifest.SegmentList) segments;
+        assertThat(segmentList.decodedHash(0)).isEqualTo(Base64.getDecoder().decode(canonical));
+        assertThat(segmentList.decodedHash(2)).isEqualTo("a".getBytes(StandardCharsets.UTF_8));
+        assertThat(segmentList.hashMatches(0, Base64.getDecoder().decode(canonical))).isTrue();
+        assertThat(segmentList.hashMatches(0, new byte[15])).isFalse();
+        // the hash doesn't match the canonical encoding of the bytes it decodes to
+        assertThat(segmentList.hashMatches(2, "a".getBytes(StandardCharsets.UTF_8))).isFalse();
+
+        var written = new StringWriter();
+        Manifest.writeManifest(manifest, written);
+        assertThat(written.toString()).isEqualTo(Manifest.toJson(manifest));
+        assertThat(written.toString()).contains("\"segments\":[{\"hash\":\"" + canonical
+                + "\",\"segmentSize\":10,\"encryptedSegmentSize\":38},{\"hash\":\"YWJj ZA\"");
+        assertThat(Manifest.readManifest(written.toString())).isEqualTo(manifest);
+    }
+
+    @Test
+    void testEditingSegmentsThroughTheManifest() {
+        String segmentsJson = "{\"hash\":\"YWJj\",\"segmentSize\":10,\"encryptedSegmentSize\":38}," +
+                "{\"hash\":\"ZGVm\",\"segmentSize\":10,\"encryptedSegmentSize\":38}," +
+                "{\"hash\":\"Z2hp\",\"segmentSize\":4,\"encryptedSegmentSize\":32}";
+        Manifest manifest = Manifest.readManifest(new StringReader(manifestWithSegments(segmentsJson)));
+        var segments = manifest.encryptionInformation.integrityInformation.segments;
+
+        segments.get(1).hash = "edited";
+        segments.get(2).segmentSize = 5;
+        var replacement = new Manifest.Segment();
+        replacement.hash = "cmVwbGFjZWQ=";
+        replacement.segmentSize = 10;
+        replacement.encryptedSegmentSize = 38;
+        segments.set(0, replacement);
+
+        assertThat(segments.get(0)).isSameAs(replacement);
+        assertThat(segments.get(1).hash).isEqualTo("edited");
+        assertThat(segments.get(2).segmentSize).isEqualTo(5);
+
+        var segmentList = Manifest.SegmentList.of(segments);
+        assertThat(segmentList.hash(0)).isEqualTo("cmVwbGFjZWQ=");
+        assertThat(segmentList.hash(1)).isEqualTo("edited");
+        assertThat(segmentList.plaintextSize()).isEqualTo(25);
+
+        var read = Manifest.readManifest(Manifest.toJson(manifest));
+        assertThat(read.encryptionInformation.integrityInformation.segments)
+                .extracting(segment -> segment.hash).containsExactly("cmVwbGFjZWQ=", "edited", "Z2hp");
+        assertThat(read).isEqualTo(manifest);
+
+        segments.remove(1);
+        assertThat(segments).extracting(segment -> segment.hash).containsExactly("cmVwbGFjZWQ=", "Z2hp");
+        assertThatThrownBy(() -> segments.set(0, new Manifest.Segment())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testLookingUpSegmentsByOffset() {
+        var random = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            int count = 1 + random.nextInt(40);
+            // most lists have uniform segments and a shorter last one, some have empty or odd sized ones
+            boolean uniform = trial % 2 == 0;
+            var segments = new Manifest.SegmentList(1);
+            var expected = new ArrayList<Manifest.Segment>();
+            for (int i = 0; i < count; i++) {
+                long segmentSize = uniform && i < count - 1 ? 100 : random.nextInt(3) * 50;
+                byte[] hash = new byte[uniform || random.nextBoolean() ? 16 : 32];
+                random.nextBytes(hash);
+
+                var segment = new Manifest.Segment();
+                segment.hash = Base64.getEncoder().encodeToString(hash);
+                segment.segmentSize = segmentSize;
+                segment.encryptedSegmentSize = segmentSize + 28;
+                expected.add(segment);
+                segments.add(hash, segment.segmentSize, segment.encryptedSegmentSize);
+            }
+
+            assertThat(segments).isEqualTo(expected);
+            long plaintextOffset = 0;
+            long encryptedOffset = 0;
+            for (int i = 0; i < count; i++) {
+                assertThat(segments.plaintextOffset(i)).isEqualTo(plaintextOffset);
+                assertThat(segments.encryptedOffset(i)).isEqualTo(encryptedOffset);
+                for (long offset = plaintextOffset; offset < plaintextOffset + expected.get(i).segmentSize; offset += 25) {
+                    assertThat(segments.segmentAt(offset)).isEqualTo(i);
+                }
+                plaintextOffset += expected.get(i).segmentSize;
+                encryptedOffset += expected.get(i).encryptedSegmentSize;
+            }
+            assertThat(segments.plaintextSize()).isEqualTo(plaintextOffset);
+            assertThat(segments.encryptedOffset(count)).isEqualTo(encryptedOffset);
+            long end = plaintextOffset;
+            assertThatThrownBy(() -> segments.segmentAt(end)).isInstanceOf(IndexOutOfBoundsException.class);
+        }
+    }
+
+    @Test
+    void testSegmentsWithoutHashesAreInvalid() {
+        assertThatThrownBy(() -> Manifest.readManifest(manifestWithSegments("null")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid integrity segment");
+        assertThatThrownBy(() -> Manifest.readManifest(manifestWithSegments("{\"segmentSize\":10}")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid integrity segment");
+    }
+
     @Test
     void testAssertionNull() {
         String kManifestJsonFromTDF = "{\n" +
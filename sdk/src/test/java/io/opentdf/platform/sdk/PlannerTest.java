@@ -9,9 +9,14 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -131,6 +136,7 @@ class PlannerTest {
                 }
                 return ret;
         });
+        Mockito.when(kas.getPublicKeyAsync(Mockito.any())).thenCallRealMethod();
         var tdfConfig = new Config.TDFConfig();
         tdfConfig.autoconfigure = true;
         tdfConfig.wrappingKeyType = KeyType.RSA2048Key;
@@ -172,6 +178,47 @@ class PlannerTest {
         assertThat(kasInfo3.PublicKey).isEqualTo("pem3");
     }
 
+    @Test
+    void testFetchingDistinctKeysConcurrently() {
+        var kas = Mockito.mock(SDK.KAS.class);
+        var requests = new ConcurrentHashMap<String, AtomicInteger>();
+        // no key is returned until both have been requested, so this only succeeds if they are fetched
+        // at the same time. the responses time out rather than hang if they aren't
+        var pending = new ArrayList<Runnable>();
+        Mockito.when(kas.getPublicKeyAsync(Mockito.any())).thenAnswer(invocation -> {
+            Config.KASInfo kasInfo = invocation.getArgument(0, Config.KASInfo.class);
+            requests.computeIfAbsent(kasInfo.URL, u -> new AtomicInteger()).incrementAndGet();
+            var ret = new Config.KASInfo();
+            ret.URL = kasInfo.URL;
+            ret.Algorithm = kasInfo.Algorithm;
+            ret.KID = "kid-" + kasInfo.URL;
+            ret.PublicKey = "pem-" + kasInfo.URL;
+            var response = new CompletableFuture<Config.KASInfo>();
+            pending.add(() -> response.complete(ret));
+            if (pending.size() == 2) {
+                pending.forEach(Runnable::run);
+            }
+            return response.orTimeout(10, TimeUnit.SECONDS);
+        });
+        var tdfConfig = new Config.TDFConfig();
+        tdfConfig.wrappingKeyType = KeyType.RSA2048Key;
+        var planner = new Planner(tdfConfig, new FakeServicesBuilder().setKas(kas).build(), (ignore1, ignored2) ->  { throw new IllegalArgumentException("no granter needed"); });
+        var plan = List.of(
+                new Autoconfigure.KeySplitTemplate("https://kas1.example.com", "split1", null, null),
+                new Autoconfigure.KeySplitTemplate("https://kas2.example.com", "split1", null, null),
+                new Autoconfigure.KeySplitTemplate("https://kas1.example.com", "split2", null, null)
+        );
+
+        Map<String, List<Config.KASInfo>> filledInPlan = planner.resolveKeys(plan);
+
+        assertThat(filledInPlan.get("split1")).asList().hasSize(2);
+        assertThat(filledInPlan.get("split2")).asList().hasSize(1);
+        assertThat(filledInPlan.get("split2").get(0)).isSameAs(filledInPlan.get("split1").get(0));
+        assertThat(filledInPlan.get("split1").get(1).PublicKey).isEqualTo("pem-https://kas2.example.com");
+        assertThat(requests.get("https://kas1.example.com").get()).isEqualTo(1);
+        assertThat(requests.get("https://kas2.example.com").get()).isEqualTo(1);
+    }
+
     @Test
     void returnsOnlyDefaultKasesIfPresent() {
         var kas1 = new Config.KASInfo();
@@ -238,6 +285,7 @@ class PlannerTest {
             }
             return ret;
         });
+        Mockito.when(kas.getPublicKeyAsync(Mockito.any())).thenCallRealMethod();
         // Arrange
         var kas1 = new Config.KASInfo();
         kas1.URL = "https://kas1.example.com";
@@ -0,0 +1,138 @@
+package io.opentdf.platform.sdk;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RewrapCacheTest {
+
+    private RewrapCache cache;
+    private Manifest.KeyAccess keyAccess1;
+    private Manifest.KeyAccess keyAccess2;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RewrapCache(Duration.ofMinutes(1), 2);
+        keyAccess1 = keyAccess("https://example.com/kas1", "wrapped1", "binding1");
+        keyAccess2 = keyAccess("https://example.com/kas2", "wrapped2", "binding2");
+    }
+
+    private static Manifest.KeyAccess keyAccess(String url, String wrappedKey, String bindingHash) {
+        var keyAccess = new Manifest.KeyAccess();
+        keyAccess.url = url;
+        keyAccess.wrappedKey = wrappedKey;
+        var binding = new Manifest.PolicyBinding();
+        binding.alg = "HS256";
+        binding.hash = bindingHash;
+        keyAccess.policyBinding = binding;
+        return keyAccess;
+    }
+
+    private byte[] cachedKey(RewrapCache.Key key) {
+        synchronized (cache.cache) {
+            return cache.cache.get(key).unwrappedKey;
+        }
+    }
+
+    @Test
+    void testPutAndGet() {
+        var key = RewrapCache.key(keyAccess1, "policy", "alice");
+        assertNull(cache.get(key));
+
+        byte[] unwrapped = {1, 2, 3};
+        cache.put(key, keyAccess1.url, unwrapped);
+        unwrapped[0] = 9;
+
+        byte[] result = cache.get(key);
+        assertArrayEquals(new byte[]{1, 2, 3}, result);
+        result[1] = 9;
+        assertArrayEquals(new byte[]{1, 2, 3}, cache.get(key), "callers get a copy of the cached key");
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testKeyDependsOnEveryField() {
+        var key = RewrapCache.key(keyAccess1, "policy", "alice");
+        assertEquals(key, RewrapCache.key(keyAccess("https://example.com/kas1", "wrapped1", "binding1"), "policy", "alice"));
+
+        assertNotEquals(key, RewrapCache.key(keyAccess1, "policy", "bob"));
+        assertNotEquals(key, RewrapCache.key(keyAccess1, "other policy", "alice"));
+        assertNotEquals(key, RewrapCache.key(keyAccess("https://example.com/kas2", "wrapped1", "binding1"), "policy", "alice"));
+        assertNotEquals(key, RewrapCache.key(keyAccess("https://example.com/kas1", "wrapped2", "binding1"), "policy", "alice"));
+        assertNotEquals(key, RewrapCache.key(keyAccess("https://example.com/kas1", "wrapped1", "binding2"), "policy", "alice"));
+
+        var legacyBinding = keyAccess("https://example.com/kas1", "wrapped1", "binding1");
+        legacyBinding.policyBinding = "binding1";
+        assertNotEquals(key, RewrapCache.key(legacyBinding, "policy", "alice"));
+        // the fields are length prefixed, so moving bytes from one field to the next changes the key
+        assertNotEquals(RewrapCache.key(keyAccess1, "ab", "c"), RewrapCache.key(keyAccess1, "a", "bc"));
+    }
+
+    @Test
+    void testExpiredKeysAreZeroed() {
+        var now = Instant.parse("2025-01-01T00:00:00Z");
+        cache.clock = Clock.fixed(now, ZoneOffset.UTC);
+        var key = RewrapCache.key(keyAccess1, "policy", "alice");
+        cache.put(key, keyAccess1.url, new byte[]{1, 2, 3});
+        byte[] stored = cachedKey(key);
+
+        cache.clock = Clock.fixed(now.plus(Duration.ofMinutes(1)), ZoneOffset.UTC);
+        assertNull(cache.get(key));
+        assertArrayEquals(new byte[3], stored);
+        assertEquals(1, cache.getExpirationCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testLeastRecentlyUsedKeyIsEvictedAndZeroed() {
+        var key1 = RewrapCache.key(keyAccess1, "policy", "alice");
+        var key2 = RewrapCache.key(keyAccess2, "policy", "alice");
+        var key3 = RewrapCache.key(keyAccess1, "policy", "bob");
+        cache.put(key1, keyAccess1.url, new byte[]{1});
+        cache.put(key2, keyAccess2.url, new byte[]{2});
+        byte[] stored2 = cachedKey(key2);
+        assertNotNull(cache.get(key1));
+
+        cache.put(key3, keyAccess1.url, new byte[]{3});
+
+        assertNull(cache.get(key2));
+        assertArrayEquals(new byte[1], stored2);
+        assertArrayEquals(new byte[]{1}, cache.get(key1));
+        assertArrayEquals(new byte[]{3}, cache.get(key3));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void testInvalidation() {
+        var key1 = RewrapCache.key(keyAccess1, "policy", "alice");
+        var key2 = RewrapCache.key(keyAccess2, "policy", "alice");
+        cache.put(key1, keyAccess1.url, new byte[]{1});
+        cache.put(key2, keyAccess2.url, new byte[]{2});
+        byte[] stored1 = cachedKey(key1);
+        byte[] stored2 = cachedKey(key2);
+
+        cache.invalidate(keyAccess1.url);
+        assertNull(cache.get(key1));
+        assertArrayEquals(new byte[1], stored1);
+        assertArrayEquals(new byte[]{2}, cache.get(key2));
+
+        cache.invalidateAll();
+        assertNull(cache.get(key2));
+        assertArrayEquals(new byte[1], stored2);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testLimitsAreChecked() {
+        assertThrows(IllegalArgumentException.class, () -> new RewrapCache(Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RewrapCache(Duration.ofMinutes(1), 0));
+        assertThrows(NullPointerException.class, () -> new RewrapCache(null, 1));
+    }
+}
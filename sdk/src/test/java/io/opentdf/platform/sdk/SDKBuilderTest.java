@@ -681,6 +681,17 @@ public class SDKBuilderTest {
         });
     }
 
+    @Test
+    void testUseVirtualThreads() {
+        var builder = SDKBuilder.newBuilder();
+        if (Runtime.version().feature() < 21) {
+            assertThrows(SDKException.class, () -> builder.useVirtualThreads(true));
+        } else {
+            assertThat(builder.useVirtualThreads(true)).isSameAs(builder);
+        }
+        assertThat(builder.useVirtualThreads(false)).isSameAs(builder);
+    }
+
     public static int getRandomPort() throws IOException {
         int randomPort;
         try (ServerSocket socket = new ServerSocket(0)) {
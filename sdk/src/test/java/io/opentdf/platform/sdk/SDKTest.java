@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -134,6 +135,36 @@ class SDKTest {
         }
     }
 
+    @Test
+    void testInspectingATDFReadsItOnce() throws IOException {
+        try (var tdfStream = SDKTest.class.getClassLoader().getResourceAsStream("sample.txt.tdf")) {
+            assertThat(tdfStream).isNotNull();
+            var reads = new AtomicInteger();
+            var chan = new SeekableInMemoryByteChannel(tdfStream.readAllBytes()) {
+                @Override
+                public int read(ByteBuffer buf) throws IOException {
+                    reads.incrementAndGet();
+                    return super.read(buf);
+                }
+            };
+
+            var handle = TDFHandle.open(chan);
+            int readsToOpen = reads.get();
+            assertThat(handle.isTDF()).isTrue();
+            assertThat(reads.get()).isEqualTo(readsToOpen);
+
+            var manifest = handle.readManifest();
+            int readsToParse = reads.get();
+            assertThat(readsToParse).isGreaterThan(readsToOpen);
+            var policyObject = handle.decodePolicyObject();
+            assertThat(policyObject.uuid).isEqualTo("98bb8a81-5217-4a31-8852-932d29d71aac");
+            assertThat(handle.readManifest()).isSameAs(manifest);
+            assertThat(handle.decodePolicyObject()).isSameAs(policyObject);
+            assertThat(new TDFReader(handle).readPolicyObject()).isSameAs(policyObject);
+            assertThat(reads.get()).isEqualTo(readsToParse);
+        }
+    }
+
     @Test
     void testReadingRandomBytes() {
         var tdf = new byte[2023];
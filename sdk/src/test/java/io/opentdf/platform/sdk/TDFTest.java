@@ -11,6 +11,9 @@ import io.opentdf.platform.policy.kasregistry.KeyAccessServerRegistryServiceClie
 import io.opentdf.platform.policy.kasregistry.ListKeyAccessServersRequest;
 import io.opentdf.platform.policy.kasregistry.ListKeyAccessServersResponse;
 import io.opentdf.platform.sdk.TDF.Reader;
+import kotlin.Unit;
+import kotlin.jvm.functions.Function0;
+import kotlin.jvm.functions.Function1;
 import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -21,15 +24,25 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.security.KeyPair;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.Map;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
@@ -153,6 +166,14 @@ public class TDFTest {
                         // this never happens in tests
                     }
                 });
+        when(kasRegistryService.listKeyAccessServers(any(ListKeyAccessServersRequest.class), any(), any()))
+                .thenAnswer(invocation -> {
+                    Function1<ResponseMessage<ListKeyAccessServersResponse>, Unit> onResult = invocation.getArgument(2);
+                    onResult.invoke(new ResponseMessage.Success<>(mockResponse,
+                            Collections.emptyMap(),
+                            Collections.emptyMap()));
+                    return (Function0<Unit>) () -> Unit.INSTANCE;
+                });
     }
 
     @Test
@@ -708,6 +729,473 @@ public class TDFTest {
 
     }
 
+    @Test
+    public void testCreatingTDFWithParallelEncryption() throws Exception {
+        var random = new Random();
+        var data = new byte[(int) (Config.MIN_SEGMENT_SIZE * 9.5)];
+        random.nextBytes(data);
+
+        var executor = Executors.newFixedThreadPool(3);
+        try {
+            var configs = List.of(
+                    Config.newTDFConfig(
+                            Config.withAutoconfigure(false),
+                            Config.withKasInformation(getRSAKASInfos()),
+                            Config.withSegmentSize(Config.MIN_SEGMENT_SIZE),
+                            Config.withEncryptParallelism(4)),
+                    Config.newTDFConfig(
+                            Config.withAutoconfigure(false),
+                            Config.withKasInformation(getRSAKASInfos()),
+                            Config.withSegmentSize(Config.MIN_SEGMENT_SIZE),
+                            Config.withEncryptExecutor(executor)));
+
+            for (var config : configs) {
+                var tdfOutputStream = new ByteArrayOutputStream();
+                var tdf = new TDF(
+                        new FakeServicesBuilder().setKas(kas)
+                                .setKeyAccessServerRegistryService(kasRegistryService).build());
+                tdf.createTDF(new ByteArrayInputStream(data), tdfOutputStream, config);
+
+                var reader = tdf.loadTDF(new SeekableInMemoryByteChannel(tdfOutputStream.toByteArray()), platformUrl);
+                var segments = reader.getManifest().encryptionInformation.integrityInformation.segments;
+                assertThat(segments).hasSize(10);
+                assertThat(segments.subList(0, 9)).allMatch(s -> s.segmentSize == Config.MIN_SEGMENT_SIZE);
+                assertThat(segments.get(9).segmentSize).isEqualTo(Config.MIN_SEGMENT_SIZE / 2);
+
+                var unwrappedData = new ByteArrayOutputStream();
+                reader.readPayload(unwrappedData);
+                assertThat(unwrappedData.toByteArray())
+                        .withFailMessage("extracted data does not match")
+                        .containsExactly(data);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testReadingTDFWithParallelDecryption() throws Exception {
+        var random = new Random();
+        var data = new byte[(int) (Config.MIN_SEGMENT_SIZE * 9.5)];
+        random.nextBytes(data);
+
+        Config.TDFConfig config = Config.newTDFConfig(
+                Config.withAutoconfigure(false),
+                Config.withKasInformation(getRSAKASInfos()),
+                Config.withSegmentSize(Config.MIN_SEGMENT_SIZE));
+        config.segmentIntegrityAlgorithm = Config.IntegrityAlgorithm.HS256;
+
+        var tdfOutputStream = new ByteArrayOutputStream();
+        var tdf = new TDF(
+                new FakeServicesBuilder().setKas(kas)
+                        .setKeyAccessServerRegistryService(kasRegistryService).build());
+        tdf.createTDF(new ByteArrayInputStream(data), tdfOutputStream, config);
+        var tdfBytes = tdfOutputStream.toByteArray();
+
+        var readerConfig = Config.newTDFReaderConfig(Config.withDecryptParallelism(4));
+        var unwrappedData = new ByteArrayOutputStream();
+        tdf.loadTDF(new SeekableInMemoryByteChannel(tdfBytes), readerConfig, platformUrl).readPayload(unwrappedData);
+        assertThat(unwrappedData.toByteArray())
+                .withFailMessage("extracted data does not match")
+                .containsExactly(data);
+
+        // corrupt a byte in the middle of the payload, well past the local file header
+        tdfBytes[200 + Config.MIN_SEGMENT_SIZE * 3] ^= 1;
+        var reader = tdf.loadTDF(new SeekableInMemoryByteChannel(tdfBytes), readerConfig, platformUrl);
+        var partialOutput = new ByteArrayOutputStream();
+        assertThrows(SDK.SegmentSignatureMismatch.class, () -> reader.readPayload(partialOutput));
+        assertThat(partialOutput.size()).isLessThanOrEqualTo(Config.MIN_SEGMENT_SIZE * 3);
+    }
+
+    @Test
+    public void testSplitsAreUnwrappedConcurrently() throws Exception {
+        var kasUrl = getRSAKASInfos()[0].URL;
+        Config.TDFConfig config = Config.newTDFConfig(
+                Config.withAutoconfigure(false),
+                Config.withKasInformation(getRSAKASInfos()),
+                Config.withSplitPlan(
+                        new Autoconfigure.KeySplitStep(kasUrl, "s1"),
+                        new Autoconfigure.KeySplitStep(kasUrl, "s2"),
+                        new Autoconfigure.KeySplitStep(kasUrl, "s3")));
+
+        var tdfOutputStream = new ByteArrayOutputStream();
+        var tdf = new TDF(
+                new FakeServicesBuilder().setKas(kas)
+                        .setKeyAccessServerRegistryService(kasRegistryService).build());
+        tdf.createTDF(new ByteArrayInputStream("split across three keys".getBytes(StandardCharsets.UTF_8)),
+                tdfOutputStream, config);
+
+        // no rewrap is answered until all three have been issued, so this only succeeds if they are in flight
+        // at the same time. the responses time out rather than hang if they aren't
+        var issued = new ArrayList<Runnable>();
+        var slowKas = new DelegatingKAS(kas) {
+            @Override
+            public synchronized CompletableFuture<byte[]> unwrapAsync(Manifest.KeyAccess keyAccess, String policy, KeyType sessionKeyType) {
+                var response = new CompletableFuture<byte[]>();
+                issued.add(() -> response.complete(super.unwrap(keyAccess, policy, sessionKeyType)));
+                if (issued.size() == 3) {
+                    issued.forEach(Runnable::run);
+                }
+                return response.orTimeout(10, TimeUnit.SECONDS);
+            }
+        };
+        var reader = new TDF(new FakeServicesBuilder().setKas(slowKas)
+                .setKeyAccessServerRegistryService(kasRegistryService).build())
+                .loadTDF(new SeekableInMemoryByteChannel(tdfOutputStream.toByteArray()), platformUrl);
+        var unwrappedData = new ByteArrayOutputStream();
+        reader.readPayload(unwrappedData);
+        assertThat(unwrappedData.toString(StandardCharsets.UTF_8)).isEqualTo("split across three keys");
+
+        var failingKas = new DelegatingKAS(kas) {
+            @Override
+            public byte[] unwrap(Manifest.KeyAccess keyAccess, String policy, KeyType sessionKeyType) {
+                if ("s2".equals(keyAccess.sid)) {
+                    throw new SDKException("kas for s2 is unavailable");
+                }
+                return super.unwrap(keyAccess, policy, sessionKeyType);
+            }
+        };
+        var failingTdf = new TDF(new FakeServicesBuilder().setKas(failingKas)
+                .setKeyAccessServerRegistryService(kasRegistryService).build());
+        var thrown = assertThrows(SDK.SplitKeyException.class, () -> failingTdf
+                .loadTDF(new SeekableInMemoryByteChannel(tdfOutputStream.toByteArray()), platformUrl));
+        assertThat(thrown.getMessage()).contains("kas for s2 is unavailable");
+    }
+
+    @Test
+    public void testCreateTDFAsyncRunsOnTheSdkExecutor() throws Exception {
+        Config.TDFConfig config = Config.newTDFConfig(
+                Config.withAutoconfigure(false),
+                Config.withKasInformation(getRSAKASInfos()));
+
+        var threads = ConcurrentHashMap.<String>newKeySet();
+        var plaintext = new ByteArrayInputStream("on the sdk executor".getBytes(StandardCharsets.UTF_8));
+        var payload = new InputStream() {
+            @Override
+            public int read() {
+                threads.add(Thread.currentThread().getName());
+                return plaintext.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                threads.add(Thread.currentThread().getName());
+                return plaintext.read(b, off, len);
+            }
+        };
+        var executor = Executors.newFixedThreadPool(2, TDF.daemonThreadFactory("sdk-executor"));
+        try {
+            var sdk = new SDK(new FakeServicesBuilder().setKas(kas)
+                    .setKeyAccessServerRegistryService(kasRegistryService)
+                    .setExecutor(executor).build(), null, null, null, platformUrl, null);
+            var tdfOutputStream = new ByteArrayOutputStream();
+            sdk.createTDFAsync(payload, tdfOutputStream, config).get(10, TimeUnit.SECONDS);
+            var reader = sdk.loadTDF(new SeekableInMemoryByteChannel(tdfOutputStream.toByteArray()), Config.newTDFReaderConfig());
+            var unwrappedData = new ByteArrayOutputStream();
+            reader.readPayload(unwrappedData);
+            assertThat(unwrappedData.toString(StandardCharsets.UTF_8)).isEqualTo("on the sdk executor");
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(threads).isNotEmpty().allMatch(name -> name.startsWith("sdk-executor-"));
+    }
+
+    @Test
+    public void testLoadingTDFsUnwrapsKeysInOneBatch() throws Exception {
+        var tdf = new TDF(new FakeServicesBuilder().setKas(kas)
+                .setKeyAccessServerRegistryService(kasRegistryService).build());
+        var tdfs = new ArrayList<SeekableInMemoryByteChannel>();
+        for (int i = 0; i < 5; i++) {
+            Config.TDFConfig config = Config.newTDFConfig(
+                    Config.withAutoconfigure(false),
+                    Config.withKasInformation(getRSAKASInfos()[0]));
+            var tdfOutputStream = new ByteArrayOutputStream();
+            tdf.createTDF(new ByteArrayInputStream(("tdf number " + i).getBytes(StandardCharsets.UTF_8)),
+                    tdfOutputStream, config);
+            tdfs.add(new SeekableInMemoryByteChannel(tdfOutputStream.toByteArray()));
+        }
+
+        var batchSizes = new ArrayList<Integer>();
+        var batchingKas = new DelegatingKAS(kas) {
+            @Override
+            public byte[] unwrap(Manifest.KeyAccess keyAccess, String policy, KeyType sessionKeyType) {
+                throw new AssertionError("keys should be unwrapped in a batch");
+            }
+
+            @Override
+            public List<UnwrapResult> unwrapBatch(List<UnwrapRequest> requests, KeyType sessionKeyType) {
+                batchSizes.add(requests.size());
+                var results = new ArrayList<UnwrapResult>();
+                for (var request : requests) {
+                    results.add(UnwrapResult.success(kas.unwrap(request.getKeyAccess(), request.getPolicy(), sessionKeyType)));
+                }
+                return results;
+            }
+        };
+        var readers = new TDF(new FakeServicesBuilder().setKas(batchingKas)
+                .setKeyAccessServerRegistryService(kasRegistryService).build())
+                .loadTDFs(tdfs, Config.newTDFReaderConfig(), platformUrl);
+
+        assertThat(batchSizes).containsExactly(5);
+        assertThat(readers).hasSize(5);
+        for (int i = 0; i < readers.size(); i++) {
+            var unwrappedData = new ByteArrayOutputStream();
+            readers.get(i).readPayload(unwrappedData);
+            assertThat(unwrappedData.toString(StandardCharsets.UTF_8)).isEqualTo("tdf number " + i);
+        }
+
+        // a key that can't be unwrapped fails the load with the reason it failed
+        var denyingKas = new DelegatingKAS(kas) {
+            @Override
+            public List<UnwrapResult> unwrapBatch(List<UnwrapRequest> requests, KeyType sessionKeyType) {
+                var results = new ArrayList<UnwrapResult>();
+                for (var request : requests) {
+                    results.add(UnwrapResult.failure(new SDKException("access denied")));
+                }
+                return results;
+            }
+        };
+        var denyingTdf = new TDF(new FakeServicesBuilder().setKas(denyingKas)
+                .setKeyAccessServerRegistryService(kasRegistryService).build());
+        var thrown = assertThrows(SDK.SplitKeyException.class,
+                () -> denyingTdf.loadTDFs(tdfs, Config.newTDFReaderConfig(), platformUrl));
+        assertThat(thrown.getMessage()).contains("access denied");
+    }
+
+    @Test
+    public void testCreatingAndLoadingTDFsAsynchronously() throws Exception {
+        var kasInfo = new Config.KASInfo();
+        kasInfo.URL = getRSAKASInfos()[0].URL;
+        Config.TDFConfig config = Config.newTDFConfig(
+                Config.withAutoconfigure(false),
+                Config.withKasInformation(kasInfo),
+                Config.withSplitPlan(
+                        new Autoconfigure.KeySplitStep(kasInfo.URL, "s1"),
+                        new Autoconfigure.KeySplitStep(kasInfo.URL, "s2")));
+
+        var network = Executors.newSingleThreadScheduledExecutor();
+        try {
+            // the KAS responds later on another thread, and fails if the SDK makes a blocking call
+            var asyncKas = new DelegatingKAS(kas) {
+                @Override
+                public Config.KASInfo getPublicKey(Config.KASInfo kasInfo) {
+                    throw new AssertionError("blocking public key lookup");
+                }
+
+                @Override
+                public byte[] unwrap(Manifest.KeyAccess keyAccess, String policy, KeyType sessionKeyType) {
+                    throw new AssertionError("blocking unwrap");
+                }
+
+                @Override
+                public CompletableFuture<Config.KASInfo> getPublicKeyAsync(Config.KASInfo kasInfo) {
+                    return CompletableFuture.supplyAsync(() -> super.getPublicKey(kasInfo),
+                            CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS, network));
+                }
+
+                @Override
+                public CompletableFuture<byte[]> unwrapAsync(Manifest.KeyAccess keyAccess, String policy, KeyType sessionKeyType) {
+                    return CompletableFuture.supplyAsync(() -> super.unwrap(keyAccess, policy, sessionKeyType),
+                            CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS, network));
+                }
+            };
+            var tdf = new TDF(new FakeServicesBuilder().setKas(asyncKas)
+                    .setKeyAccessServerRegistryService(kasRegistryService).build());
+
+            var tdfOutputStream = new ByteArrayOutputStream();
+            var manifest = tdf.createTDFAsync(
+                    new ByteArrayInputStream("created without blocking".getBytes(StandardCharsets.UTF_8)),
+                    tdfOutputStream, config, network).get(10, TimeUnit.SECONDS).getManifest();
+            assertThat(manifest.encryptionInformation.keyAccessObj).hasSize(2);
+
+            var reader = tdf.loadTDFAsync(new SeekableInMemoryByteChannel(tdfOutputStream.toByteArray()),
+                    Config.newTDFReaderConfig(), platformUrl).get(10, TimeUnit.SECONDS);
+            var unwrappedData = new ByteArrayOutputStream();
+            reader.readPayload(unwrappedData);
+            assertThat(unwrappedData.toString(StandardCharsets.UTF_8)).isEqualTo("created without blocking");
+
+            var failingKas = new DelegatingKAS(asyncKas) {
+                @Override
+                public CompletableFuture<byte[]> unwrapAsync(Manifest.KeyAccess keyAccess, String policy, KeyType sessionKeyType) {
+                    if ("s2".equals(keyAccess.sid)) {
+                        return CompletableFuture.failedFuture(new SDKException("kas for s2 is unavailable"));
+                    }
+                    return asyncKas.unwrapAsync(keyAccess, policy, sessionKeyType);
+                }
+            };
+            var failed = new TDF(new FakeServicesBuilder().setKas(failingKas)
+                    .setKeyAccessServerRegistryService(kasRegistryService).build())
+                    .loadTDFAsync(new SeekableInMemoryByteChannel(tdfOutputStream.toByteArray()),
+                            Config.newTDFReaderConfig(), platformUrl);
+            var thrown = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+            assertThat(thrown.getCause()).isInstanceOf(SDK.SplitKeyException.class)
+                    .hasMessageContaining("kas for s2 is unavailable");
+
+            var notAllowed = tdf.loadTDFAsync(new SeekableInMemoryByteChannel(tdfOutputStream.toByteArray()),
+                    Config.newTDFReaderConfig(Config.WithKasAllowlist("https://other.example.org")), platformUrl);
+            thrown = assertThrows(ExecutionException.class, () -> notAllowed.get(10, TimeUnit.SECONDS));
+            assertThat(thrown.getCause()).isInstanceOf(SDK.SplitKeyException.class);
+        } finally {
+            network.shutdown();
+        }
+    }
+
+    private static class DelegatingKAS implements SDK.KAS {
+        private final SDK.KAS delegate;
+
+        DelegatingKAS(SDK.KAS delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void close() throws Exception {
+            delegate.close();
+        }
+
+        @Override
+        public Config.KASInfo getPublicKey(Config.KASInfo kasInfo) {
+            return delegate.getPublicKey(kasInfo);
+        }
+
+        @Override
+        public byte[] unwrap(Manifest.KeyAccess keyAccess, String policy, KeyType sessionKeyType) {
+            return delegate.unwrap(keyAccess, policy, sessionKeyType);
+        }
+
+        @Override
+        public KASKeyCache getKeyCache() {
+            return delegate.getKeyCache();
+        }
+    }
+
+    @Test
+    public void testReadingPlaintextRanges() throws Exception {
+        var random = new Random();
+        var data = new byte[(int) (Config.MIN_SEGMENT_SIZE * 5.5)];
+        random.nextBytes(data);
+
+        Config.TDFConfig config = Config.newTDFConfig(
+                Config.withAutoconfigure(false),
+                Config.withKasInformation(getRSAKASInfos()),
+                Config.withSegmentSize(Config.MIN_SEGMENT_SIZE));
+        config.segmentIntegrityAlgorithm = Config.IntegrityAlgorithm.HS256;
+
+        var tdfOutputStream = new ByteArrayOutputStream();
+        var tdf = new TDF(
+                new FakeServicesBuilder().setKas(kas)
+                        .setKeyAccessServerRegistryService(kasRegistryService).build());
+        tdf.createTDF(new ByteArrayInputStream(data), tdfOutputStream, config);
+        var tdfBytes = tdfOutputStream.toByteArray();
+
+        var reader = tdf.loadTDF(new SeekableInMemoryByteChannel(tdfBytes), platformUrl);
+        var parallelReader = tdf.loadTDF(new SeekableInMemoryByteChannel(tdfBytes),
+                Config.newTDFReaderConfig(Config.withDecryptParallelism(4)), platformUrl);
+        long[][] ranges = {
+                {0, 10},
+                {0, data.length},
+                {Config.MIN_SEGMENT_SIZE - 5, 10},
+                {Config.MIN_SEGMENT_SIZE, Config.MIN_SEGMENT_SIZE},
+                {Config.MIN_SEGMENT_SIZE * 2 + 7, Config.MIN_SEGMENT_SIZE * 2 + 100},
+                {data.length - 4096, 4096},
+                {data.length - 10, 100},
+                {data.length, 10},
+        };
+        for (var r : List.of(reader, parallelReader)) {
+            for (var range : ranges) {
+                var out = new ByteArrayOutputStream();
+                long written = r.readPayload(range[0], range[1], out);
+                int end = (int) Math.min(data.length, range[0] + range[1]);
+                assertThat(written).isEqualTo(end - range[0]);
+                assertThat(out.toByteArray())
+                        .withFailMessage("wrong plaintext for range %d+%d", range[0], range[1])
+                        .containsExactly(Arrays.copyOfRange(data, (int) range[0], end));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> reader.readPayload(data.length + 1, 1, new ByteArrayOutputStream()));
+
+        // corrupt the first segment. ranges that don't include it should still be readable
+        tdfBytes[200] ^= 1;
+        var corrupted = tdf.loadTDF(new SeekableInMemoryByteChannel(tdfBytes), platformUrl);
+        var tail = new ByteArrayOutputStream();
+        corrupted.readPayload(data.length - 4096, 4096, tail);
+        assertThat(tail.toByteArray()).containsExactly(Arrays.copyOfRange(data, data.length - 4096, data.length));
+        assertThrows(SDK.SegmentSignatureMismatch.class, () -> corrupted.readPayload(0, 10, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void testVerifyingThePayload() throws Exception {
+        var random = new Random();
+        var data = new byte[(int) (Config.MIN_SEGMENT_SIZE * 6.5)];
+        random.nextBytes(data);
+
+        for (var integrityAlgorithm : Config.IntegrityAlgorithm.values()) {
+            Config.TDFConfig config = Config.newTDFConfig(
+                    Config.withAutoconfigure(false),
+                    Config.withKasInformation(getRSAKASInfos()),
+                    Config.withSegmentSize(Config.MIN_SEGMENT_SIZE));
+            config.segmentIntegrityAlgorithm = integrityAlgorithm;
+
+            var tdfOutputStream = new ByteArrayOutputStream();
+            var tdf = new TDF(
+                    new FakeServicesBuilder().setKas(kas)
+                            .setKeyAccessServerRegistryService(kasRegistryService).build());
+            tdf.createTDF(new ByteArrayInputStream(data), tdfOutputStream, config);
+            var tdfBytes = tdfOutputStream.toByteArray();
+
+            tdf.loadTDF(new SeekableInMemoryByteChannel(tdfBytes), platformUrl).verifyPayload();
+
+            // corrupt the ciphertext, but not the GCM tag, of two segments. the first one is reported
+            long encryptedSegmentSize = Config.MIN_SEGMENT_SIZE + 28;
+            tdfBytes[(int) (encryptedSegmentSize * 3 + 200)] ^= 1;
+            tdfBytes[(int) (encryptedSegmentSize * 5 + 200)] ^= 1;
+            var corrupted = tdf.loadTDF(new SeekableInMemoryByteChannel(tdfBytes), platformUrl);
+            var thrown = assertThrows(SDK.SegmentSignatureMismatch.class, corrupted::verifyPayload);
+            assertThat(thrown.getSegment())
+                    .withFailMessage("wrong segment reported for %s", integrityAlgorithm)
+                    .isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void testReadingTDFFromAFile() throws Exception {
+        var random = new Random();
+        var data = new byte[(int) (Config.MIN_SEGMENT_SIZE * 4.5)];
+        random.nextBytes(data);
+
+        Config.TDFConfig config = Config.newTDFConfig(
+                Config.withAutoconfigure(false),
+                Config.withKasInformation(getRSAKASInfos()),
+                Config.withSegmentSize(Config.MIN_SEGMENT_SIZE));
+
+        var tdf = new TDF(
+                new FakeServicesBuilder().setKas(kas)
+                        .setKeyAccessServerRegistryService(kasRegistryService).build());
+        var file = Files.createTempFile("tdftest", ".tdf");
+        try {
+            try (var out = Files.newOutputStream(file)) {
+                tdf.createTDF(new ByteArrayInputStream(data), out, config);
+            }
+
+            // a FileChannel lets the reader map the payload instead of copying it through the channel
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                var reader = tdf.loadTDF(channel, Config.newTDFReaderConfig(Config.withDecryptParallelism(2)), platformUrl);
+                var unwrappedData = new ByteArrayOutputStream();
+                reader.readPayload(unwrappedData);
+                assertThat(unwrappedData.toByteArray())
+                        .withFailMessage("extracted data does not match")
+                        .containsExactly(data);
+
+                var range = new ByteArrayOutputStream();
+                reader.readPayload(Config.MIN_SEGMENT_SIZE + 3, Config.MIN_SEGMENT_SIZE * 2, range);
+                assertThat(range.toByteArray())
+                        .containsExactly(Arrays.copyOfRange(data, Config.MIN_SEGMENT_SIZE + 3, Config.MIN_SEGMENT_SIZE * 3 + 3));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
     @Test
     public void testCreatingTooLargeTDF() {
         var random = new Random();
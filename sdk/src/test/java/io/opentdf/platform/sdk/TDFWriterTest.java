@@ -1,14 +1,24 @@
 package io.opentdf.platform.sdk;
 
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.zip.ZipFile;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -72,4 +82,64 @@ String kManifestJsonFromTDF = "{\n" +
         writer.finish();
         fileOutStream.close();
     }
+
+    @Test
+    void testStreamingTheManifest(@TempDir Path tempDir) throws IOException {
+        var manifest = new Manifest();
+        manifest.payload = new Manifest.Payload();
+        manifest.payload.isEncrypted = true;
+        manifest.payload.url = TDFWriter.TDF_PAYLOAD_FILE_NAME;
+        manifest.encryptionInformation = new Manifest.EncryptionInformation();
+        manifest.encryptionInformation.policy = "e30=";
+        manifest.encryptionInformation.keyAccessObj = new ArrayList<>();
+        var integrityInformation = new Manifest.IntegrityInformation();
+        integrityInformation.rootSignature = new Manifest.RootSignature();
+        integrityInformation.rootSignature.algorithm = "HS256";
+        integrityInformation.rootSignature.signature = "c2ln";
+        var segments = new Manifest.SegmentList(1);
+        for (int i = 0; i < 1000; i++) {
+            segments.add(new byte[]{(byte) i, (byte) (i >> 8), 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14}, 10, 38);
+        }
+        integrityInformation.segments = segments;
+        manifest.encryptionInformation.integrityInformation = integrityInformation;
+
+        var out = new ByteArrayOutputStream();
+        TDFWriter writer = new TDFWriter(out);
+        try (var p = writer.payload()) {
+            p.write(new byte[38]);
+        }
+        writer.appendManifest(manifest);
+        writer.finish();
+
+        var reader = new TDFReader(new SeekableInMemoryByteChannel(out.toByteArray()));
+        var read = reader.readManifest();
+        assertThat(read).isEqualTo(manifest);
+
+        // the manifest keeps its sizes in its local header, without a data descriptor
+        byte[] tdf = out.toByteArray();
+        int localHeader = indexOf(tdf, TDFWriter.TDF_MANIFEST_FILE_NAME.getBytes(StandardCharsets.UTF_8)) - 30;
+        var header = ByteBuffer.wrap(tdf, localHeader, 30).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(header.getInt(localHeader)).isEqualTo(0x04034b50);
+        assertThat(header.getShort(localHeader + 6) & 0x08).isZero();
+
+        Path file = tempDir.resolve("manifest.tdf");
+        Files.write(file, tdf);
+        try (var zip = new ZipFile(file.toFile());
+             var json = new InputStreamReader(zip.getInputStream(zip.getEntry(TDFWriter.TDF_MANIFEST_FILE_NAME)), StandardCharsets.UTF_8)) {
+            assertThat(Manifest.readManifest(json)).isEqualTo(manifest);
+        }
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = 0; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
 }
@@ -20,7 +20,18 @@ import org.junit.jupiter.api.Test;
 
 import java.net.URI;
 import java.net.URL;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -658,4 +669,221 @@ class TokenSourceTest {
             assertThat(headers.getDpopHeader()).isNull();
         }
     }
+
+    private static MockResponse tokenResponse(String token, int expiresIn) {
+        return new MockResponse()
+                .setResponseCode(200)
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"access_token\":\"" + token + "\",\"token_type\":\"DPoP\",\"expires_in\":" + expiresIn + "}");
+    }
+
+    private TokenSource buildRefreshingTokenSource(MockWebServer tokenServer, RSAKey rsaKey, double fraction) {
+        return new TokenSource(
+                new ClientSecretBasic(new ClientID("test-client"), new Secret("test-secret")),
+                rsaKey,
+                JWSAlgorithm.RS256,
+                tokenServer.url("/token").uri(),
+                new ClientCredentialsGrant(),
+                null,
+                fraction
+        );
+    }
+
+    @Test
+    void refreshAhead_refreshesInBackgroundWhileServingCurrentToken() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048)
+                .keyUse(KeyUse.SIGNATURE)
+                .keyID(UUID.randomUUID().toString())
+                .generate();
+        try (MockWebServer tokenServer = new MockWebServer()) {
+            tokenServer.enqueue(tokenResponse("first-token", 3600));
+            tokenServer.enqueue(tokenResponse("second-token", 3600));
+            tokenServer.start();
+
+            TokenSource ts = buildRefreshingTokenSource(tokenServer, rsaKey, 0.25);
+            // hold background refreshes until the test runs them
+            ArrayDeque<Runnable> refreshes = new ArrayDeque<>();
+            ts.refreshExecutor = refreshes::add;
+            Instant start = Instant.parse("2025-01-01T00:00:00Z");
+            ts.clock = Clock.fixed(start, ZoneOffset.UTC);
+            URL resourceUrl = new URL("https://kas.example.com/kas");
+            assertThat(ts.getAuthHeaders(resourceUrl, "POST").getAuthHeader()).isEqualTo("DPoP first-token");
+            assertThat(tokenServer.takeRequest(5, TimeUnit.SECONDS)).isNotNull();
+
+            // past a quarter of the lifetime callers keep getting the current token while it is refreshed
+            ts.clock = Clock.fixed(start.plusSeconds(1000), ZoneOffset.UTC);
+            assertThat(ts.getAuthHeaders(resourceUrl, "POST").getAuthHeader()).isEqualTo("DPoP first-token");
+            assertThat(ts.getAuthHeaders(resourceUrl, "POST").getAuthHeader()).isEqualTo("DPoP first-token");
+            assertThat(refreshes).hasSize(1);
+            assertThat(tokenServer.getRequestCount()).isEqualTo(1);
+
+            refreshes.remove().run();
+            assertThat(tokenServer.takeRequest(5, TimeUnit.SECONDS)).isNotNull();
+            assertThat(ts.getAuthHeaders(resourceUrl, "POST").getAuthHeader()).isEqualTo("DPoP second-token");
+            assertThat(tokenServer.getRequestCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void refreshAhead_keepsCurrentTokenWhenRefreshFails() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048)
+                .keyUse(KeyUse.SIGNATURE)
+                .keyID(UUID.randomUUID().toString())
+                .generate();
+        try (MockWebServer tokenServer = new MockWebServer()) {
+            tokenServer.enqueue(tokenResponse("first-token", 3600));
+            tokenServer.enqueue(new MockResponse()
+                    .setResponseCode(400)
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"error\":\"temporarily_unavailable\"}"));
+            tokenServer.enqueue(tokenResponse("second-token", 3600));
+            tokenServer.start();
+
+            TokenSource ts = buildRefreshingTokenSource(tokenServer, rsaKey, 0.25);
+            ArrayDeque<Runnable> refreshes = new ArrayDeque<>();
+            ts.refreshExecutor = refreshes::add;
+            Instant start = Instant.parse("2025-01-01T00:00:00Z");
+            ts.clock = Clock.fixed(start, ZoneOffset.UTC);
+            URL resourceUrl = new URL("https://kas.example.com/kas");
+            assertThat(ts.getAuthHeaders(resourceUrl, "POST").getAuthHeader()).isEqualTo("DPoP first-token");
+
+            Instant refreshAt = start.plusSeconds(1000);
+            ts.clock = Clock.fixed(refreshAt, ZoneOffset.UTC);
+            assertThat(ts.getAuthHeaders(resourceUrl, "POST").getAuthHeader()).isEqualTo("DPoP first-token");
+            refreshes.remove().run();
+            assertThat(tokenServer.takeRequest(5, TimeUnit.SECONDS)).isNotNull();
+
+            // the failed refresh is not retried right away, and the current token is still used
+            assertThat(ts.getAuthHeaders(resourceUrl, "POST").getAuthHeader()).isEqualTo("DPoP first-token");
+            assertThat(refreshes).isEmpty();
+            assertThat(tokenServer.getRequestCount()).isEqualTo(2);
+
+            // it is retried once the retry delay has passed
+            ts.clock = Clock.fixed(refreshAt.plus(TokenSource.REFRESH_RETRY_DELAY), ZoneOffset.UTC);
+            assertThat(ts.getAuthHeaders(resourceUrl, "POST").getAuthHeader()).isEqualTo("DPoP first-token");
+            assertThat(refreshes).hasSize(1);
+            refreshes.remove().run();
+            assertThat(tokenServer.takeRequest(5, TimeUnit.SECONDS)).isNotNull();
+            assertThat(ts.getAuthHeaders(resourceUrl, "POST").getAuthHeader()).isEqualTo("DPoP second-token");
+        }
+    }
+
+    @Test
+    void concurrentCallersShareOneTokenRequest() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048)
+                .keyUse(KeyUse.SIGNATURE)
+                .keyID(UUID.randomUUID().toString())
+                .generate();
+        try (MockWebServer tokenServer = new MockWebServer()) {
+            tokenServer.enqueue(tokenResponse("shared-token", 3600).setHeadersDelay(200, TimeUnit.MILLISECONDS));
+            tokenServer.start();
+
+            TokenSource ts = buildRefreshingTokenSource(tokenServer, rsaKey, 0.5);
+            URL resourceUrl = new URL("https://kas.example.com/kas");
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<String>> headers = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    headers.add(executor.submit(() -> ts.getAuthHeaders(resourceUrl, "POST").getAuthHeader()));
+                }
+                for (Future<String> header : headers) {
+                    assertThat(header.get()).isEqualTo("DPoP shared-token");
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertThat(tokenServer.getRequestCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void constructor_rejectsInvalidRefreshAheadFraction() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048)
+                .keyUse(KeyUse.SIGNATURE)
+                .keyID(UUID.randomUUID().toString())
+                .generate();
+        try (MockWebServer tokenServer = new MockWebServer()) {
+            assertThatThrownBy(() -> buildRefreshingTokenSource(tokenServer, rsaKey, 1.0))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> buildRefreshingTokenSource(tokenServer, rsaKey, -0.5))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void proofCache_reusesProofForIdenticalRequests() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048)
+                .keyUse(KeyUse.SIGNATURE)
+                .keyID(UUID.randomUUID().toString())
+                .generate();
+        try (MockWebServer tokenServer = new MockWebServer()) {
+            tokenServer.enqueue(new MockResponse()
+                    .setBody(FAKE_TOKEN_RESPONSE)
+                    .setHeader("Content-Type", "application/json"));
+            tokenServer.start();
+
+            TokenSource ts = buildTokenSource(tokenServer, rsaKey);
+            ts.enableProofCache(Duration.ofMinutes(1));
+            URL resourceUrl = new URL("https://kas.example.com/kas");
+
+            String first = ts.getAuthHeaders(resourceUrl, "POST").getDpopHeader();
+            assertThat(ts.getAuthHeaders(resourceUrl, "POST").getDpopHeader()).isEqualTo(first);
+
+            // anything that ends up in the proof gets a new one
+            assertThat(ts.getAuthHeaders(resourceUrl, "GET").getDpopHeader()).isNotEqualTo(first);
+            assertThat(ts.getAuthHeaders(new URL("https://kas.example.com/other"), "POST").getDpopHeader())
+                    .isNotEqualTo(first);
+            ts.cacheNonce(resourceUrl, "new-nonce");
+            String withNonce = ts.getAuthHeaders(resourceUrl, "POST").getDpopHeader();
+            assertThat(withNonce).isNotEqualTo(first);
+            assertThat(SignedJWT.parse(withNonce).getJWTClaimsSet().getStringClaim("nonce")).isEqualTo("new-nonce");
+        }
+    }
+
+    @Test
+    void proofCache_expiresProofsAfterMaxAge() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048)
+                .keyUse(KeyUse.SIGNATURE)
+                .keyID(UUID.randomUUID().toString())
+                .generate();
+        try (MockWebServer tokenServer = new MockWebServer()) {
+            tokenServer.enqueue(new MockResponse()
+                    .setBody(FAKE_TOKEN_RESPONSE)
+                    .setHeader("Content-Type", "application/json"));
+            tokenServer.start();
+
+            TokenSource ts = buildTokenSource(tokenServer, rsaKey);
+            Instant start = Instant.parse("2025-01-01T00:00:00Z");
+            ts.clock = Clock.fixed(start, ZoneOffset.UTC);
+            ts.enableProofCache(Duration.ofSeconds(60));
+            URL resourceUrl = new URL("https://kas.example.com/kas");
+
+            String first = ts.getAuthHeaders(resourceUrl, "POST").getDpopHeader();
+            ts.clock = Clock.fixed(start.plusSeconds(59), ZoneOffset.UTC);
+            assertThat(ts.getAuthHeaders(resourceUrl, "POST").getDpopHeader()).isEqualTo(first);
+            ts.clock = Clock.fixed(start.plusSeconds(60), ZoneOffset.UTC);
+            assertThat(ts.getAuthHeaders(resourceUrl, "POST").getDpopHeader()).isNotEqualTo(first);
+        }
+    }
+
+    @Test
+    void proofsAreNotReusedByDefault() throws Exception {
+        RSAKey rsaKey = new RSAKeyGenerator(2048)
+                .keyUse(KeyUse.SIGNATURE)
+                .keyID(UUID.randomUUID().toString())
+                .generate();
+        try (MockWebServer tokenServer = new MockWebServer()) {
+            tokenServer.enqueue(new MockResponse()
+                    .setBody(FAKE_TOKEN_RESPONSE)
+                    .setHeader("Content-Type", "application/json"));
+            tokenServer.start();
+
+            TokenSource ts = buildTokenSource(tokenServer, rsaKey);
+            URL resourceUrl = new URL("https://kas.example.com/kas");
+
+            SignedJWT first = SignedJWT.parse(ts.getAuthHeaders(resourceUrl, "POST").getDpopHeader());
+            SignedJWT second = SignedJWT.parse(ts.getAuthHeaders(resourceUrl, "POST").getDpopHeader());
+            assertThat(second.getJWTClaimsSet().getJWTID()).isNotEqualTo(first.getJWTClaimsSet().getJWTID());
+        }
+    }
 }
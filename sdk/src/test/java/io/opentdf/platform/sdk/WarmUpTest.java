@@ -0,0 +1,200 @@
+package io.opentdf.platform.sdk;
+
+import com.google.protobuf.Struct;
+import io.opentdf.platform.policy.Value;
+import io.opentdf.platform.policy.attributes.AttributesServiceClientInterface;
+import io.opentdf.platform.policy.attributes.GetAttributeValuesByFqnsRequest;
+import io.opentdf.platform.policy.attributes.GetAttributeValuesByFqnsResponse;
+import io.opentdf.platform.wellknownconfiguration.GetWellKnownConfigurationResponse;
+import io.opentdf.platform.wellknownconfiguration.WellKnownServiceClientInterface;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WarmUpTest {
+    private static final String FQN = "https://example.com/attr/classification/value/secret";
+    private static final String BASE_KEY_JSON = "{\"kas_url\":\"https://example.com/base_key\",\"public_key\":{\"algorithm\":\"ALGORITHM_RSA_2048\",\"kid\":\"thekid\",\"pem\": \"thepem\"}}";
+
+    @Test
+    void testWarmingUpFillsTheCaches() throws Exception {
+        var wellknown = mockWellknown();
+        var attributes = mockAttributes();
+        var kas = Mockito.mock(SDK.KAS.class);
+        when(kas.getKeyCache()).thenReturn(new KASKeyCache());
+        when(kas.getPublicKeyAsync(any())).thenAnswer(invocation -> {
+            Config.KASInfo request = invocation.getArgument(0);
+            var kasInfo = new Config.KASInfo();
+            kasInfo.URL = request.URL;
+            kasInfo.Algorithm = request.Algorithm;
+            kasInfo.KID = "kid";
+            kasInfo.PublicKey = "pem";
+            return CompletableFuture.completedFuture(kasInfo);
+        });
+        var services = new FakeServicesBuilder()
+                .setWellknownService(wellknown)
+                .setAttributesService(attributes)
+                .setKas(kas)
+                .setPlatformCache(new PlatformCache())
+                .build();
+
+        try (var sdk = new SDK(services, null, null, null, "https://example.com", null)) {
+            sdk.warmUp(Config.newWarmUpSpec(
+                    Config.withWarmUpBaseKey(),
+                    Config.withWarmUpKasKeys(KeyType.EC256Key, "https://kas1.example.com", "https://kas2.example.com"),
+                    Config.withWarmUpAttributes(FQN)));
+
+            verify(kas).getPublicKeyAsync(Mockito.argThat(ki -> "https://kas1.example.com".equals(ki.URL) && "ec:secp256r1".equals(ki.Algorithm)));
+            verify(kas).getPublicKeyAsync(Mockito.argThat(ki -> "https://kas2.example.com".equals(ki.URL) && "ec:secp256r1".equals(ki.Algorithm)));
+
+            // creating a TDF uses the warmed up values instead of asking the platform again
+            var baseKey = Planner.getBaseKey(services);
+            assertThat(baseKey).isPresent();
+            assertThat(baseKey.get().getPublicKey().getKid()).isEqualTo("thekid");
+            var granter = Autoconfigure.createGranter(services, Config.newTDFConfig(Config.withDataAttributes(FQN)));
+            assertThat(granter.getPolicy()).containsExactly(new Autoconfigure.AttributeValueFQN(FQN));
+
+            verify(wellknown, times(1)).getWellKnownConfigurationBlocking(any(), any());
+            verify(attributes, times(1)).getAttributeValuesByFqnsBlocking(any(), any());
+        }
+    }
+
+    @Test
+    void testWarmedUpValuesExpire() throws Exception {
+        var wellknown = mockWellknown();
+        var attributes = mockAttributes();
+        var platformCache = new PlatformCache(Duration.ofMinutes(1), PlatformCache.DEFAULT_MAX_SIZE);
+        var services = new FakeServicesBuilder()
+                .setWellknownService(wellknown)
+                .setAttributesService(attributes)
+                .setKas(Mockito.mock(SDK.KAS.class))
+                .setPlatformCache(platformCache)
+                .build();
+
+        try (var sdk = new SDK(services, null, null, null, "https://example.com", null)) {
+            sdk.warmUp(Config.newWarmUpSpec(Config.withWarmUpBaseKey(), Config.withWarmUpAttributes(FQN)));
+            assertThat(platformCache.attributeValueCount()).isEqualTo(1);
+
+            platformCache.clock = Clock.offset(Clock.systemUTC(), Duration.ofMinutes(2));
+            Planner.getBaseKey(services);
+            Autoconfigure.createGranter(services, Config.newTDFConfig(Config.withDataAttributes(FQN)));
+
+            verify(wellknown, times(2)).getWellKnownConfigurationBlocking(any(), any());
+            verify(attributes, times(2)).getAttributeValuesByFqnsBlocking(any(), any());
+            // looking the attribute up again puts it back in the cache
+            assertThat(platformCache.attributeValueCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testRefreshingInTheBackground() throws Exception {
+        var reloads = new AtomicInteger();
+        var keyCache = new KASKeyCache();
+        keyCache.setRefresher(request -> {
+            reloads.incrementAndGet();
+            var kasInfo = new Config.KASInfo();
+            kasInfo.URL = request.URL;
+            kasInfo.Algorithm = request.Algorithm;
+            kasInfo.KID = "kid";
+            kasInfo.PublicKey = "pem";
+            return kasInfo;
+        });
+        var kas = Mockito.mock(SDK.KAS.class);
+        when(kas.getKeyCache()).thenReturn(keyCache);
+        when(kas.getPublicKeyAsync(any())).thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(0)));
+        var services = new FakeServicesBuilder().setKas(kas).build();
+
+        WarmUp warmUp;
+        try (var sdk = new SDK(services, null, null, null, "https://example.com", null)) {
+            warmUp = sdk.warmUp(Config.newWarmUpSpec(
+                    Config.withWarmUpKasKeys(KeyType.RSA2048Key, "https://kas.example.com"),
+                    Config.withWarmUpRefreshInterval(Duration.ofMillis(10))));
+            assertThat(warmUp.isRefreshing()).isTrue();
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (reloads.get() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(reloads.get()).isGreaterThanOrEqualTo(2);
+            assertThat(keyCache.get("https://kas.example.com", "rsa:2048", null).KID).isEqualTo("kid");
+        }
+
+        // closing the SDK stops the refreshes
+        assertThat(warmUp.isRefreshing()).isFalse();
+    }
+
+    @Test
+    void testClosedWarmUpsAreNotKeptBySdk() throws Exception {
+        var kas = Mockito.mock(SDK.KAS.class);
+        when(kas.getKeyCache()).thenReturn(new KASKeyCache());
+        when(kas.getPublicKeyAsync(any())).thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(0)));
+        var services = new FakeServicesBuilder().setKas(kas).build();
+
+        try (var sdk = new SDK(services, null, null, null, "https://example.com", null)) {
+            var spec = Config.newWarmUpSpec(
+                    Config.withWarmUpKasKeys(KeyType.RSA2048Key, "https://kas.example.com"),
+                    Config.withWarmUpRefreshInterval(Duration.ofMinutes(1)));
+            for (int i = 0; i < 10; i++) {
+                sdk.warmUp(spec).close();
+            }
+            assertThat(sdk.refreshingWarmUps()).isZero();
+
+            var warmUp = sdk.warmUp(spec);
+            assertThat(sdk.refreshingWarmUps()).isEqualTo(1);
+            warmUp.close();
+            assertThat(sdk.refreshingWarmUps()).isZero();
+        }
+    }
+
+    @Test
+    void testWarmingUpAttributesNeedsAPlatformCache() {
+        var services = new FakeServicesBuilder().setKas(Mockito.mock(SDK.KAS.class)).build();
+        var sdk = new SDK(services, null, null, null, "https://example.com", null);
+
+        assertThatThrownBy(() -> sdk.warmUp(Config.newWarmUpSpec(Config.withWarmUpAttributes(FQN))))
+                .isInstanceOf(SDKException.class);
+    }
+
+    @Test
+    void testPlatformCacheRejectsInvalidTTL() {
+        assertThatThrownBy(() -> new PlatformCache(Duration.ZERO, PlatformCache.DEFAULT_MAX_SIZE)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PlatformCache(PlatformCache.DEFAULT_TTL, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Config.withWarmUpRefreshInterval(Duration.ofSeconds(-1))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static WellKnownServiceClientInterface mockWellknown() {
+        var wellknown = Mockito.mock(WellKnownServiceClientInterface.class);
+        var config = Struct.newBuilder()
+                .putFields("base_key", com.google.protobuf.Value.newBuilder().setStringValue(BASE_KEY_JSON).build())
+                .build();
+        when(wellknown.getWellKnownConfigurationBlocking(any(), Mockito.anyMap()))
+                .thenAnswer(invocation -> TestUtil.successfulUnaryCall(
+                        GetWellKnownConfigurationResponse.newBuilder().setConfiguration(config).build()));
+        return wellknown;
+    }
+
+    private static AttributesServiceClientInterface mockAttributes() {
+        var attributes = Mockito.mock(AttributesServiceClientInterface.class);
+        when(attributes.getAttributeValuesByFqnsBlocking(any(), any())).thenAnswer(invocation -> {
+            GetAttributeValuesByFqnsRequest request = invocation.getArgument(0);
+            var builder = GetAttributeValuesByFqnsResponse.newBuilder();
+            for (String fqn : request.getFqnsList()) {
+                builder.putFqnAttributeValues(fqn, GetAttributeValuesByFqnsResponse.AttributeAndValue.newBuilder()
+                        .setValue(Value.newBuilder().setFqn(fqn).build())
+                        .build());
+            }
+            return TestUtil.successfulUnaryCall(builder.build());
+        });
+        return attributes;
+    }
+}
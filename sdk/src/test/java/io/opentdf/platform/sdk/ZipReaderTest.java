@@ -11,11 +11,20 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -149,4 +158,248 @@ public class ZipReaderTest {
 
         assertThat(reader.getEntries().size()).isEqualTo(namesToData.size());
     }
+
+    @Test
+    public void testOpeningAZipTakesFewReads() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ZipWriter writer = new ZipWriter(out);
+        try (var payload = writer.stream(TDFWriter.TDF_PAYLOAD_FILE_NAME)) {
+            payload.write(new byte[200 * 1024]);
+        }
+        writer.data(TDFWriter.TDF_MANIFEST_FILE_NAME, "{\"encryptionInformation\": {}}".getBytes(StandardCharsets.UTF_8));
+        writer.finish();
+
+        var channel = new CountingChannel(new SeekableInMemoryByteChannel(out.toByteArray()));
+        var reader = new ZipReader(channel);
+        assertThat(reader.getEntries()).hasSize(2);
+        assertThat(channel.reads)
+                .withFailMessage("opening the zip took %d reads", channel.reads)
+                .isEqualTo(1);
+
+        // reading the local header of an entry is a single read as well
+        channel.reads = 0;
+        var manifest = reader.getEntries().stream()
+                .filter(e -> e.getName().equals(TDFWriter.TDF_MANIFEST_FILE_NAME))
+                .findFirst()
+                .orElseThrow();
+        var data = new ByteArrayOutputStream();
+        manifest.getData().transferTo(data);
+        assertThat(data.toString(StandardCharsets.UTF_8)).isEqualTo("{\"encryptionInformation\": {}}");
+        assertThat(channel.reads).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    public void testCentralDirectoryOutsideOfTheTail() throws IOException {
+        // enough entries that the central directory doesn't fit in the initial read of the end of the file
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ZipWriter writer = new ZipWriter(out);
+        int numEntries = 2000;
+        for (int i = 0; i < numEntries; i++) {
+            writer.data(String.format("entry-%050d", i), ("contents " + i).getBytes(StandardCharsets.UTF_8));
+        }
+        writer.finish();
+
+        var channel = new CountingChannel(new SeekableInMemoryByteChannel(out.toByteArray()));
+        var reader = new ZipReader(channel);
+        assertThat(reader.getEntries()).hasSize(numEntries);
+        assertThat(channel.reads).isEqualTo(2);
+
+        var last = reader.getEntries().get(numEntries - 1);
+        var data = new ByteArrayOutputStream();
+        last.getData().transferTo(data);
+        assertThat(data.toString(StandardCharsets.UTF_8)).isEqualTo("contents " + (numEntries - 1));
+    }
+
+    @Test
+    public void testMappingEntriesOfAFile() throws IOException {
+        var random = new Random();
+        var content = new byte[300 * 1024];
+        random.nextBytes(content);
+
+        var file = Files.createTempFile("zipreadertest", ".zip");
+        try {
+            try (var out = Files.newOutputStream(file)) {
+                ZipWriter writer = new ZipWriter(out);
+                writer.data("first", "some other data".getBytes(StandardCharsets.UTF_8));
+                try (var entry = writer.stream("second")) {
+                    entry.write(content);
+                }
+                writer.finish();
+            }
+
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                var reader = new ZipReader(channel);
+                // force the reads below to span several windows
+                reader.mapWindowSize = 64 * 1024;
+                var entry = reader.getEntries().get(1);
+                assertThat(entry.getName()).isEqualTo("second");
+
+                int[][] ranges = {{0, 100}, {60 * 1024, 10 * 1024}, {1000, 200 * 1024}, {content.length - 17, 17}, {5, 0}};
+                for (var range : ranges) {
+                    var mapped = entry.mapData(range[0], range[1]);
+                    assertThat(mapped.remaining()).isEqualTo(range[1]);
+                    var bytes = new byte[range[1]];
+                    mapped.get(bytes);
+                    assertThat(bytes).isEqualTo(Arrays.copyOfRange(content, range[0], range[0] + range[1]));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        var inMemory = new ZipReader(new SeekableInMemoryByteChannel(zipOf("name", content)));
+        assertThat(inMemory.getEntries().get(0).mapData(0, 10)).isNull();
+    }
+
+    @Test
+    public void testMappingFromSeveralThreads() throws Exception {
+        var random = new Random();
+        var content = new byte[512 * 1024];
+        random.nextBytes(content);
+
+        var file = Files.createTempFile("zipreadertest", ".zip");
+        try {
+            Files.write(file, zipOf("entry", content));
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                var reader = new ZipReader(channel);
+                // every read from the other end of the entry replaces the window
+                reader.mapWindowSize = 16 * 1024;
+                var entry = reader.getEntries().get(0);
+
+                var pool = Executors.newFixedThreadPool(4);
+                try {
+                    var reads = new ArrayList<Future<?>>();
+                    for (int t = 0; t < 4; t++) {
+                        int thread = t;
+                        reads.add(pool.submit(() -> {
+                            for (int i = 0; i < 500; i++) {
+                                int offset = ((i + thread) % 2 == 0 ? 0 : content.length / 2) + (i * 997) % (content.length / 2 - 4096);
+                                var mapped = entry.mapData(offset, 4096);
+                                var bytes = new byte[4096];
+                                mapped.get(bytes);
+                                assertThat(bytes).isEqualTo(Arrays.copyOfRange(content, offset, offset + 4096));
+                            }
+                            return null;
+                        }));
+                    }
+                    for (var read : reads) {
+                        read.get(30, TimeUnit.SECONDS);
+                    }
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testReadingDataFromSeveralThreads() throws Exception {
+        var random = new Random();
+        var content = new byte[256 * 1024];
+        random.nextBytes(content);
+        var zip = zipOf("entry", content);
+
+        var file = Files.createTempFile("zipreadertest", ".zip");
+        try {
+            Files.write(file, zip);
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                readConcurrently(new ZipReader(channel).getEntries().get(0), content);
+                // reading a file doesn't move it
+                assertThat(channel.position()).isZero();
+            }
+        } finally {
+            Files.delete(file);
+        }
+        readConcurrently(new ZipReader(new SeekableInMemoryByteChannel(zip)).getEntries().get(0), content);
+    }
+
+    private static void readConcurrently(ZipReader.Entry entry, byte[] content) throws Exception {
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            var reads = new ArrayList<Future<?>>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                reads.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        int offset = (i * 7919 + thread * 4099) % (content.length - 1024);
+                        try (var data = entry.getData(offset)) {
+                            // single bytes and then a block, so that both ways of reading are exercised
+                            for (int j = 0; j < 16; j++) {
+                                assertThat(data.read()).isEqualTo(content[offset + j] & 0xFF);
+                            }
+                            assertThat(data.readNBytes(1008)).isEqualTo(Arrays.copyOfRange(content, offset + 16, offset + 1024));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (var read : reads) {
+                read.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static byte[] zipOf(String name, byte[] content) throws IOException {
+        var out = new ByteArrayOutputStream();
+        var writer = new ZipWriter(out);
+        writer.data(name, content);
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    private static class CountingChannel implements SeekableByteChannel {
+        private final SeekableByteChannel inner;
+        int reads;
+
+        CountingChannel(SeekableByteChannel inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            reads++;
+            return inner.read(dst);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return inner.write(src);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return inner.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            inner.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return inner.size();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) throws IOException {
+            inner.truncate(size);
+            return this;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return inner.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            inner.close();
+        }
+    }
 }
\ No newline at end of file